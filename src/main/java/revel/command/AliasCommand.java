@@ -1,13 +1,12 @@
 package revel.command;
 
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.stream.Collectors;
 
 import revel.RevelException;
 import revel.parser.AliasParser;
 import revel.storage.AliasStorage;
-import revel.storage.Storage;
+import revel.storage.StorageBackend;
 import revel.task.TaskList;
 import revel.ui.Ui;
 
@@ -45,28 +44,23 @@ public class AliasCommand extends Command {
     }
 
     @Override
-    public String execute(TaskList tasks, Ui ui, Storage storage) throws RevelException {
-        Map<String, CommandWord> aliases = new LinkedHashMap<>(aliasStorage.load());
-
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException {
         return switch (action) {
         case ADD -> {
             String aliasKey = normalizeAlias(alias);
             CommandWord commandWord = parseCommandWord(commandName);
-            aliases.put(aliasKey, commandWord);
-            aliasStorage.save(aliases);
-            AliasParser.replaceUserAliases(aliases);
+            AliasParser.addUserAlias(aliasKey, commandWord);
+            aliasStorage.queuePut(aliasKey, commandWord);
             yield " Added alias: " + aliasKey + " -> " + commandWord.name().toLowerCase();
         }
         case REMOVE -> {
             String aliasKey = normalizeAlias(alias);
-            if (aliases.remove(aliasKey) == null) {
-                throw new RevelException("Alias does not exist: " + aliasKey);
-            }
-            aliasStorage.save(aliases);
-            AliasParser.replaceUserAliases(aliases);
+            AliasParser.removeUserAlias(aliasKey);
+            aliasStorage.queueRemove(aliasKey);
             yield " Removed alias: " + aliasKey;
         }
         case LIST -> {
+            Map<String, CommandWord> aliases = AliasParser.getUserAliases();
             if (aliases.isEmpty()) {
                 yield " No aliases defined.";
             }
@@ -0,0 +1,31 @@
+package revel.command;
+
+import revel.RevelException;
+import revel.storage.StorageBackend;
+import revel.storage.TaskArchive;
+import revel.task.TaskList;
+import revel.ui.Ui;
+
+/**
+ * Moves every completed task into the compressed task archive.
+ * <p>
+ * Archived tasks no longer appear in the task list, but can still be looked up with the
+ * {@code archived} command.
+ * </p>
+ */
+public class ArchiveCommand extends Command {
+    private final TaskArchive archive;
+
+    public ArchiveCommand(TaskArchive archive) {
+        this.archive = archive;
+    }
+
+    @Override
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException {
+        if (tasks.isInTransaction()) {
+            throw new RevelException("Sorry, but archiving cannot be rolled back.\n"
+                    + "Use 'commit' or 'rollback' to finish the transaction first.");
+        }
+        return ui.showArchived(archive.archiveDone(tasks, storage));
+    }
+}
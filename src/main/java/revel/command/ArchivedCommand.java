@@ -0,0 +1,35 @@
+package revel.command;
+
+import java.util.List;
+
+import revel.RevelException;
+import revel.storage.StorageBackend;
+import revel.storage.TaskArchive;
+import revel.task.Task;
+import revel.task.TaskList;
+import revel.ui.Ui;
+
+/**
+ * Lists archived tasks, optionally only those whose descriptions contain a keyword.
+ */
+public class ArchivedCommand extends Command {
+    private final TaskArchive archive;
+    private final String keyword;
+
+    /**
+     * Creates a command that searches the given archive.
+     *
+     * @param archive Archive to search.
+     * @param keyword Search keyword, or an empty string for every archived task.
+     */
+    public ArchivedCommand(TaskArchive archive, String keyword) {
+        this.archive = archive;
+        this.keyword = keyword;
+    }
+
+    @Override
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException {
+        List<Task> archivedTasks = archive.search(keyword);
+        return ui.showArchivedTaskList(archivedTasks);
+    }
+}
@@ -0,0 +1,18 @@
+package revel.command;
+
+import revel.RevelException;
+import revel.storage.StorageBackend;
+import revel.task.TaskList;
+import revel.ui.Ui;
+
+/**
+ * Opens a transaction, so that the following changes are kept in memory until {@code commit}.
+ */
+public class BeginCommand extends Command {
+
+    @Override
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException {
+        tasks.beginTransaction();
+        return ui.showTransactionBegun();
+    }
+}
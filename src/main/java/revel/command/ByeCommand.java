@@ -1,17 +1,32 @@
 package revel.command;
 
-import revel.storage.Storage;
+import revel.RevelException;
+import revel.storage.StorageBackend;
 import revel.task.TaskList;
 import revel.ui.Ui;
 
 /**
  * Prints a goodbye statement and exits the program.
+ * <p>
+ * Before exiting, any changes still pending in {@link StorageBackend} are flushed to disk.
+ * An open transaction is rolled back, so its changes are not saved.
+ * </p>
  */
 public class ByeCommand extends Command {
 
     @Override
-    public String execute(TaskList tasks, Ui ui, Storage storage) {
-        return ui.showBye();
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException {
+        String response = ui.showBye();
+        if (tasks.isInTransaction()) {
+            boolean isChanged = tasks.rollbackTransaction();
+            response = ui.showRolledBack(isChanged, tasks.getSize()) + "\n" + response;
+        }
+        try {
+            storage.flush();
+        } catch (RevelException e) {
+            response += "\n" + ui.showSaveWarning(e.getMessage());
+        }
+        return response;
     }
 
 
@@ -1,14 +1,14 @@
 package revel.command;
 
 import revel.RevelException;
-import revel.storage.Storage;
+import revel.storage.StorageBackend;
 import revel.task.TaskList;
 import revel.ui.Ui;
 
 /**
  * Represents an executable user command.
  * <p>
- *     Concrete subclasses implement {@link #execute(TaskList, Ui, Storage)} to perform an action,
+ *     Concrete subclasses implement {@link #execute(TaskList, Ui, StorageBackend)} to perform an action,
  *     such as modifying the task list, displaying information to the user, or exiting the program.
  * </p>
  */
@@ -25,7 +25,7 @@ public abstract class Command {
      * @param storage The storage handler used to load/save tasks.
      * @throws RevelException If the command cannot be executed due to invalid input or storage errors.
      */
-    public abstract String execute(TaskList tasks, Ui ui, Storage storage) throws RevelException;
+    public abstract String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException;
 
     public boolean isExit() {
         return false;
@@ -4,5 +4,6 @@ package revel.command;
  * Represents supported command keywords.
  */
 public enum CommandWord {
-    HELLO, BYE, LIST, TODO, DEADLINE, EVENT, MARK, UNMARK, DELETE, HELP, ALIAS, FIND
+    HELLO, BYE, LIST, TODO, DEADLINE, EVENT, MARK, UNMARK, DELETE, HELP, ALIAS, FIND, COMPACT, ARCHIVE, ARCHIVED,
+    IMPORT, EXPORT, BEGIN, COMMIT, ROLLBACK, UNDO, REDO, DURING, DUE, UPCOMING, OVERDUE
 }
@@ -0,0 +1,28 @@
+package revel.command;
+
+import revel.RevelException;
+import revel.storage.StorageBackend;
+import revel.task.TaskList;
+import revel.ui.Ui;
+
+/**
+ * Keeps the changes made since {@code begin} and saves them to disk in a single write.
+ * <p>
+ * While a transaction is open, commands are given a storage that only collects their save
+ * requests; flushing it here writes all the collected changes at once.
+ * </p>
+ */
+public class CommitCommand extends Command {
+
+    @Override
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException {
+        boolean isChanged = tasks.commitTransaction();
+        String response = ui.showCommitted(isChanged, tasks.getSize());
+        try {
+            storage.flush();
+        } catch (RevelException e) {
+            response += "\n" + ui.showSaveWarning(e.getMessage());
+        }
+        return response;
+    }
+}
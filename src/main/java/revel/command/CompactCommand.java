@@ -0,0 +1,26 @@
+package revel.command;
+
+import revel.RevelException;
+import revel.storage.StorageBackend;
+import revel.task.TaskList;
+import revel.ui.Ui;
+
+/**
+ * Rewrites the task file so that it holds only the current tasks.
+ * <p>
+ * This folds any pending journal into the task file and reclaims the slots freed by deletions
+ * in the paged storage mode.
+ * </p>
+ */
+public class CompactCommand extends Command {
+
+    @Override
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException {
+        try {
+            storage.compact(tasks);
+        } catch (RevelException e) {
+            return ui.showSaveWarning(e.getMessage());
+        }
+        return ui.showCompacted(tasks.getSize());
+    }
+}
@@ -2,7 +2,7 @@ package revel.command;
 
 import revel.RevelException;
 import revel.parser.TaskArgumentParser;
-import revel.storage.Storage;
+import revel.storage.StorageBackend;
 import revel.task.Deadline;
 import revel.task.Task;
 import revel.task.TaskList;
@@ -12,7 +12,7 @@ import revel.ui.Ui;
  * Adds a {@link Deadline} task to the task list.
  * <p>
  * The deadline details (description and due date/time) are provided via {@link TaskArgumentParser.DeadlineArgs}.
- * After adding the task, this command attempts to persist the updated task list using {@link Storage}.
+ * After adding the task, this command attempts to persist the updated task list using {@link StorageBackend}.
  * If saving fails, a warning is shown to the user.
  * </p>
  */
@@ -24,13 +24,13 @@ public class DeadlineCommand extends Command {
     }
 
     @Override
-    public String execute(TaskList tasks, Ui ui, Storage storage) {
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) {
         Task selectedTask = new Deadline(this.deadlineArgs.description(),
                 this.deadlineArgs.byDate());
         tasks.addTask(selectedTask);
         String response = ui.showTaskAdded(selectedTask, tasks.getSize());
         try {
-            storage.save(tasks);
+            storage.saveTaskAdded(tasks, selectedTask);
         } catch (RevelException e) {
             response += "\n" + ui.showSaveWarning(e.getMessage());
         }
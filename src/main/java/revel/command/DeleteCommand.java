@@ -1,7 +1,7 @@
 package revel.command;
 
 import revel.RevelException;
-import revel.storage.Storage;
+import revel.storage.StorageBackend;
 import revel.task.Task;
 import revel.task.TaskList;
 import revel.ui.Ui;
@@ -9,7 +9,7 @@ import revel.ui.Ui;
 /**
  * Removes a {@link Task} task to the task list.
  * <p>
- * After removing the task, this command attempts to persist the updated task list using {@link Storage}.
+ * After removing the task, this command attempts to persist the updated task list using {@link StorageBackend}.
  * If saving fails, a warning is shown to the user.
  * </p>
  */
@@ -21,11 +21,12 @@ public class DeleteCommand extends Command {
     }
 
     @Override
-    public String execute(TaskList tasks, Ui ui, Storage storage) throws RevelException {
-        Task selectedTask = tasks.deleteTask(this.argsLine);
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException {
+        int index = tasks.getIndexForDeletion(this.argsLine);
+        Task selectedTask = tasks.deleteTaskAt(index);
         String response = ui.showTaskDeleted(selectedTask, tasks.getSize());
         try {
-            storage.save(tasks);
+            storage.saveTaskDeleted(tasks, index);
         } catch (RevelException e) {
             response += "\n" + ui.showSaveWarning(e.getMessage());
         }
@@ -0,0 +1,23 @@
+package revel.command;
+
+import java.time.LocalDateTime;
+
+import revel.storage.StorageBackend;
+import revel.task.TaskList;
+import revel.ui.Ui;
+
+/**
+ * Lists the deadlines and events that are not done and are due before a date.
+ */
+public class DueCommand extends Command {
+    private final LocalDateTime date;
+
+    public DueCommand(LocalDateTime date) {
+        this.date = date;
+    }
+
+    @Override
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) {
+        return ui.showDueBefore(tasks.findDueBefore(this.date), this.date);
+    }
+}
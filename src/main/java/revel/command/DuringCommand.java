@@ -0,0 +1,23 @@
+package revel.command;
+
+import revel.parser.TaskArgumentParser;
+import revel.storage.StorageBackend;
+import revel.task.TaskList;
+import revel.ui.Ui;
+
+/**
+ * Lists the events that take place at any time within a time range.
+ */
+public class DuringCommand extends Command {
+    private final TaskArgumentParser.TimeRange range;
+
+    public DuringCommand(TaskArgumentParser.TimeRange range) {
+        this.range = range;
+    }
+
+    @Override
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) {
+        TaskList events = tasks.findEventsDuring(this.range.start(), this.range.end());
+        return ui.showEventsDuring(events, this.range);
+    }
+}
@@ -0,0 +1,66 @@
+package revel.command;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import revel.RevelException;
+import revel.storage.ExchangeFormat;
+import revel.storage.StorageBackend;
+import revel.storage.TaskExporter;
+import revel.task.Task;
+import revel.task.TaskList;
+import revel.ui.Ui;
+
+/**
+ * Exports the task list to a CSV, JSON Lines or iCalendar file.
+ * <p>
+ * The command takes a snapshot of the list, with copies of its tasks, and returns immediately; the
+ * file is written on a background thread while further commands are handled. The outcome is shown
+ * with the response to a later command.
+ * </p>
+ */
+public class ExportCommand extends Command {
+    private static final String USAGE = "Usage: export <csv|jsonl|ics> <file>";
+
+    private final ExchangeFormat format;
+    private final String fileName;
+
+    /**
+     * Creates a command that exports the task list in the given format.
+     *
+     * @param argsLine Format name followed by the file to write.
+     * @throws RevelException If the format or the file is missing, or the format is unknown.
+     */
+    public ExportCommand(String argsLine) throws RevelException {
+        String[] parts = argsLine.strip().split("\\s+", 2);
+        if (parts.length < 2 || parts[1].isBlank()) {
+            throw new RevelException(" Sorry, but export needs a format and a file.\n" + USAGE);
+        }
+        this.format = ExchangeFormat.fromName(parts[0]);
+        this.fileName = parts[1].strip();
+    }
+
+    @Override
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException {
+        Path file = Paths.get(fileName);
+        // Copies, since commands handled meanwhile may mark or unmark the listed tasks in place.
+        List<Task> snapshot = new ArrayList<>(tasks.getSize());
+        for (Task task : tasks.getTaskList()) {
+            snapshot.add(task.copy());
+        }
+        long start = System.nanoTime();
+        CompletableFuture<Integer> export = TaskExporter.exportAsync(snapshot, format, file);
+        export.whenComplete((count, error) -> {
+            if (error == null) {
+                ui.addNotice(ui.showExported(count, fileName, (System.nanoTime() - start) / 1e9));
+            } else {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                ui.addNotice(ui.showError(cause.getMessage()));
+            }
+        });
+        return ui.showExportStarted(snapshot.size(), fileName);
+    }
+}
@@ -1,14 +1,19 @@
 package revel.command;
 
 import revel.RevelException;
-import revel.storage.Storage;
+import revel.storage.StorageBackend;
 import revel.task.TaskList;
 import revel.ui.Ui;
 
 /**
  * Finds tasks whose descriptions contain a keyword.
+ * <p>
+ * The keyword {@code /stats} shows the size of the search index instead.
+ * </p>
  */
 public class FindCommand extends Command {
+    private static final String STATS_KEYWORD = "/stats";
+
     private final String keyword;
 
     public FindCommand(String keyword) {
@@ -16,7 +21,10 @@ public class FindCommand extends Command {
     }
 
     @Override
-    public String execute(TaskList tasks, Ui ui, Storage storage) throws RevelException {
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException {
+        if (keyword.trim().equals(STATS_KEYWORD)) {
+            return ui.showSearchIndexStats(tasks.getSearchIndexStats());
+        }
         TaskList foundTasks = tasks.findTasks(keyword);
         return ui.showFoundTaskList(foundTasks);
     }
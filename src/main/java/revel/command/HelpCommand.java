@@ -1,6 +1,6 @@
 package revel.command;
 
-import revel.storage.Storage;
+import revel.storage.StorageBackend;
 import revel.task.TaskList;
 import revel.ui.Ui;
 
@@ -11,7 +11,7 @@ import revel.ui.Ui;
 public class HelpCommand extends Command {
 
     @Override
-    public String execute(TaskList tasks, Ui ui, Storage storage) {
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) {
         return ui.showHelp();
     }
 }
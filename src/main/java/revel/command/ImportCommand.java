@@ -0,0 +1,56 @@
+package revel.command;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import revel.RevelException;
+import revel.storage.ExchangeFormat;
+import revel.storage.StorageBackend;
+import revel.storage.TaskImporter;
+import revel.task.TaskList;
+import revel.ui.Ui;
+
+/**
+ * Imports tasks from a CSV, JSON Lines or iCalendar file.
+ * <p>
+ * The format is taken from the file extension. All imported tasks are appended to the list in one
+ * step and the list is saved once at the end, however many tasks the file holds.
+ * </p>
+ */
+public class ImportCommand extends Command {
+    private final String fileName;
+
+    /**
+     * Creates a command that imports the given file.
+     *
+     * @param fileName Path of the file to import.
+     * @throws RevelException If no file is given.
+     */
+    public ImportCommand(String fileName) throws RevelException {
+        if (fileName.isBlank()) {
+            throw new RevelException(" Sorry, but the file to import cannot be empty.\n"
+                    + "Usage: import <file.csv|file.jsonl|file.ics>");
+        }
+        this.fileName = fileName.strip();
+    }
+
+    @Override
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException {
+        Path file = Paths.get(fileName);
+        ExchangeFormat format = ExchangeFormat.fromPath(file);
+        TaskImporter.ImportResult result = TaskImporter.read(file, format,
+                (count, rate) -> ui.showProgress(ui.showImportProgress(count, rate)));
+
+        tasks.addTasks(result.tasks());
+        String response = ui.showImported(result.tasks().size(), tasks.getSize(),
+                result.elapsedNanos() / 1e9, result.recordsPerSecond(), result.failedCount(), result.errors());
+        if (!result.tasks().isEmpty()) {
+            try {
+                storage.save(tasks);
+            } catch (RevelException e) {
+                response += "\n" + ui.showSaveWarning(e.getMessage());
+            }
+        }
+        return response;
+    }
+}
@@ -1,7 +1,7 @@
 package revel.command;
 
 import revel.RevelException;
-import revel.storage.Storage;
+import revel.storage.StorageBackend;
 import revel.task.Task;
 import revel.task.TaskList;
 import revel.ui.Ui;
@@ -10,7 +10,8 @@ import revel.ui.Ui;
  * Marks a task in the task list as completed.
  * <p>
  * The task to mark is identified by a task number provided in {@code argsLine}
- * (e.g., {@code "2"} for the second task). After marking the task, this command
+ * (e.g., {@code "2"} for the second task) or by a task ID (e.g., {@code "#17"}).
+ * After marking the task, this command
  * attempts to save the updated task list to disk.
  * </p>
  */
@@ -22,16 +23,17 @@ public class MarkCommand extends Command {
     }
 
     @Override
-    public String execute(TaskList tasks, Ui ui, Storage storage) throws RevelException {
-        Task selectedTask = tasks.getTaskForMarking(this.argsLine);
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException {
+        int index = tasks.getIndexForMarking(this.argsLine);
+        Task selectedTask = tasks.get(index);
         if (selectedTask.isDone()) {
             return ui.showTaskAlreadyMarked(selectedTask);
         }
 
-        selectedTask.markAsDone();
+        selectedTask = tasks.markTaskAt(index);
         String response = ui.showTaskMarked(selectedTask);
         try {
-            storage.save(tasks);
+            storage.saveTaskMarked(tasks, index);
         } catch (RevelException e) {
             response += "\n" + ui.showSaveWarning(e.getMessage());
         }
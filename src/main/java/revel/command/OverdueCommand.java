@@ -0,0 +1,17 @@
+package revel.command;
+
+import java.time.LocalDateTime;
+
+import revel.storage.StorageBackend;
+import revel.task.TaskList;
+import revel.ui.Ui;
+
+/**
+ * Lists the deadlines that have passed without being done.
+ */
+public class OverdueCommand extends Command {
+    @Override
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) {
+        return ui.showOverdue(tasks.findOverdue(LocalDateTime.now()));
+    }
+}
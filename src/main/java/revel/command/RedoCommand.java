@@ -0,0 +1,30 @@
+package revel.command;
+
+import revel.RevelException;
+import revel.storage.StorageBackend;
+import revel.task.TaskList;
+import revel.ui.Ui;
+
+/**
+ * Reapplies the last change that was undone.
+ * <p>
+ * Only the tasks that differ are written, through the same incremental storage hooks the other
+ * commands use, so a redo does not rewrite the whole task file in storage modes that save
+ * changes individually.
+ * </p>
+ */
+public class RedoCommand extends Command {
+
+    @Override
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException {
+        StorageChangeListener listener = new StorageChangeListener(tasks, storage);
+        if (!tasks.redo(listener)) {
+            return ui.showNothingToRedo();
+        }
+        String response = ui.showRedone(tasks.getSize());
+        if (listener.getError() != null) {
+            response += "\n" + ui.showSaveWarning(listener.getError());
+        }
+        return response;
+    }
+}
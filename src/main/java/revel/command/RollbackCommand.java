@@ -0,0 +1,21 @@
+package revel.command;
+
+import revel.RevelException;
+import revel.storage.StorageBackend;
+import revel.task.TaskList;
+import revel.ui.Ui;
+
+/**
+ * Discards the changes made since {@code begin}, restoring the task list as it was.
+ * <p>
+ * Nothing was written to disk during the transaction, so nothing needs to be written here either.
+ * </p>
+ */
+public class RollbackCommand extends Command {
+
+    @Override
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException {
+        boolean isChanged = tasks.rollbackTransaction();
+        return ui.showRolledBack(isChanged, tasks.getSize());
+    }
+}
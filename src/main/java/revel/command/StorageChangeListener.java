@@ -0,0 +1,76 @@
+package revel.command;
+
+import revel.RevelException;
+import revel.storage.StorageBackend;
+import revel.task.TaskList;
+
+/**
+ * Saves each change an undo or redo makes through the matching incremental storage hook.
+ * <p>
+ * A failed save does not stop the remaining changes from being applied; the first error is kept
+ * so that it can be shown as a warning afterwards.
+ * </p>
+ */
+class StorageChangeListener implements TaskList.ChangeListener {
+    private final TaskList tasks;
+    private final StorageBackend storage;
+    private String error;
+
+    StorageChangeListener(TaskList tasks, StorageBackend storage) {
+        this.tasks = tasks;
+        this.storage = storage;
+    }
+
+    /**
+     * Returns the message of the first failed save, or null if every change was saved.
+     */
+    String getError() {
+        return error;
+    }
+
+    @Override
+    public void taskInserted(int index) {
+        save(() -> {
+            if (index == tasks.getSize() - 1) {
+                storage.saveTaskAdded(tasks, tasks.get(index));
+            } else {
+                storage.saveTaskInserted(tasks, index);
+            }
+        });
+    }
+
+    @Override
+    public void taskDeleted(int index) {
+        save(() -> storage.saveTaskDeleted(tasks, index));
+    }
+
+    @Override
+    public void taskStatusChanged(int index) {
+        save(() -> {
+            if (tasks.get(index).isDone()) {
+                storage.saveTaskMarked(tasks, index);
+            } else {
+                storage.saveTaskUnmarked(tasks, index);
+            }
+        });
+    }
+
+    @Override
+    public void tasksReplaced() {
+        save(() -> storage.save(tasks));
+    }
+
+    private void save(SaveAction action) {
+        try {
+            action.run();
+        } catch (RevelException e) {
+            if (error == null) {
+                error = e.getMessage();
+            }
+        }
+    }
+
+    private interface SaveAction {
+        void run() throws RevelException;
+    }
+}
@@ -1,7 +1,7 @@
 package revel.command;
 
 import revel.RevelException;
-import revel.storage.Storage;
+import revel.storage.StorageBackend;
 import revel.task.Task;
 import revel.task.TaskList;
 import revel.task.ToDo;
@@ -10,7 +10,7 @@ import revel.ui.Ui;
 /**
  * Adds a {@link ToDo} task to the task list.
  * <p>
- * After adding the task, this command attempts to persist the updated task list using {@link Storage}.
+ * After adding the task, this command attempts to persist the updated task list using {@link StorageBackend}.
  * If saving fails, a warning is shown to the user.
  * </p>
  */
@@ -22,12 +22,12 @@ public class TodoCommand extends Command {
     }
 
     @Override
-    public String execute(TaskList tasks, Ui ui, Storage storage) {
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) {
         Task selectedTask = new ToDo(this.description);
         tasks.addTask(selectedTask);
         String response = ui.showTaskAdded(selectedTask, tasks.getSize());
         try {
-            storage.save(tasks);
+            storage.saveTaskAdded(tasks, selectedTask);
         } catch (RevelException e) {
             response += "\n" + ui.showSaveWarning(e.getMessage());
         }
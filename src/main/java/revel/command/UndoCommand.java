@@ -0,0 +1,30 @@
+package revel.command;
+
+import revel.RevelException;
+import revel.storage.StorageBackend;
+import revel.task.TaskList;
+import revel.ui.Ui;
+
+/**
+ * Reverts the task list to how it was before the last command that changed it.
+ * <p>
+ * Only the tasks that differ are written, through the same incremental storage hooks the other
+ * commands use, so an undo does not rewrite the whole task file in storage modes that save
+ * changes individually.
+ * </p>
+ */
+public class UndoCommand extends Command {
+
+    @Override
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException {
+        StorageChangeListener listener = new StorageChangeListener(tasks, storage);
+        if (!tasks.undo(listener)) {
+            return ui.showNothingToUndo();
+        }
+        String response = ui.showUndone(tasks.getSize());
+        if (listener.getError() != null) {
+            response += "\n" + ui.showSaveWarning(listener.getError());
+        }
+        return response;
+    }
+}
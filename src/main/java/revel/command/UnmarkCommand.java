@@ -1,7 +1,7 @@
 package revel.command;
 
 import revel.RevelException;
-import revel.storage.Storage;
+import revel.storage.StorageBackend;
 import revel.task.Task;
 import revel.task.TaskList;
 import revel.ui.Ui;
@@ -10,8 +10,9 @@ import revel.ui.Ui;
 /**
  * Unmarks a task in the task list as completed.
  * <p>
- * The task to i,mark is identified by a task number provided in {@code argsLine}
- * (e.g., {@code "2"} for the second task). After unmarking the task, this command
+ * The task to unmark is identified by a task number provided in {@code argsLine}
+ * (e.g., {@code "2"} for the second task) or by a task ID (e.g., {@code "#17"}).
+ * After unmarking the task, this command
  * attempts to save the updated task list to disk.
  * </p>
  */
@@ -23,16 +24,17 @@ public class UnmarkCommand extends Command {
     }
 
     @Override
-    public String execute(TaskList tasks, Ui ui, Storage storage) throws RevelException {
-        Task selectedTask = tasks.getTaskForUnmarking(this.argsLine);
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) throws RevelException {
+        int index = tasks.getIndexForUnmarking(this.argsLine);
+        Task selectedTask = tasks.get(index);
         if (!selectedTask.isDone()) {
             return ui.showTaskAlreadyUnmarked(selectedTask);
         }
 
-        selectedTask.markAsUndone();
+        selectedTask = tasks.unmarkTaskAt(index);
         String response = ui.showTaskUnmarked(selectedTask);
         try {
-            storage.save(tasks);
+            storage.saveTaskUnmarked(tasks, index);
         } catch (RevelException e) {
             response += "\n" + ui.showSaveWarning(e.getMessage());
         }
@@ -0,0 +1,23 @@
+package revel.command;
+
+import java.time.LocalDateTime;
+
+import revel.storage.StorageBackend;
+import revel.task.TaskList;
+import revel.ui.Ui;
+
+/**
+ * Lists the next deadlines and events that are not done, starting from now.
+ */
+public class UpcomingCommand extends Command {
+    private final int count;
+
+    public UpcomingCommand(int count) {
+        this.count = count;
+    }
+
+    @Override
+    public String execute(TaskList tasks, Ui ui, StorageBackend storage) {
+        return ui.showUpcoming(tasks.findUpcoming(LocalDateTime.now(), this.count));
+    }
+}
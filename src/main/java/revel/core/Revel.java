@@ -1,14 +1,29 @@
 package revel.core;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 import revel.RevelException;
 import revel.command.Command;
 import revel.parser.AliasParser;
 import revel.parser.Parser;
 import revel.storage.AliasStorage;
-import revel.storage.Storage;
+import revel.storage.DeferredStorage;
+import revel.storage.SalvageResult;
+import revel.storage.StorageBackend;
+import revel.storage.StorageBackends;
+import revel.storage.TaskArchive;
+import revel.storage.TaskExporter;
 import revel.task.TaskList;
 import revel.ui.Ui;
 
@@ -20,8 +35,15 @@ public class Revel {
     private static final String TASKS_FILE_NAME = "tasks.txt";
     private static final String ALIASES_FILE_NAME = "aliases.json";
     private static final String COMMAND_TYPE_ERROR = "ErrorCommand";
+    private static final String BATCH_OPTION = "--batch";
+    private static final String SAVE_EVERY_OPTION = "--save-every";
+    private static final String STDIN_SCRIPT = "-";
+    private static final int IO_BUFFER_SIZE = 1 << 16;
     private final Ui ui;
-    private final Storage storage;
+    private StorageBackend storage;
+    private DeferredStorage transactionStorage;
+    private final AliasStorage aliasStorage;
+    private final TaskArchive archive;
     private TaskList storedTasks;
     private String commandType;
 
@@ -33,15 +55,24 @@ public class Revel {
     public Revel(String dataDir) {
         Path dataDirPath = Paths.get(dataDir);
         ui = new Ui();
-        storage = new Storage(dataDirPath.resolve(TASKS_FILE_NAME));
-        AliasStorage aliasStorage = new AliasStorage(dataDirPath.resolve(ALIASES_FILE_NAME));
+        storage = StorageBackends.create(dataDirPath.resolve(TASKS_FILE_NAME), System.getProperties());
+        aliasStorage = new AliasStorage(dataDirPath.resolve(ALIASES_FILE_NAME));
         AliasParser.setAliasStorage(aliasStorage);
+        archive = new TaskArchive(dataDirPath.resolve(TASKS_FILE_NAME),
+                Math.max(0, Integer.getInteger(TaskArchive.THRESHOLD_PROPERTY, 0)));
+        Parser.setTaskArchive(archive);
         try {
-            storedTasks = new TaskList(storage.load());
+            storedTasks = TaskList.backedBy(storage.load());
         } catch (RevelException e) {
-            System.out.println(ui.showLoadingError());
-            storedTasks = new TaskList();
+            storedTasks = salvageTasks();
+        }
+        storedTasks.setIdSource(storage.getIdSource());
+        String archived = withAutoArchive("");
+        if (!archived.isEmpty()) {
+            System.out.println(archived.strip());
         }
+        storedTasks.enableHistory(Math.max(0,
+                Integer.getInteger(TaskList.HISTORY_DEPTH_PROPERTY, TaskList.DEFAULT_HISTORY_DEPTH)));
         try {
             AliasParser.replaceUserAliases(aliasStorage.load());
         } catch (RevelException e) {
@@ -49,34 +80,262 @@ public class Revel {
         }
     }
 
+    /**
+     * Recovers the readable tasks after a failed load, so that the next save does not erase the others.
+     */
+    private TaskList salvageTasks() {
+        try {
+            SalvageResult result = storage.salvage();
+            System.out.println(ui.showSalvageReport(result.recoveredCount(), result.quarantinedCount(),
+                    result.quarantinePath().toString()));
+            return TaskList.backedBy(result.tasks());
+        } catch (RevelException e) {
+            System.out.println(ui.showLoadingError());
+            return new TaskList();
+        }
+    }
+
+    /**
+     * Archives completed tasks when the automatic threshold is reached, appending a note to the response.
+     */
+    private String withAutoArchive(String response) {
+        if (storedTasks.isInTransaction()) {
+            return response;
+        }
+        try {
+            int archivedCount = archive.applyPolicy(storedTasks, storage);
+            return archivedCount == 0 ? response : response + "\n" + ui.showArchived(archivedCount);
+        } catch (RevelException e) {
+            return response + "\n" + ui.showSaveWarning(e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the whole list once when loaded tasks were given new IDs, so that they keep them after a restart.
+     */
+    private String withAssignedIdsSaved(String response) {
+        if (storedTasks.isInTransaction() || !storedTasks.takeUnsavedIds()) {
+            return response;
+        }
+        try {
+            storage.save(storedTasks);
+            return response;
+        } catch (RevelException e) {
+            return response + "\n" + ui.showSaveWarning(e.getMessage());
+        }
+    }
+
+    /**
+     * Applies changes made to the task file by other programs, returning a notice or an empty string.
+     */
+    private String reloadExternalChanges() {
+        if (storedTasks.isInTransaction()) {
+            return "";
+        }
+        try {
+            int changedCount = storage.reloadExternalChanges(storedTasks);
+            if (changedCount == 0) {
+                return "";
+            }
+            storedTasks.clearHistory(); // undo steps would not know about the reloaded tasks
+            return ui.showReloaded(changedCount) + "\n";
+        } catch (RevelException e) {
+            return ui.showError(e.getMessage()) + "\n";
+        }
+    }
+
+    /**
+     * Runs a command against the task list.
+     * <p>
+     * While a transaction is open, the command gets a storage that only collects its save requests,
+     * so that {@code commit} can write them all at once and {@code rollback} can drop them. Any
+     * change the command made is recorded as one step that {@code undo} can revert.
+     * </p>
+     */
+    private String execute(Command c) throws RevelException {
+        StorageBackend target = storage;
+        if (!storedTasks.isInTransaction()) {
+            transactionStorage = null;
+        } else {
+            if (transactionStorage == null) {
+                transactionStorage = new DeferredStorage(storage, 0);
+            }
+            target = transactionStorage;
+        }
+        String response = withAutoArchive(withAssignedIdsSaved(c.execute(storedTasks, ui, target)));
+        storedTasks.recordHistory();
+        return response;
+    }
+
+    /**
+     * Appends notices from background work and a warning for any save failure that happened in the
+     * background since the last response.
+     */
+    private String withDeferredWarning(String response) {
+        String notices = ui.pollNotices();
+        if (notices != null) {
+            response = response + "\n" + notices;
+        }
+        String error = storage.pollDeferredError();
+        if (error == null) {
+            error = aliasStorage.pollDeferredError();
+        }
+        if (error == null) {
+            return response;
+        }
+        return response + "\n" + ui.showSaveWarning(error);
+    }
+
     /**
      * Runs the main input-processing loop.
      */
     public void run() {
 
         boolean isExit = false;
+        ui.setProgressOutput(new PrintWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), true));
 
         while (!isExit) {
             try {
                 String fullCommand = ui.readCommand();
+                System.out.print(reloadExternalChanges());
                 Command c = Parser.parse(fullCommand);
-                String response = c.execute(storedTasks, ui, storage);
-                System.out.println(response);
+                String response = execute(c);
+                System.out.println(withDeferredWarning(response));
                 isExit = c.isExit();
             } catch (RevelException e) {
-                System.out.println(ui.showError(e.getMessage()));
+                System.out.println(withDeferredWarning(ui.showError(e.getMessage())));
             }
         }
+        try {
+            aliasStorage.flush();
+        } catch (RevelException e) {
+            System.out.println(ui.showSaveWarning(e.getMessage()));
+        }
         ui.close();
     }
 
+    /**
+     * Runs every command of a script without interaction and returns the number of failed commands.
+     * <p>
+     * Input and output are buffered, and changes are saved only every {@code saveInterval} commands
+     * that change the list (or only once at the end if it is 0), so the run is not held up by disk
+     * writes. Blank lines and lines starting with {@code #} are skipped, and {@code bye} ends the run
+     * early. A summary with the failed commands is printed at the end.
+     * </p>
+     *
+     * @param input Script to read commands from.
+     * @param output Destination of the responses and the summary; it is flushed but not closed.
+     * @param saveInterval Number of changes after which the list is saved, or 0 to save only at the end.
+     * @return Number of commands that failed, including a failed final save.
+     * @throws IOException If the script cannot be read.
+     */
+    public int runBatch(BufferedReader input, PrintWriter output, int saveInterval) throws IOException {
+        DeferredStorage deferred = new DeferredStorage(storage, saveInterval);
+        StorageBackend interactiveStorage = storage;
+        storage = deferred;
+        PrintWriter interactiveProgressOutput = ui.setProgressOutput(output);
+        List<String> failures = new ArrayList<>();
+        int commandCount = 0;
+        int lineNumber = 0;
+        long start = System.nanoTime();
+        try {
+            String line;
+            boolean isExit = false;
+            while (!isExit && (line = input.readLine()) != null) {
+                lineNumber++;
+                String fullCommand = line.strip();
+                if (fullCommand.isEmpty() || fullCommand.startsWith("#")) {
+                    continue;
+                }
+                commandCount++;
+                try {
+                    Command c = Parser.parse(fullCommand);
+                    output.println(withDeferredWarning(execute(c)));
+                    isExit = c.isExit();
+                } catch (RevelException e) {
+                    failures.add("Line " + lineNumber + ": " + e.getMessage().strip().lines().findFirst().orElse(""));
+                    output.println(ui.showError(e.getMessage()));
+                }
+            }
+        } finally {
+            storage = interactiveStorage;
+            ui.setProgressOutput(interactiveProgressOutput);
+            transactionStorage = null;
+            try {
+                if (storedTasks.isInTransaction()) {
+                    storedTasks.rollbackTransaction();
+                    failures.add("End of script: transaction was not committed, so its changes were discarded.");
+                }
+                deferred.flush();
+                aliasStorage.flush();
+            } catch (RevelException e) {
+                failures.add("Final save: " + e.getMessage().strip());
+            }
+            TaskExporter.awaitExports();
+            String notices = withDeferredWarning("");
+            if (!notices.isEmpty()) {
+                output.println(notices.strip());
+            }
+            output.println(ui.showBatchSummary(commandCount, failures, deferred.getSaveCount(),
+                    (System.nanoTime() - start) / 1e9));
+            output.flush();
+        }
+        return failures.size();
+    }
+
     /**
      * Starts the application.
+     * <p>
+     * With {@code --batch <script>} (or {@code --batch -}), or when standard input is not a terminal,
+     * commands are run from the script in batch mode; {@code --save-every <n>} saves every
+     * {@code n} changes instead of only at the end. The exit status is 1 if any command failed.
+     * </p>
      *
      * @param args Command line arguments.
      */
     public static void main(String[] args) {
-        new Revel("data").run();
+        String script = System.console() == null ? STDIN_SCRIPT : null;
+        int saveInterval = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals(BATCH_OPTION)) {
+                script = i + 1 < args.length ? args[++i] : STDIN_SCRIPT;
+            } else if (args[i].equals(SAVE_EVERY_OPTION) && i + 1 < args.length) {
+                saveInterval = Math.max(0, parseIntOrZero(args[++i]));
+            }
+        }
+        Revel revel = new Revel("data");
+        if (script == null) {
+            revel.run();
+            return;
+        }
+
+        int failedCount;
+        try (BufferedReader input = openScript(script)) {
+            PrintWriter output = new PrintWriter(new BufferedWriter(
+                    new OutputStreamWriter(System.out, StandardCharsets.UTF_8), IO_BUFFER_SIZE));
+            failedCount = revel.runBatch(input, output, saveInterval);
+        } catch (IOException e) {
+            System.err.println(" Unable to read batch script " + script + ": " + e.getMessage());
+            failedCount = 1;
+        }
+        if (failedCount > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static BufferedReader openScript(String script) throws IOException {
+        if (script.equals(STDIN_SCRIPT)) {
+            return new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), IO_BUFFER_SIZE);
+        }
+        return Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8);
+    }
+
+    private static int parseIntOrZero(String value) {
+        try {
+            return Integer.parseInt(value.strip());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
     }
 
     /**
@@ -84,13 +343,14 @@ public class Revel {
      */
     public String getResponse(String input) {
         commandType = COMMAND_TYPE_ERROR;
+        String reloadNotice = reloadExternalChanges();
         try {
             Command c = Parser.parse(input);
-            String response = c.execute(storedTasks, ui, storage);
+            String response = execute(c);
             commandType = c.toString();
-            return response;
+            return reloadNotice + withDeferredWarning(response);
         } catch (RevelException e) {
-            return ui.showError(e.getMessage());
+            return reloadNotice + withDeferredWarning(ui.showError(e.getMessage()));
         }
     }
 
@@ -1,5 +1,6 @@
 package revel.parser;
 
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -48,6 +49,20 @@ public class AliasParser {
         register(CommandWord.HELP, "help", "h");
         register(CommandWord.FIND, "find");
         register(CommandWord.ALIAS, "alias");
+        register(CommandWord.COMPACT, "compact");
+        register(CommandWord.ARCHIVE, "archive");
+        register(CommandWord.ARCHIVED, "archived");
+        register(CommandWord.IMPORT, "import");
+        register(CommandWord.EXPORT, "export");
+        register(CommandWord.BEGIN, "begin");
+        register(CommandWord.COMMIT, "commit");
+        register(CommandWord.ROLLBACK, "rollback");
+        register(CommandWord.UNDO, "undo");
+        register(CommandWord.REDO, "redo");
+        register(CommandWord.DURING, "during");
+        register(CommandWord.DUE, "due");
+        register(CommandWord.UPCOMING, "upcoming");
+        register(CommandWord.OVERDUE, "overdue");
     }
 
     static {
@@ -102,6 +117,43 @@ public class AliasParser {
         AliasParser.registerUserAliases(userAliases);
     }
 
+    /**
+     * Adds or replaces a user-defined alias in the registry.
+     *
+     * @param alias Normalized alias.
+     * @param word Command word the alias stands for.
+     * @throws RevelException If the alias is a built-in alias.
+     */
+    public static void addUserAlias(String alias, CommandWord word) throws RevelException {
+        if (BUILTIN_ALIASES.contains(alias)) {
+            throw new RevelException("Alias cannot override a built-in alias: " + alias);
+        }
+        USER_ALIASES.put(alias, word);
+        ALIASES.put(alias, word);
+    }
+
+    /**
+     * Removes a user-defined alias from the registry.
+     *
+     * @param alias Normalized alias.
+     * @throws RevelException If there is no such user-defined alias.
+     */
+    public static void removeUserAlias(String alias) throws RevelException {
+        if (USER_ALIASES.remove(alias) == null) {
+            throw new RevelException("Alias does not exist: " + alias);
+        }
+        ALIASES.remove(alias);
+    }
+
+    /**
+     * Returns the user-defined aliases in the order they were added.
+     *
+     * @return Read-only view of the user-defined aliases.
+     */
+    public static Map<String, CommandWord> getUserAliases() {
+        return Collections.unmodifiableMap(USER_ALIASES);
+    }
+
     protected static AliasCommand parseAliasCommand(String argsLine) throws RevelException {
         if (aliasStorage == null) {
             throw new RevelException("Alias storage is not configured.");
@@ -24,7 +24,14 @@ public class DateTimeParser {
     private static final DateTimeFormatter OUT_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
     private static final DateTimeFormatter OUT_DATE_TIME = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
 
-    protected static LocalDateTime parseToLocalDateTime(String raw) throws RevelException {
+    /**
+     * Parses a date/time in one of the accepted user input formats.
+     *
+     * @param raw Date/time as typed by the user.
+     * @return Parsed date-time, at the start of the day if no time was given.
+     * @throws RevelException If the input matches none of the accepted formats.
+     */
+    public static LocalDateTime parseToLocalDateTime(String raw) throws RevelException {
         String s = raw.trim();
 
         DateTimeFormatter[] dateTimeFormats = {IN_YMD_HHMM, IN_YMD_HH_COLON_MM, IN_DMY_HHMM};
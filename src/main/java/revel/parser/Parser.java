@@ -3,19 +3,34 @@ package revel.parser;
 import java.util.stream.Collectors;
 
 import revel.RevelException;
+import revel.command.ArchiveCommand;
+import revel.command.ArchivedCommand;
+import revel.command.BeginCommand;
 import revel.command.ByeCommand;
 import revel.command.Command;
 import revel.command.CommandWord;
+import revel.command.CommitCommand;
+import revel.command.CompactCommand;
 import revel.command.DeadlineCommand;
 import revel.command.DeleteCommand;
+import revel.command.DueCommand;
+import revel.command.DuringCommand;
 import revel.command.EventCommand;
+import revel.command.ExportCommand;
 import revel.command.FindCommand;
 import revel.command.HelloCommand;
 import revel.command.HelpCommand;
+import revel.command.ImportCommand;
 import revel.command.ListCommand;
 import revel.command.MarkCommand;
+import revel.command.OverdueCommand;
+import revel.command.RedoCommand;
+import revel.command.RollbackCommand;
 import revel.command.TodoCommand;
+import revel.command.UndoCommand;
 import revel.command.UnmarkCommand;
+import revel.command.UpcomingCommand;
+import revel.storage.TaskArchive;
 
 /**
  * Parses user input into commands and command arguments.
@@ -26,12 +41,23 @@ public class Parser {
             " Sorry! I am unable to assist you with that.\n"
                     + "Type 'help' for a list of commands available to you.";
 
+    private static TaskArchive taskArchive;
+
     // Record classes for storing parsed task commands
     /**
      * Represents the split input of a command word and its argument line.
      */
     public record ParsedInput(String command, String argsLine) {}
 
+    /**
+     * Sets the task archive used by the archive commands.
+     *
+     * @param archive Task archive instance.
+     */
+    public static void setTaskArchive(TaskArchive archive) {
+        taskArchive = archive;
+    }
+
     /**
      * Parses a command word token into a supported {@link CommandWord}.
      *
@@ -121,10 +147,73 @@ public class Parser {
         case ALIAS -> {
             return AliasParser.parseAliasCommand(argsLine);
         }
+
+        case COMPACT -> {
+            return new CompactCommand();
+        }
+
+        case ARCHIVE -> {
+            return new ArchiveCommand(requireTaskArchive());
+        }
+
+        case ARCHIVED -> {
+            return new ArchivedCommand(requireTaskArchive(), argsLine);
+        }
+
+        case IMPORT -> {
+            return new ImportCommand(argsLine);
+        }
+
+        case EXPORT -> {
+            return new ExportCommand(argsLine);
+        }
+
+        case BEGIN -> {
+            return new BeginCommand();
+        }
+
+        case COMMIT -> {
+            return new CommitCommand();
+        }
+
+        case ROLLBACK -> {
+            return new RollbackCommand();
+        }
+
+        case UNDO -> {
+            return new UndoCommand();
+        }
+
+        case REDO -> {
+            return new RedoCommand();
+        }
+
+        case DURING -> {
+            return new DuringCommand(TaskArgumentParser.parseDuring(argsLine));
+        }
+
+        case DUE -> {
+            return new DueCommand(TaskArgumentParser.parseDueBefore(argsLine));
+        }
+
+        case UPCOMING -> {
+            return new UpcomingCommand(TaskArgumentParser.parseUpcoming(argsLine));
+        }
+
+        case OVERDUE -> {
+            return new OverdueCommand();
+        }
+
         default -> throw new RevelException(MESSAGE_UNKNOWN_COMMAND);
         }
     }
 
+    private static TaskArchive requireTaskArchive() throws RevelException {
+        if (taskArchive == null) {
+            throw new RevelException("Task archive is not configured.");
+        }
+        return taskArchive;
+    }
 
     /**
      * Splits input into a command word and the argument string.
@@ -15,6 +15,9 @@ import revel.parser.util.ParseStringUtils;
  * constructors.
  */
 public final class TaskArgumentParser {
+    /** Prefix that marks a task reference as a task ID instead of a task number. */
+    public static final String ID_PREFIX = "#";
+
     private static final String MESSAGE_EMPTY_TODO =
             " Sorry, but the description of todo cannot be empty.\n"
                     + "Usage: todo <description>";
@@ -27,6 +30,15 @@ public final class TaskArgumentParser {
     private static final String MESSAGE_EMPTY_EVENT =
             " Sorry, but the description of event cannot be empty.\n"
                     + "Usage: event <description> /from <start date> /to <end date>";
+    private static final String MESSAGE_INVALID_DURING =
+            " Sorry, but the format used is invalid: Missing start or end.\n"
+                    + "Usage: during <start date> /to <end date>";
+    private static final String MESSAGE_INVALID_DUE =
+            " Sorry, but the format used is invalid: Missing 'before' or the date.\n"
+                    + "Usage: due before <date>";
+    private static final String MESSAGE_INVALID_UPCOMING =
+            " Sorry, but the number of tasks to show must be a positive integer.\n"
+                    + "Usage: upcoming <number>";
     private static final String MESSAGE_EMPTY_MARK =
             "Sorry, but the task number cannot be empty.\n"
                     + "Usage: mark <number>";
@@ -115,19 +127,80 @@ public final class TaskArgumentParser {
         return new EventArgs(taskDesc, fromDate, toDate);
     }
 
+    /**
+     * Parses the time range of a during command.
+     *
+     * @param argsLine Argument string for a during command.
+     * @return Parsed time range.
+     * @throws RevelException If the arguments are invalid or the range ends before it starts.
+     */
+    public static TimeRange parseDuring(String argsLine) throws RevelException {
+        if (!argsLine.contains("/to")) {
+            throw new RevelException(MESSAGE_INVALID_DURING);
+        }
+
+        String startDate = ParseStringUtils.trimSubstringLeft(argsLine, "/to");
+        String endDate = ParseStringUtils.trimSubstringRight(argsLine, "/to");
+        if (startDate.isEmpty() || endDate.isEmpty()) {
+            throw new RevelException(MESSAGE_INVALID_DURING);
+        }
+
+        LocalDateTime start = DateTimeParser.parseToLocalDateTime(startDate);
+        LocalDateTime end = DateTimeParser.parseToLocalDateTime(endDate);
+        if (end.isBefore(start)) {
+            throw new RevelException(" Sorry, but the end of the range cannot be before its start.\n"
+                    + "Usage: during <start date> /to <end date>");
+        }
+        return new TimeRange(start, end);
+    }
+
+    /**
+     * Parses the date of a due command.
+     *
+     * @param argsLine Argument string for a due command, starting with {@code before}.
+     * @return Date before which tasks are due.
+     * @throws RevelException If the arguments are invalid.
+     */
+    public static LocalDateTime parseDueBefore(String argsLine) throws RevelException {
+        String[] parts = argsLine.trim().split("\\s+", 2);
+        if (parts.length < 2 || !parts[0].equals("before")) {
+            throw new RevelException(MESSAGE_INVALID_DUE);
+        }
+        return DateTimeParser.parseToLocalDateTime(parts[1].trim());
+    }
+
+    /**
+     * Parses the number of tasks of an upcoming command.
+     *
+     * @param argsLine Argument string for an upcoming command.
+     * @return Number of tasks to show.
+     * @throws RevelException If the argument is not a positive integer.
+     */
+    public static int parseUpcoming(String argsLine) throws RevelException {
+        try {
+            int count = Integer.parseInt(argsLine.trim());
+            if (count > 0) {
+                return count;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below together with non-positive counts.
+        }
+        throw new RevelException(MESSAGE_INVALID_UPCOMING);
+    }
+
     /**
      * Parses mark command arguments.
      *
      * @param argsLine Argument string for a mark command.
-     * @return Normalized task number argument.
-     * @throws RevelException If the argument is empty or not an integer.
+     * @return Normalized task number or {@code #} task ID argument.
+     * @throws RevelException If the argument is empty or not an integer or task ID.
      */
     public static String parseMark(String argsLine) throws RevelException {
         String trimmed = argsLine.trim();
         if (trimmed.isEmpty()) {
             throw new RevelException(MESSAGE_EMPTY_MARK);
         }
-        parseNumber(trimmed);
+        parseTaskReference(trimmed);
         return trimmed;
     }
 
@@ -135,18 +208,46 @@ public final class TaskArgumentParser {
      * Parses unmark command arguments.
      *
      * @param argsLine Argument string for an unmark command.
-     * @return Normalized task number argument.
-     * @throws RevelException If the argument is empty or not an integer.
+     * @return Normalized task number or {@code #} task ID argument.
+     * @throws RevelException If the argument is empty or not an integer or task ID.
      */
     public static String parseUnmark(String argsLine) throws RevelException {
         String trimmed = argsLine.trim();
         if (trimmed.isEmpty()) {
             throw new RevelException(MESSAGE_EMPTY_UNMARK);
         }
-        parseNumber(trimmed);
+        parseTaskReference(trimmed);
         return trimmed;
     }
 
+    private static void parseTaskReference(String reference) throws RevelException {
+        if (reference.startsWith(ID_PREFIX)) {
+            parseTaskId(reference);
+        } else {
+            parseNumber(reference);
+        }
+    }
+
+    /**
+     * Parses a task ID written as {@code #} followed by the ID.
+     *
+     * @param reference Task reference starting with {@link #ID_PREFIX}.
+     * @return Parsed task ID.
+     * @throws RevelException If the text after the prefix is not a positive integer.
+     */
+    public static long parseTaskId(String reference) throws RevelException {
+        assert reference.startsWith(ID_PREFIX) : "reference must start with the ID prefix";
+        try {
+            long id = Long.parseLong(reference.substring(ID_PREFIX.length()).trim());
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below together with IDs that are not positive.
+        }
+        throw new RevelException(" Sorry, but the task ID must be a positive integer after '#'.");
+    }
+
     /**
      * Parses a number from an argument string.
      *
@@ -190,4 +291,10 @@ public final class TaskArgumentParser {
      */
     public record EventArgs(String description, LocalDateTime fromDate, LocalDateTime toDate) {
     }
+
+    /**
+     * Represents a parsed time range, with both ends inclusive.
+     */
+    public record TimeRange(LocalDateTime start, LocalDateTime end) {
+    }
 }
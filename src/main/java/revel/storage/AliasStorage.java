@@ -1,10 +1,11 @@
 package revel.storage;
 
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardCopyOption;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -13,12 +14,35 @@ import revel.command.CommandWord;
 
 /**
  * Handles loading and saving user-defined command aliases.
+ * <p>
+ * The alias registry in {@link revel.parser.AliasParser} is the source of truth while Revel runs;
+ * this class only reads the file at startup. Alias changes are queued with {@link #queuePut} and
+ * {@link #queueRemove} and written behind by a background thread, which merges every change queued
+ * since its last write into one update. Updates re-read the file and replace it atomically while
+ * holding a lock on {@code aliases.json.lock}, so Revel processes sharing a data directory do not
+ * overwrite each other's aliases.
+ * </p>
  */
 public class AliasStorage {
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final String TEMP_SUFFIX = ".tmp";
+
     private final Path filePath;
+    private final Path lockPath;
+    private final Object lock = new Object();
+    private Map<String, CommandWord> pendingChanges;
+    private boolean isWriting;
+    private boolean isWriterStarted;
+    private String deferredError;
 
+    /**
+     * Creates an alias storage for the given JSON file.
+     *
+     * @param filePath Path of the alias file.
+     */
     public AliasStorage(Path filePath) {
         this.filePath = filePath;
+        this.lockPath = filePath.resolveSibling(filePath.getFileName() + LOCK_SUFFIX);
     }
 
     /**
@@ -28,91 +52,189 @@ public class AliasStorage {
      * @throws RevelException If the file cannot be read or parsed.
      */
     public Map<String, CommandWord> load() throws RevelException {
-        try {
-            if (Files.notExists(filePath)) {
-                return new LinkedHashMap<>();
-            }
-
-            String raw = Files.readString(filePath, StandardCharsets.UTF_8).trim();
-            if (raw.isEmpty()) {
-                return new LinkedHashMap<>();
-            }
-
-            return parseJsonObject(raw);
+        if (Files.notExists(filePath)) {
+            return new LinkedHashMap<>();
+        }
+        try (JsonReader json = JsonReader.of(filePath.getFileName().toString(),
+                new InputStreamReader(Files.newInputStream(filePath), StandardCharsets.UTF_8))) {
+            return readAliases(json);
         } catch (IOException e) {
             throw new RevelException("Unable to load aliases from file: " + filePath);
         }
     }
 
     /**
-     * Saves aliases to the configured JSON file.
+     * Queues an alias to be added or replaced in the alias file by the background writer.
      *
-     * @param aliases Alias map to persist.
-     * @throws RevelException If the aliases cannot be saved.
+     * @param alias Normalized alias to add.
+     * @param word Command word the alias stands for.
      */
-    public void save(Map<String, CommandWord> aliases) throws RevelException {
-        try {
-            Files.createDirectories(filePath.getParent());
-            String json = toJsonObject(aliases);
-            Files.writeString(filePath, json, StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.TRUNCATE_EXISTING);
-        } catch (IOException e) {
-            throw new RevelException("Unable to save aliases to disk.");
+    public void queuePut(String alias, CommandWord word) {
+        queueChange(alias, word);
+    }
+
+    /**
+     * Queues an alias to be removed from the alias file by the background writer.
+     *
+     * @param alias Normalized alias to remove.
+     */
+    public void queueRemove(String alias) {
+        queueChange(alias, null);
+    }
+
+    /**
+     * Writes any queued alias changes immediately.
+     *
+     * @throws RevelException If the queued changes, or an earlier background write, failed.
+     */
+    public void flush() throws RevelException {
+        Map<String, CommandWord> changes = takePending();
+        if (changes != null) {
+            writeChanges(changes);
+        }
+        String error = pollDeferredError();
+        if (error != null) {
+            throw new RevelException(error);
         }
     }
 
-    private Map<String, CommandWord> parseJsonObject(String raw) throws RevelException {
-        String s = raw.trim();
-        if (!s.startsWith("{") || !s.endsWith("}")) {
-            throw new RevelException("Invalid aliases.json format: expected JSON object.");
+    /**
+     * Returns and clears the message of a background alias write that failed, if any.
+     *
+     * @return Error message, or null if no background write has failed.
+     */
+    public String pollDeferredError() {
+        synchronized (lock) {
+            String error = deferredError;
+            deferredError = null;
+            return error;
         }
+    }
 
-        String body = s.substring(1, s.length() - 1).trim();
-        Map<String, CommandWord> result = new LinkedHashMap<>();
-        if (body.isEmpty()) {
-            return result;
+    private void queueChange(String alias, CommandWord word) {
+        synchronized (lock) {
+            if (pendingChanges == null) {
+                pendingChanges = new LinkedHashMap<>();
+            }
+            // A later change to the same alias replaces the earlier one.
+            pendingChanges.remove(alias);
+            pendingChanges.put(alias, word);
+            if (!isWriterStarted) {
+                isWriterStarted = true;
+                Thread writer = new Thread(this::runWriter, "revel-alias-writer");
+                writer.setDaemon(true);
+                writer.start();
+                Runtime.getRuntime().addShutdownHook(new Thread(this::flushOnShutdown, "revel-alias-shutdown"));
+            }
+            lock.notifyAll();
         }
+    }
 
-        int i = 0;
-        while (i < body.length()) {
-            i = skipWhitespace(body, i);
-            if (i >= body.length() || body.charAt(i) != '"') {
-                throw new RevelException("Invalid aliases.json format: expected string key.");
+    private void runWriter() {
+        try {
+            while (true) {
+                synchronized (lock) {
+                    while (pendingChanges == null) {
+                        lock.wait();
+                    }
+                }
+                Map<String, CommandWord> changes = takePending();
+                if (changes != null) {
+                    writeChanges(changes);
+                }
             }
-            ParseResult keyResult = readJsonString(body, i);
-            String alias = normalizeAlias(keyResult.value());
-            i = skipWhitespace(body, keyResult.nextIndex());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
-            if (i >= body.length() || body.charAt(i) != ':') {
-                throw new RevelException("Invalid aliases.json format: expected ':' after key.");
+    /**
+     * Takes the queued changes, waiting for any write in progress so that writes stay ordered.
+     */
+    private Map<String, CommandWord> takePending() {
+        synchronized (lock) {
+            boolean isInterrupted = false;
+            while (isWriting) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                }
+            }
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
             }
-            i++;
-            i = skipWhitespace(body, i);
+            Map<String, CommandWord> changes = pendingChanges;
+            pendingChanges = null;
+            isWriting = changes != null;
+            return changes;
+        }
+    }
 
-            if (i >= body.length() || body.charAt(i) != '"') {
-                throw new RevelException("Invalid aliases.json format: expected string value.");
+    /**
+     * Applies the changes to the current alias file under the file lock, keeping changes made by other processes.
+     */
+    private void writeChanges(Map<String, CommandWord> changes) {
+        String error = null;
+        try {
+            FileLocks.withLock(lockPath, channel -> {
+                Map<String, CommandWord> aliases = load();
+                for (Map.Entry<String, CommandWord> change : changes.entrySet()) {
+                    if (change.getValue() == null) {
+                        aliases.remove(change.getKey());
+                    } else {
+                        aliases.put(change.getKey(), change.getValue());
+                    }
+                }
+                write(aliases);
+                return null;
+            });
+        } catch (IOException | RevelException e) {
+            error = "Unable to save aliases to disk.";
+        }
+        synchronized (lock) {
+            if (error != null) {
+                deferredError = error;
             }
-            ParseResult valueResult = readJsonString(body, i);
-            String commandRaw = valueResult.value().trim();
-            CommandWord word = parseCommandWord(commandRaw);
-            i = skipWhitespace(body, valueResult.nextIndex());
+            isWriting = false;
+            lock.notifyAll();
+        }
+    }
+
+    private void flushOnShutdown() {
+        Map<String, CommandWord> changes = takePending();
+        if (changes != null) {
+            writeChanges(changes);
+        }
+    }
 
+    private void write(Map<String, CommandWord> aliases) throws IOException {
+        Files.createDirectories(filePath.toAbsolutePath().getParent());
+        Path tempPath = filePath.resolveSibling(filePath.getFileName() + TEMP_SUFFIX);
+        Files.writeString(tempPath, toJsonObject(aliases), StandardCharsets.UTF_8);
+        Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Map<String, CommandWord> readAliases(JsonReader json) throws RevelException {
+        Map<String, CommandWord> result = new LinkedHashMap<>();
+        if (json.peek() == JsonReader.Token.END_DOCUMENT) {
+            return result;
+        }
+        if (json.peek() != JsonReader.Token.BEGIN_OBJECT) {
+            throw new RevelException("Invalid aliases.json format: expected JSON object.");
+        }
+
+        json.beginObject();
+        while (json.hasNext()) {
+            String alias = normalizeAlias(json.nextName());
+            CommandWord word = parseCommandWord(json.nextString());
             if (result.containsKey(alias)) {
                 throw new RevelException("Duplicate alias in aliases.json: " + alias);
             }
             result.put(alias, word);
-
-            if (i >= body.length()) {
-                break;
-            }
-            if (body.charAt(i) == ',') {
-                i++;
-                continue;
-            }
-            throw new RevelException("Invalid aliases.json format: expected ',' or end of object.");
         }
-
+        json.endObject();
+        json.endDocument();
         return result;
     }
 
@@ -160,47 +282,4 @@ public class AliasStorage {
     private String escapeJson(String s) {
         return s.replace("\\", "\\\\").replace("\"", "\\\"");
     }
-
-    private int skipWhitespace(String s, int i) {
-        int idx = i;
-        while (idx < s.length() && Character.isWhitespace(s.charAt(idx))) {
-            idx++;
-        }
-        return idx;
-    }
-
-    private ParseResult readJsonString(String s, int startIndex) throws RevelException {
-        StringBuilder sb = new StringBuilder();
-        int i = startIndex + 1; // skip opening quote
-        while (i < s.length()) {
-            char c = s.charAt(i);
-            if (c == '"') {
-                return new ParseResult(sb.toString(), i + 1);
-            }
-            if (c == '\\') {
-                if (i + 1 >= s.length()) {
-                    throw new RevelException("Invalid aliases.json format: unterminated escape.");
-                }
-                char next = s.charAt(i + 1);
-                if (next == '"' || next == '\\' || next == '/') {
-                    sb.append(next);
-                } else if (next == 'n') {
-                    sb.append('\n');
-                } else if (next == 't') {
-                    sb.append('\t');
-                } else if (next == 'r') {
-                    sb.append('\r');
-                } else {
-                    throw new RevelException("Invalid aliases.json format: unsupported escape.");
-                }
-                i += 2;
-                continue;
-            }
-            sb.append(c);
-            i++;
-        }
-        throw new RevelException("Invalid aliases.json format: unterminated string.");
-    }
-
-    private record ParseResult(String value, int nextIndex) {}
 }
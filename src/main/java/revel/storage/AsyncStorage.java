@@ -0,0 +1,195 @@
+package revel.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import revel.RevelException;
+import revel.task.Task;
+import revel.task.TaskList;
+
+/**
+ * Storage that persists tasks on a background writer thread, coalescing bursts of changes.
+ * <p>
+ * Every save request only records a copy of the latest state of the list and wakes the writer. The
+ * copy holds copies of the tasks, so the writer never reads a task while it is being marked or
+ * unmarked, and it is handed to the wrapped backend as it is, without building a new list. The writer
+ * waits for the configured window so that further changes can pile up, then performs a single
+ * write through the wrapped {@link StorageBackend}. Pending changes are flushed by {@link #flush()} and
+ * on JVM shutdown. Failures on the writer thread are kept until {@link #pollDeferredError()} is
+ * called so they can be shown with the next response.
+ * </p>
+ */
+public class AsyncStorage implements StorageBackend {
+    /** Default time (in milliseconds) a burst of changes is collected before being written. */
+    public static final long DEFAULT_WINDOW_MILLIS = 200;
+
+    private final StorageBackend delegate;
+    private final long windowMillis;
+    private final Object lock = new Object();
+    private List<Task> pending;
+    private boolean isWriting;
+    private String deferredError;
+
+    /**
+     * Creates an asynchronous storage around the given backend.
+     *
+     * @param delegate Backend that performs the actual writes.
+     * @param windowMillis Time in milliseconds to coalesce changes before writing.
+     */
+    public AsyncStorage(StorageBackend delegate, long windowMillis) {
+        assert windowMillis >= 0 : "windowMillis cannot be negative";
+
+        this.delegate = delegate;
+        this.windowMillis = windowMillis;
+
+        Thread writer = new Thread(this::runWriter, "revel-storage-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushOnShutdown, "revel-storage-shutdown"));
+    }
+
+    @Override
+    public List<Task> load() throws RevelException {
+        return delegate.load();
+    }
+
+    @Override
+    public SalvageResult salvage() throws RevelException {
+        return delegate.salvage();
+    }
+
+    /**
+     * Schedules the current state of the tasks to be written by the background writer.
+     *
+     * @param tasks Task list to persist.
+     */
+    @Override
+    public void save(TaskList tasks) {
+        assert tasks != null : "tasks cannot be null";
+        // Copy on the caller's thread so the writer never observes the list or a task mid-update.
+        List<Task> snapshot = new ArrayList<>(tasks.getSize());
+        for (Task task : tasks.getTaskList()) {
+            snapshot.add(task.copy());
+        }
+        synchronized (lock) {
+            pending = snapshot;
+            lock.notifyAll();
+        }
+    }
+
+    @Override
+    public void saveTaskAdded(TaskList tasks, Task task) {
+        save(tasks);
+    }
+
+    @Override
+    public void saveTaskMarked(TaskList tasks, int index) {
+        save(tasks);
+    }
+
+    @Override
+    public void saveTaskUnmarked(TaskList tasks, int index) {
+        save(tasks);
+    }
+
+    @Override
+    public void saveTaskDeleted(TaskList tasks, int index) {
+        save(tasks);
+    }
+
+    /**
+     * Writes any pending changes immediately and waits for them to reach the disk.
+     *
+     * @throws RevelException If the pending changes, or an earlier background write, failed.
+     */
+    @Override
+    public void flush() throws RevelException {
+        List<Task> batch = takePending();
+        if (batch != null) {
+            write(batch);
+        }
+        String error = pollDeferredError();
+        if (error != null) {
+            throw new RevelException(error);
+        }
+    }
+
+    @Override
+    public TaskList.IdSource getIdSource() {
+        return delegate.getIdSource();
+    }
+
+    @Override
+    public String pollDeferredError() {
+        synchronized (lock) {
+            String error = deferredError;
+            deferredError = null;
+            return error;
+        }
+    }
+
+    private void runWriter() {
+        try {
+            while (true) {
+                synchronized (lock) {
+                    while (pending == null) {
+                        lock.wait();
+                    }
+                }
+                Thread.sleep(windowMillis);
+                List<Task> batch = takePending();
+                if (batch != null) {
+                    write(batch);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Takes the pending snapshot, waiting for any write in progress so that writes stay ordered.
+     */
+    private List<Task> takePending() {
+        synchronized (lock) {
+            boolean isInterrupted = false;
+            while (isWriting) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                }
+            }
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+            List<Task> batch = pending;
+            pending = null;
+            isWriting = batch != null;
+            return batch;
+        }
+    }
+
+    private void write(List<Task> batch) {
+        String error = null;
+        try {
+            delegate.save(TaskList.backedBy(batch));
+        } catch (RevelException e) {
+            error = e.getMessage();
+        }
+        synchronized (lock) {
+            if (error != null) {
+                deferredError = error;
+            }
+            isWriting = false;
+            lock.notifyAll();
+        }
+    }
+
+    private void flushOnShutdown() {
+        List<Task> batch = takePending();
+        if (batch != null) {
+            write(batch);
+        }
+    }
+}
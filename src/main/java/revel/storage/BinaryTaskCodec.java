@@ -0,0 +1,286 @@
+package revel.storage;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import revel.RevelException;
+import revel.task.Deadline;
+import revel.task.Event;
+import revel.task.Task;
+import revel.task.ToDo;
+
+/**
+ * Encodes and decodes tasks in the compact binary snapshot format.
+ * <p>
+ * A binary file starts with the 4-byte magic {@code RVLB}, a version byte and the number of tasks
+ * as an int. Each task is then stored as a type byte, a done byte, its ID as a long if the type
+ * byte has its high bit set, its dates as epoch-minute longs (none for todos, one for deadlines,
+ * two for events) and its description as an int byte length followed by UTF-8 bytes. All numbers
+ * are big-endian. Dates are kept to the minute, which is the finest precision accepted from users.
+ * Records written before tasks had IDs have the high bit clear and no ID.
+ * </p>
+ */
+public final class BinaryTaskCodec {
+    /** Current version of the binary format. */
+    public static final byte VERSION = 1;
+
+    /** Offset of the done flag within an encoded task record. */
+    static final int DONE_OFFSET = 1;
+
+    private static final byte[] MAGIC = {'R', 'V', 'L', 'B'};
+    private static final int HEADER_LENGTH = MAGIC.length + 1 + Integer.BYTES;
+    private static final byte TYPE_TODO = 0;
+    private static final byte TYPE_DEADLINE = 1;
+    private static final byte TYPE_EVENT = 2;
+    private static final int ID_FLAG = 0x80;
+    private static final long SECONDS_PER_MINUTE = 60;
+
+    private BinaryTaskCodec() {
+    }
+
+    /**
+     * Returns whether the given bytes start with the binary format header.
+     *
+     * @param data File contents (or a prefix of them).
+     * @return True if the data is in the binary format.
+     */
+    public static boolean hasHeader(byte[] data) {
+        if (data.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the header and all tasks in the binary format.
+     *
+     * @param tasks Tasks to encode.
+     * @param out Stream to write to.
+     * @throws IOException If writing fails.
+     */
+    public static void encode(List<Task> tasks, DataOutputStream out) throws IOException {
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        out.writeInt(tasks.size());
+        for (Task task : tasks) {
+            encodeTask(task, out);
+        }
+    }
+
+    /**
+     * Writes one task record without a header.
+     *
+     * @param task Task to encode.
+     * @param out Stream to write to.
+     * @throws IOException If writing fails.
+     */
+    static void encodeTask(Task task, DataOutputStream out) throws IOException {
+        if (task instanceof Deadline deadline) {
+            writeTypeAndStatus(TYPE_DEADLINE, task, out);
+            out.writeLong(toEpochMinute(deadline.getByDate()));
+        } else if (task instanceof Event event) {
+            writeTypeAndStatus(TYPE_EVENT, task, out);
+            out.writeLong(toEpochMinute(event.getFromDate()));
+            out.writeLong(toEpochMinute(event.getToDate()));
+        } else {
+            assert task instanceof ToDo : "unsupported task type";
+            writeTypeAndStatus(TYPE_TODO, task, out);
+        }
+        byte[] description = task.getDescription().getBytes(StandardCharsets.UTF_8);
+        out.writeInt(description.length);
+        out.write(description);
+    }
+
+    private static void writeTypeAndStatus(byte type, Task task, DataOutputStream out) throws IOException {
+        boolean hasId = task.getId() > 0;
+        out.writeByte(hasId ? type | ID_FLAG : type);
+        out.writeBoolean(task.isDone());
+        if (hasId) {
+            out.writeLong(task.getId());
+        }
+    }
+
+    /**
+     * Decodes all tasks from a buffer positioned at the start of the header.
+     *
+     * @param buffer Buffer holding a complete binary task file.
+     * @return Decoded tasks in file order.
+     * @throws RevelException If the header or any record is invalid.
+     */
+    public static List<Task> decode(ByteBuffer buffer) throws RevelException {
+        int count = readHeader(buffer);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(decodeTask(buffer));
+        }
+        return tasks;
+    }
+
+    /**
+     * Reads and validates the header, leaving the buffer positioned at the first record.
+     *
+     * @param buffer Buffer positioned at the start of the file.
+     * @return Number of task records that follow.
+     * @throws RevelException If the header is missing, truncated or of an unsupported version.
+     */
+    public static int readHeader(ByteBuffer buffer) throws RevelException {
+        if (buffer.remaining() < HEADER_LENGTH) {
+            throw new RevelException("Invalid/Corrupt data!");
+        }
+        for (byte b : MAGIC) {
+            if (buffer.get() != b) {
+                throw new RevelException("Invalid/Corrupt data!");
+            }
+        }
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new RevelException("Unsupported task file version: " + version);
+        }
+        int count = buffer.getInt();
+        if (count < 0) {
+            throw new RevelException("Invalid/Corrupt data!");
+        }
+        return count;
+    }
+
+    /**
+     * Decodes the task record at the buffer's position and advances past it.
+     *
+     * @param buffer Buffer positioned at the start of a record.
+     * @return Decoded task.
+     * @throws RevelException If the record is invalid.
+     */
+    public static Task decodeTask(ByteBuffer buffer) throws RevelException {
+        try {
+            int header = buffer.get() & 0xFF;
+            int type = header & ~ID_FLAG;
+            boolean isDone = buffer.get() != 0;
+            long id = (header & ID_FLAG) != 0 ? buffer.getLong() : 0;
+            Task task;
+            switch (type) {
+            case TYPE_TODO:
+                task = new ToDo(readDescription(buffer));
+                break;
+            case TYPE_DEADLINE:
+                LocalDateTime byDate = fromEpochMinute(buffer.getLong());
+                task = new Deadline(readDescription(buffer), byDate);
+                break;
+            case TYPE_EVENT:
+                LocalDateTime fromDate = fromEpochMinute(buffer.getLong());
+                LocalDateTime toDate = fromEpochMinute(buffer.getLong());
+                task = new Event(readDescription(buffer), fromDate, toDate);
+                break;
+            default:
+                throw new RevelException("Unknown task type: " + type);
+            }
+            if (isDone) {
+                task.markAsDone();
+            }
+            if (id != 0) {
+                if (id < 0) {
+                    throw new RevelException("Invalid/Corrupt data!");
+                }
+                task.setId(id);
+            }
+            return task;
+        } catch (BufferUnderflowException | DateTimeException | ArithmeticException e) {
+            throw new RevelException("Invalid/Corrupt data!");
+        }
+    }
+
+    /**
+     * Advances the buffer past the task record at its position, checking it as
+     * {@link #decodeTask(ByteBuffer)} would but without building the task.
+     *
+     * @param buffer Buffer positioned at the start of a record.
+     * @throws RevelException If the record is invalid.
+     */
+    public static void skipTask(ByteBuffer buffer) throws RevelException {
+        try {
+            int header = buffer.get() & 0xFF;
+            int type = header & ~ID_FLAG;
+            buffer.get();
+            if ((header & ID_FLAG) != 0 && buffer.getLong() < 0) {
+                throw new RevelException("Invalid/Corrupt data!");
+            }
+            int dateCount = switch (type) {
+            case TYPE_TODO -> 0;
+            case TYPE_DEADLINE -> 1;
+            case TYPE_EVENT -> 2;
+            default -> throw new RevelException("Unknown task type: " + type);
+            };
+            for (int i = 0; i < dateCount; i++) {
+                fromEpochMinute(buffer.getLong());
+            }
+            int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining() || isBlank(buffer, length)) {
+                throw new RevelException("Invalid/Corrupt data!");
+            }
+            buffer.position(buffer.position() + length);
+        } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException | ArithmeticException e) {
+            throw new RevelException("Invalid/Corrupt data!");
+        }
+    }
+
+    /**
+     * Returns whether the {@code length} UTF-8 bytes at the buffer's position decode to a blank string.
+     */
+    private static boolean isBlank(ByteBuffer buffer, int length) {
+        int start = buffer.position();
+        for (int i = start; i < start + length; i++) {
+            byte b = buffer.get(i);
+            if (b < 0) {
+                // Only decode descriptions that may hold non-ASCII whitespace.
+                byte[] bytes = new byte[length];
+                buffer.get(start, bytes);
+                return new String(bytes, StandardCharsets.UTF_8).isBlank();
+            }
+            if (!Character.isWhitespace(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String readDescription(ByteBuffer buffer) throws RevelException {
+        int length = buffer.getInt();
+        if (length <= 0 || length > buffer.remaining()) {
+            throw new RevelException("Invalid/Corrupt data!");
+        }
+        String description;
+        if (buffer.hasArray()) {
+            description = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                    StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            description = new String(bytes, StandardCharsets.UTF_8);
+        }
+        if (description.isBlank()) {
+            throw new RevelException("Invalid/Corrupt data!");
+        }
+        return description;
+    }
+
+    private static long toEpochMinute(LocalDateTime dateTime) {
+        return Math.floorDiv(dateTime.toEpochSecond(ZoneOffset.UTC), SECONDS_PER_MINUTE);
+    }
+
+    private static LocalDateTime fromEpochMinute(long epochMinute) {
+        return LocalDateTime.ofEpochSecond(Math.multiplyExact(epochMinute, SECONDS_PER_MINUTE), 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,104 @@
+package revel.storage;
+
+import java.util.List;
+
+import revel.RevelException;
+import revel.task.Task;
+import revel.task.TaskList;
+
+/**
+ * Storage for batch runs that saves only every so many changes, and at the end.
+ * <p>
+ * Save requests only count the change and remember the list. Once the configured number of
+ * changes has piled up, the whole list is written through the wrapped {@link StorageBackend} in a
+ * single save; with an interval of 0 nothing is written until {@link #flush()}. Changes made to
+ * the task file by other programs are not reloaded while changes are pending, since the batch run
+ * owns the file until it flushes.
+ * </p>
+ */
+public class DeferredStorage implements StorageBackend {
+    private final StorageBackend delegate;
+    private final int saveInterval;
+    private TaskList pending;
+    private int pendingCount;
+    private int saveCount;
+
+    /**
+     * Creates a deferred storage around the given backend.
+     *
+     * @param delegate Backend that performs the actual writes.
+     * @param saveInterval Number of changes after which the list is saved, or 0 to save only on flush.
+     */
+    public DeferredStorage(StorageBackend delegate, int saveInterval) {
+        assert saveInterval >= 0 : "saveInterval cannot be negative";
+
+        this.delegate = delegate;
+        this.saveInterval = saveInterval;
+    }
+
+    @Override
+    public List<Task> load() throws RevelException {
+        return delegate.load();
+    }
+
+    @Override
+    public SalvageResult salvage() throws RevelException {
+        return delegate.salvage();
+    }
+
+    /**
+     * Records a change to the list, saving it if the interval has been reached.
+     *
+     * @param tasks Current task list.
+     * @throws RevelException If an interval save fails.
+     */
+    @Override
+    public void save(TaskList tasks) throws RevelException {
+        pending = tasks;
+        pendingCount++;
+        if (saveInterval > 0 && pendingCount >= saveInterval) {
+            flush();
+        }
+    }
+
+    /**
+     * Saves the pending changes through the wrapped backend, then flushes that backend.
+     *
+     * @throws RevelException If the pending changes cannot be saved.
+     */
+    @Override
+    public void flush() throws RevelException {
+        if (pending != null) {
+            TaskList tasks = pending;
+            pending = null;
+            pendingCount = 0;
+            saveCount++;
+            delegate.save(tasks);
+        }
+        delegate.flush();
+    }
+
+    @Override
+    public String pollDeferredError() {
+        return delegate.pollDeferredError();
+    }
+
+    @Override
+    public TaskList.IdSource getIdSource() {
+        return delegate.getIdSource();
+    }
+
+    @Override
+    public int reloadExternalChanges(TaskList tasks) throws RevelException {
+        return pending == null ? delegate.reloadExternalChanges(tasks) : 0;
+    }
+
+    /**
+     * Returns how many times changes have been written through the wrapped backend.
+     *
+     * @return Number of saves performed.
+     */
+    public int getSaveCount() {
+        return saveCount;
+    }
+}
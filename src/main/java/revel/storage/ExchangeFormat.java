@@ -0,0 +1,58 @@
+package revel.storage;
+
+import java.nio.file.Path;
+
+import revel.RevelException;
+
+/**
+ * File formats that tasks can be imported from and exported to.
+ */
+public enum ExchangeFormat {
+    /** Comma-separated values with the columns type, description, first date, second date and done. */
+    CSV("csv"),
+    /** One JSON object per line. */
+    JSONL("jsonl"),
+    /** iCalendar, with to-dos and deadlines as {@code VTODO} and events as {@code VEVENT}. */
+    ICS("ics");
+
+    private final String extension;
+
+    ExchangeFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Returns the format named by {@code name}, such as {@code "csv"}.
+     *
+     * @param name Format name, case-insensitive.
+     * @return Matching format.
+     * @throws RevelException If no format has that name.
+     */
+    public static ExchangeFormat fromName(String name) throws RevelException {
+        String key = name.trim().toLowerCase();
+        for (ExchangeFormat format : values()) {
+            if (format.extension.equals(key) || (format == JSONL && key.equals("ndjson"))) {
+                return format;
+            }
+        }
+        throw new RevelException(" Sorry, but I don't know the format '" + name.trim() + "'.\n"
+                + "Supported formats: csv, jsonl, ics");
+    }
+
+    /**
+     * Returns the format of a file from its extension.
+     *
+     * @param file File whose name ends in {@code .csv}, {@code .jsonl} (or {@code .ndjson}) or {@code .ics}.
+     * @return Matching format.
+     * @throws RevelException If the extension is not recognised.
+     */
+    public static ExchangeFormat fromPath(Path file) throws RevelException {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return fromName(dot < 0 ? "" : name.substring(dot + 1));
+    }
+}
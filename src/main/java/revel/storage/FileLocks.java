@@ -0,0 +1,56 @@
+package revel.storage;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import revel.RevelException;
+
+/**
+ * Runs short critical sections under an exclusive lock on a lock file.
+ * <p>
+ * {@link FileChannel#lock()} only excludes other processes; a second lock on the same file from
+ * this JVM would fail instead of waiting. Threads of this JVM are therefore serialised on a
+ * per-file monitor first, and only the thread holding it takes the file lock.
+ * </p>
+ */
+final class FileLocks {
+    private static final Map<Path, Object> MONITORS = new ConcurrentHashMap<>();
+
+    private FileLocks() {
+    }
+
+    /**
+     * An action that runs while the lock is held, with the open lock file.
+     */
+    interface LockedAction<T> {
+        T run(FileChannel lockChannel) throws IOException, RevelException;
+    }
+
+    /**
+     * Runs {@code action} while holding the exclusive lock on {@code lockPath}, creating the file if needed.
+     *
+     * @throws IOException If the lock file cannot be opened or locked, or the action fails.
+     * @throws RevelException If the action fails.
+     */
+    static <T> T withLock(Path lockPath, LockedAction<T> action) throws IOException, RevelException {
+        Path key = lockPath.toAbsolutePath().normalize();
+        synchronized (MONITORS.computeIfAbsent(key, path -> new Object())) {
+            Files.createDirectories(key.getParent());
+            try (FileChannel channel = FileChannel.open(key, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    return action.run(channel);
+                } finally {
+                    lock.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package revel.storage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import revel.task.Task;
+import revel.task.TaskList;
+
+/**
+ * Storage backend that keeps tasks in memory only and never touches the disk.
+ * <p>
+ * Every save just remembers the list it was given, so each hook costs O(1). This makes the
+ * backend suitable for tests and benchmarks where disk I/O would dominate the measurements.
+ * Nothing survives the end of the process.
+ * </p>
+ */
+public class InMemoryStorage implements StorageBackend {
+    private List<Task> storedTasks;
+
+    /**
+     * Creates an empty in-memory storage.
+     */
+    public InMemoryStorage() {
+        this(List.of());
+    }
+
+    /**
+     * Creates an in-memory storage whose first {@link #load()} returns the given tasks.
+     *
+     * @param initialTasks Tasks to start with.
+     */
+    public InMemoryStorage(List<Task> initialTasks) {
+        this.storedTasks = new ArrayList<>(initialTasks);
+    }
+
+    /**
+     * Returns a copy of the most recently saved tasks.
+     *
+     * @return Modifiable list of tasks.
+     */
+    @Override
+    public List<Task> load() {
+        return new ArrayList<>(storedTasks);
+    }
+
+    @Override
+    public void save(TaskList tasks) {
+        assert tasks != null : "tasks cannot be null";
+        storedTasks = tasks.getTaskList();
+    }
+
+    @Override
+    public SalvageResult salvage() {
+        List<Task> tasks = load();
+        return new SalvageResult(tasks, tasks.size(), 0, null);
+    }
+}
@@ -0,0 +1,327 @@
+package revel.storage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import revel.RevelException;
+import revel.task.Task;
+import revel.task.TaskList;
+
+/**
+ * Storage that appends each mutation to a journal instead of rewriting the whole task file.
+ * <p>
+ * The task file acts as a snapshot. Every add/mark/unmark/delete is appended as one short
+ * record to a journal file next to it, and {@link #load()} replays the journal on top of the
+ * snapshot. Once the journal grows past the compaction threshold, a fresh snapshot is written
+ * and the journal is cleared.
+ * </p>
+ * <p>
+ * A fresh snapshot is first written under a temporary name. The journal is then renamed to a
+ * retired journal, the snapshot is moved into place and the retired journal is deleted. After a
+ * crash part way through, the temporary snapshot still exists exactly when it was not moved into
+ * place yet. In that case the retired journal is put back; otherwise its records are already in the
+ * snapshot and it is dropped. Either way no record is replayed twice.
+ * </p>
+ */
+public class JournalStorage extends Storage {
+    /** Default journal size (in bytes) after which the journal is compacted into the snapshot. */
+    public static final long DEFAULT_COMPACT_THRESHOLD = 64 * 1024;
+
+    static final String JOURNAL_SUFFIX = ".journal";
+    static final String RECORD_SEPARATOR = " | ";
+    static final String ADD = "A";
+    static final String MARK = "M";
+    static final String UNMARK = "U";
+    static final String DELETE = "D";
+    static final String INSERT = "I";
+    static final String SNAPSHOT_TEMP_SUFFIX = ".tmp";
+    static final String RETIRED_SUFFIX = ".retired";
+
+    private final Path journalPath;
+    private final long compactThreshold;
+
+    /**
+     * Creates a journaled storage using the default compaction threshold.
+     *
+     * @param filePath Path of the snapshot file.
+     */
+    public JournalStorage(Path filePath) {
+        this(filePath, DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    /**
+     * Creates a journaled storage.
+     *
+     * @param filePath Path of the snapshot file.
+     * @param compactThreshold Journal size in bytes after which it is compacted.
+     */
+    public JournalStorage(Path filePath, long compactThreshold) {
+        this(filePath, StorageFormat.TEXT, compactThreshold);
+    }
+
+    /**
+     * Creates a journaled storage whose snapshots are written in the given format.
+     *
+     * @param filePath Path of the snapshot file.
+     * @param format Format of the snapshot file.
+     * @param compactThreshold Journal size in bytes after which it is compacted.
+     */
+    public JournalStorage(Path filePath, StorageFormat format, long compactThreshold) {
+        super(filePath, format);
+        assert compactThreshold > 0 : "compactThreshold must be positive";
+
+        this.journalPath = filePath.resolveSibling(filePath.getFileName() + JOURNAL_SUFFIX);
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * Returns the path of the journal file.
+     *
+     * @return Journal path.
+     */
+    public Path getJournalPath() {
+        return journalPath;
+    }
+
+    /**
+     * Loads the snapshot and replays all journal records on top of it.
+     *
+     * @return List of tasks.
+     * @throws RevelException If the snapshot or journal cannot be read.
+     */
+    @Override
+    public List<Task> load() throws RevelException {
+        recoverSnapshotSwap();
+        List<Task> tasks = super.load();
+        for (String record : readJournal()) {
+            replay(tasks, record);
+        }
+        return tasks;
+    }
+
+    /**
+     * Salvages the snapshot, then replays the journal up to its first unreadable record.
+     * <p>
+     * Journal records refer to tasks by position, so once one of them is lost the records after it
+     * can no longer be applied safely; they are quarantined along with it. The recovered state is
+     * then written as a fresh snapshot and the journal is cleared.
+     * </p>
+     *
+     * @return Recovered tasks and record counts.
+     * @throws RevelException If the files cannot be read or written.
+     */
+    @Override
+    public SalvageResult salvage() throws RevelException {
+        recoverSnapshotSwap();
+        SalvageResult snapshot = salvageTaskFile();
+        List<Task> tasks = snapshot.tasks();
+        List<String> records = readJournal();
+        int replayed = 0;
+        try {
+            for (String record : records) {
+                replay(tasks, record);
+                replayed++;
+            }
+        } catch (RevelException e) {
+            try {
+                TaskFileSalvager.quarantine(quarantinePath, records.subList(replayed, records.size()));
+            } catch (IOException ioException) {
+                throw new RevelException("Unable to recover tasks from file: " + journalPath);
+            }
+        }
+        int quarantinedCount = snapshot.quarantinedCount() + records.size() - replayed;
+        if (quarantinedCount > 0) {
+            save(TaskList.backedBy(tasks));
+        }
+        return new SalvageResult(tasks, snapshot.recoveredCount() + replayed, quarantinedCount, quarantinePath);
+    }
+
+    private void recoverSnapshotSwap() throws RevelException {
+        try {
+            recoverSnapshotSwap(filePath, journalPath);
+        } catch (IOException e) {
+            throw new RevelException("Unable to load task journal from file: " + journalPath);
+        }
+    }
+
+    /**
+     * Moves the new snapshot at the temporary path of {@code filePath} into place and clears the journal,
+     * retiring the journal first so that a crash in between can be recovered from.
+     *
+     * @param filePath Path of the snapshot file.
+     * @param journalPath Path of the journal that the new snapshot already contains.
+     * @throws IOException If a file cannot be moved or deleted.
+     */
+    static void swapSnapshot(Path filePath, Path journalPath) throws IOException {
+        Path retiredPath = retiredPath(journalPath);
+        if (Files.exists(journalPath)) {
+            Files.move(journalPath, retiredPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(tempPath(filePath), filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.deleteIfExists(retiredPath);
+    }
+
+    /**
+     * Undoes or completes a {@link #swapSnapshot} that was cut off, so that the snapshot and the
+     * journal agree again.
+     *
+     * @param filePath Path of the snapshot file.
+     * @param journalPath Path of the journal.
+     * @throws IOException If a file cannot be moved or deleted.
+     */
+    static void recoverSnapshotSwap(Path filePath, Path journalPath) throws IOException {
+        Path retiredPath = retiredPath(journalPath);
+        if (Files.notExists(retiredPath)) {
+            return;
+        }
+        Path tempPath = tempPath(filePath);
+        if (Files.exists(tempPath)) {
+            // The new snapshot never replaced the old one, which still needs the retired records.
+            Files.move(retiredPath, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.delete(tempPath);
+        } else {
+            Files.delete(retiredPath);
+        }
+    }
+
+    static Path tempPath(Path filePath) {
+        return filePath.resolveSibling(filePath.getFileName() + SNAPSHOT_TEMP_SUFFIX);
+    }
+
+    private static Path retiredPath(Path journalPath) {
+        return journalPath.resolveSibling(journalPath.getFileName() + RETIRED_SUFFIX);
+    }
+
+    /**
+     * Returns the complete records of the journal, or an empty list if there is no journal.
+     */
+    private List<String> readJournal() throws RevelException {
+        try {
+            if (Files.notExists(journalPath)) {
+                return List.of();
+            }
+            String journal = new String(Files.readAllBytes(journalPath), StandardCharsets.UTF_8);
+            // A record without its trailing newline was cut off mid-write, so it is ignored.
+            int end = journal.lastIndexOf('\n');
+            if (end < 0) {
+                return List.of();
+            }
+            List<String> records = new ArrayList<>();
+            for (String record : journal.substring(0, end).split("\n")) {
+                if (!record.isBlank()) {
+                    records.add(record.strip());
+                }
+            }
+            return records;
+        } catch (IOException e) {
+            throw new RevelException("Unable to load task journal from file: " + journalPath);
+        }
+    }
+
+    private void replay(List<Task> tasks, String checksummedRecord) throws RevelException {
+        String record = RecordChecksum.verify(checksummedRecord);
+        int separator = record.indexOf(RECORD_SEPARATOR);
+        if (separator < 0) {
+            throw new RevelException("Invalid/Corrupt journal record: " + record);
+        }
+        String type = record.substring(0, separator);
+        String payload = record.substring(separator + RECORD_SEPARATOR.length());
+        if (type.equals(ADD)) {
+            tasks.add(Task.fromFileString(payload));
+            return;
+        }
+
+        String taskRecord = null;
+        if (type.equals(INSERT)) {
+            int indexEnd = payload.indexOf(RECORD_SEPARATOR);
+            if (indexEnd < 0) {
+                throw new RevelException("Invalid/Corrupt journal record: " + record);
+            }
+            taskRecord = payload.substring(indexEnd + RECORD_SEPARATOR.length());
+            payload = payload.substring(0, indexEnd);
+        }
+        int index;
+        try {
+            index = Integer.parseInt(payload);
+        } catch (NumberFormatException e) {
+            throw new RevelException("Invalid/Corrupt journal record: " + record);
+        }
+        int bound = type.equals(INSERT) ? tasks.size() + 1 : tasks.size();
+        if (index < 0 || index >= bound) {
+            throw new RevelException("Invalid/Corrupt journal record: " + record);
+        }
+
+        switch (type) {
+        case MARK -> tasks.get(index).markAsDone();
+        case UNMARK -> tasks.get(index).markAsUndone();
+        case DELETE -> tasks.remove(index);
+        case INSERT -> tasks.add(index, Task.fromFileString(taskRecord));
+        default -> throw new RevelException("Invalid/Corrupt journal record: " + record);
+        }
+    }
+
+    /**
+     * Writes a full snapshot of the tasks and clears the journal.
+     *
+     * @param tasks Task list to persist.
+     * @throws RevelException If the snapshot cannot be written.
+     */
+    @Override
+    public void save(TaskList tasks) throws RevelException {
+        assert tasks != null : "tasks cannot be null";
+        try {
+            Files.createDirectories(filePath.getParent());
+            writeTasks(tempPath(filePath), tasks.getTaskList());
+            swapSnapshot(filePath, journalPath);
+        } catch (IOException e) {
+            throw new RevelException("Unable to save tasks to disk.");
+        }
+    }
+
+    @Override
+    public void saveTaskAdded(TaskList tasks, Task task) throws RevelException {
+        append(tasks, ADD + RECORD_SEPARATOR + task.toFileString());
+    }
+
+    @Override
+    public void saveTaskInserted(TaskList tasks, int index) throws RevelException {
+        append(tasks, INSERT + RECORD_SEPARATOR + index + RECORD_SEPARATOR + tasks.get(index).toFileString());
+    }
+
+    @Override
+    public void saveTaskMarked(TaskList tasks, int index) throws RevelException {
+        append(tasks, MARK + RECORD_SEPARATOR + index);
+    }
+
+    @Override
+    public void saveTaskUnmarked(TaskList tasks, int index) throws RevelException {
+        append(tasks, UNMARK + RECORD_SEPARATOR + index);
+    }
+
+    @Override
+    public void saveTaskDeleted(TaskList tasks, int index) throws RevelException {
+        append(tasks, DELETE + RECORD_SEPARATOR + index);
+    }
+
+    private void append(TaskList tasks, String record) throws RevelException {
+        try {
+            Files.createDirectories(journalPath.getParent());
+            StringBuilder line = new StringBuilder(record);
+            RecordChecksum.append(line);
+            Files.writeString(journalPath, line.append('\n'), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+            if (Files.size(journalPath) >= compactThreshold) {
+                save(tasks);
+            }
+        } catch (IOException e) {
+            throw new RevelException("Unable to append to task journal.");
+        }
+    }
+}
@@ -0,0 +1,583 @@
+package revel.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import revel.RevelException;
+
+/**
+ * Streaming pull reader for JSON documents.
+ * <p>
+ * The input is read through a fixed-size character buffer, either from a {@link Reader} or by
+ * decoding UTF-8 straight out of a {@link ByteBuffer} (such as a memory-mapped file), so the
+ * document is never held in memory as a whole. Callers walk the document with
+ * {@link #beginObject()}, {@link #hasNext()}, {@link #nextName()}, {@link #nextString()} and so on.
+ * String contents are collected in one reused builder, and object member names are interned in a
+ * small table owned by the reader, so a name that repeats across the document is returned as the
+ * same {@code String} instance without allocating a new one. Syntax errors are reported as a
+ * {@link RevelException} naming the line and column where they occur.
+ * </p>
+ */
+public final class JsonReader implements Closeable {
+    /**
+     * Kinds of tokens returned by {@link #peek()}.
+     */
+    public enum Token {
+        BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, NAME, STRING, NUMBER, BOOLEAN, NULL, END_DOCUMENT
+    }
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_OBJECT = 2;
+    private static final int NONEMPTY_OBJECT = 3;
+    private static final int DANGLING_NAME = 4;
+    private static final int EMPTY_ARRAY = 5;
+    private static final int NONEMPTY_ARRAY = 6;
+
+    private final String sourceName;
+    private final Reader reader;
+    private final ByteBuffer bytes;
+    private final CharsetDecoder decoder;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+    private boolean isEndOfInput;
+    private boolean isFlushed;
+    private int line = 1;
+    private int column = 1;
+
+    private int[] scopes = new int[16];
+    private int depth = 1;
+    private Token peeked;
+    private boolean literalValue;
+    private final StringBuilder text = new StringBuilder();
+    private String[] names = new String[16];
+    private int nameCount;
+
+    private JsonReader(String sourceName, Reader reader, ByteBuffer bytes) {
+        this.sourceName = sourceName;
+        this.reader = reader;
+        this.bytes = bytes;
+        this.decoder = bytes == null
+                ? null
+                : StandardCharsets.UTF_8.newDecoder()
+                        .onMalformedInput(CodingErrorAction.REPLACE)
+                        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.scopes[0] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Creates a reader over characters from {@code reader}.
+     *
+     * @param sourceName Name of the input used in error messages, e.g. {@code "aliases.json"}.
+     * @param reader Source of the document; closed by {@link #close()}.
+     * @return JSON reader.
+     */
+    public static JsonReader of(String sourceName, Reader reader) {
+        return new JsonReader(sourceName, reader, null);
+    }
+
+    /**
+     * Creates a reader that decodes UTF-8 directly from the remaining bytes of {@code bytes}.
+     *
+     * @param sourceName Name of the input used in error messages.
+     * @param bytes Source of the document; its position is advanced as the document is read.
+     * @return JSON reader.
+     */
+    public static JsonReader of(String sourceName, ByteBuffer bytes) {
+        return new JsonReader(sourceName, null, bytes);
+    }
+
+    /**
+     * Returns the kind of the next token without consuming it.
+     *
+     * @return Next token.
+     * @throws RevelException If the input is not valid JSON or cannot be read.
+     */
+    public Token peek() throws RevelException {
+        if (peeked == null) {
+            peeked = readToken();
+        }
+        return peeked;
+    }
+
+    /**
+     * Returns whether the current object or array has another element.
+     *
+     * @return True if the next token is not the end of an object, array or document.
+     * @throws RevelException If the input is not valid JSON or cannot be read.
+     */
+    public boolean hasNext() throws RevelException {
+        Token token = peek();
+        return token != Token.END_OBJECT && token != Token.END_ARRAY && token != Token.END_DOCUMENT;
+    }
+
+    /**
+     * Consumes the start of an object.
+     *
+     * @throws RevelException If the next token is not the start of an object.
+     */
+    public void beginObject() throws RevelException {
+        expect(Token.BEGIN_OBJECT, "expected '{'");
+        push(EMPTY_OBJECT);
+    }
+
+    /**
+     * Consumes the end of an object.
+     *
+     * @throws RevelException If the next token is not the end of an object.
+     */
+    public void endObject() throws RevelException {
+        expect(Token.END_OBJECT, "expected ',' or '}'");
+        depth--;
+    }
+
+    /**
+     * Consumes the start of an array.
+     *
+     * @throws RevelException If the next token is not the start of an array.
+     */
+    public void beginArray() throws RevelException {
+        expect(Token.BEGIN_ARRAY, "expected '['");
+        push(EMPTY_ARRAY);
+    }
+
+    /**
+     * Consumes the end of an array.
+     *
+     * @throws RevelException If the next token is not the end of an array.
+     */
+    public void endArray() throws RevelException {
+        expect(Token.END_ARRAY, "expected ',' or ']'");
+        depth--;
+    }
+
+    /**
+     * Consumes an object member name.
+     *
+     * @return The name; equal names within one document are the same instance.
+     * @throws RevelException If the next token is not a member name.
+     */
+    public String nextName() throws RevelException {
+        expect(Token.NAME, "expected string key");
+        return intern(text);
+    }
+
+    /**
+     * Consumes a string value.
+     *
+     * @return The string.
+     * @throws RevelException If the next token is not a string.
+     */
+    public String nextString() throws RevelException {
+        expect(Token.STRING, "expected string value");
+        return text.toString();
+    }
+
+    /**
+     * Consumes a number value that fits in a {@code long}.
+     *
+     * @return The number.
+     * @throws RevelException If the next token is not an integer number.
+     */
+    public long nextLong() throws RevelException {
+        expect(Token.NUMBER, "expected number");
+        try {
+            return Long.parseLong(text, 0, text.length(), 10);
+        } catch (NumberFormatException e) {
+            throw syntaxError("expected integer but was " + text);
+        }
+    }
+
+    /**
+     * Consumes a number value.
+     *
+     * @return The number.
+     * @throws RevelException If the next token is not a number.
+     */
+    public double nextDouble() throws RevelException {
+        expect(Token.NUMBER, "expected number");
+        try {
+            return Double.parseDouble(text.toString());
+        } catch (NumberFormatException e) {
+            throw syntaxError("invalid number " + text);
+        }
+    }
+
+    /**
+     * Consumes a {@code true} or {@code false} value.
+     *
+     * @return The value.
+     * @throws RevelException If the next token is not a boolean.
+     */
+    public boolean nextBoolean() throws RevelException {
+        expect(Token.BOOLEAN, "expected true or false");
+        return literalValue;
+    }
+
+    /**
+     * Consumes a {@code null} value.
+     *
+     * @throws RevelException If the next token is not null.
+     */
+    public void nextNull() throws RevelException {
+        expect(Token.NULL, "expected null");
+    }
+
+    /**
+     * Consumes the next value, including everything nested in it.
+     *
+     * @throws RevelException If the input is not valid JSON or cannot be read.
+     */
+    public void skipValue() throws RevelException {
+        int nesting = 0;
+        do {
+            switch (peek()) {
+            case BEGIN_OBJECT -> {
+                beginObject();
+                nesting++;
+            }
+            case BEGIN_ARRAY -> {
+                beginArray();
+                nesting++;
+            }
+            case END_OBJECT -> {
+                endObject();
+                nesting--;
+            }
+            case END_ARRAY -> {
+                endArray();
+                nesting--;
+            }
+            case END_DOCUMENT -> throw syntaxError("unexpected end of input");
+            default -> peeked = null;
+            }
+        } while (nesting > 0);
+    }
+
+    /**
+     * Checks that nothing but whitespace follows the document.
+     *
+     * @throws RevelException If more content follows.
+     */
+    public void endDocument() throws RevelException {
+        expect(Token.END_DOCUMENT, "unexpected content after the document");
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (reader != null) {
+            reader.close();
+        }
+    }
+
+    private void expect(Token token, String message) throws RevelException {
+        if (peek() != token) {
+            throw syntaxError(message);
+        }
+        peeked = null;
+    }
+
+    private void push(int scope) {
+        if (depth == scopes.length) {
+            int[] grown = new int[depth * 2];
+            System.arraycopy(scopes, 0, grown, 0, depth);
+            scopes = grown;
+        }
+        scopes[depth++] = scope;
+    }
+
+    private Token readToken() throws RevelException {
+        int scope = scopes[depth - 1];
+        switch (scope) {
+        case EMPTY_DOCUMENT -> {
+            scopes[depth - 1] = NONEMPTY_DOCUMENT;
+            if (peekNonWhitespace() < 0) {
+                return Token.END_DOCUMENT;
+            }
+            return readValue();
+        }
+        case NONEMPTY_DOCUMENT -> {
+            if (peekNonWhitespace() < 0) {
+                return Token.END_DOCUMENT;
+            }
+            throw syntaxError("unexpected content after the document");
+        }
+        case EMPTY_OBJECT, NONEMPTY_OBJECT -> {
+            scopes[depth - 1] = DANGLING_NAME;
+            int c = peekNonWhitespace();
+            if (c == '}') {
+                consume();
+                return Token.END_OBJECT;
+            }
+            if (scope == NONEMPTY_OBJECT) {
+                if (c != ',') {
+                    throw syntaxError("expected ',' or '}'");
+                }
+                consume();
+                c = peekNonWhitespace();
+            }
+            if (c != '"') {
+                throw syntaxError("expected string key");
+            }
+            consume();
+            readString();
+            return Token.NAME;
+        }
+        case DANGLING_NAME -> {
+            scopes[depth - 1] = NONEMPTY_OBJECT;
+            if (peekNonWhitespace() != ':') {
+                throw syntaxError("expected ':' after key");
+            }
+            consume();
+            return readValue();
+        }
+        case EMPTY_ARRAY, NONEMPTY_ARRAY -> {
+            scopes[depth - 1] = NONEMPTY_ARRAY;
+            int c = peekNonWhitespace();
+            if (c == ']') {
+                consume();
+                return Token.END_ARRAY;
+            }
+            if (scope == NONEMPTY_ARRAY) {
+                if (c != ',') {
+                    throw syntaxError("expected ',' or ']'");
+                }
+                consume();
+            }
+            return readValue();
+        }
+        default -> throw new IllegalStateException("Unknown scope: " + scope);
+        }
+    }
+
+    private Token readValue() throws RevelException {
+        int c = peekNonWhitespace();
+        switch (c) {
+        case '{' -> {
+            consume();
+            return Token.BEGIN_OBJECT;
+        }
+        case '[' -> {
+            consume();
+            return Token.BEGIN_ARRAY;
+        }
+        case '"' -> {
+            consume();
+            readString();
+            return Token.STRING;
+        }
+        case 't' -> {
+            readLiteral("true");
+            literalValue = true;
+            return Token.BOOLEAN;
+        }
+        case 'f' -> {
+            readLiteral("false");
+            literalValue = false;
+            return Token.BOOLEAN;
+        }
+        case 'n' -> {
+            readLiteral("null");
+            return Token.NULL;
+        }
+        case -1 -> throw syntaxError("unexpected end of input");
+        default -> {
+            if (c == '-' || (c >= '0' && c <= '9')) {
+                readNumber();
+                return Token.NUMBER;
+            }
+            throw syntaxError("unexpected character '" + (char) c + "'");
+        }
+        }
+    }
+
+    /**
+     * Reads the contents of a string whose opening quote was consumed into {@link #text}.
+     */
+    private void readString() throws RevelException {
+        text.setLength(0);
+        while (true) {
+            // Copy runs of plain characters straight from the buffer.
+            int start = pos;
+            while (pos < limit && buffer[pos] != '"' && buffer[pos] != '\\' && buffer[pos] != '\n') {
+                pos++;
+            }
+            text.append(buffer, start, pos - start);
+            column += pos - start;
+
+            int c = peekChar();
+            if (c < 0 || c == '\n') {
+                throw syntaxError("unterminated string");
+            }
+            if (c == '"' || c == '\\') {
+                consume();
+                if (c == '"') {
+                    return;
+                }
+                text.append(readEscape());
+            }
+        }
+    }
+
+    private char readEscape() throws RevelException {
+        int c = peekChar();
+        if (c < 0) {
+            throw syntaxError("unterminated escape");
+        }
+        consume();
+        switch (c) {
+        case '"', '\\', '/' -> {
+            return (char) c;
+        }
+        case 'b' -> {
+            return '\b';
+        }
+        case 'f' -> {
+            return '\f';
+        }
+        case 'n' -> {
+            return '\n';
+        }
+        case 'r' -> {
+            return '\r';
+        }
+        case 't' -> {
+            return '\t';
+        }
+        case 'u' -> {
+            int value = 0;
+            for (int i = 0; i < 4; i++) {
+                int digit = Character.digit(peekChar(), 16);
+                if (digit < 0) {
+                    throw syntaxError("invalid unicode escape");
+                }
+                consume();
+                value = value * 16 + digit;
+            }
+            return (char) value;
+        }
+        default -> throw syntaxError("unsupported escape");
+        }
+    }
+
+    private void readNumber() throws RevelException {
+        text.setLength(0);
+        int c = peekChar();
+        while (c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E' || (c >= '0' && c <= '9')) {
+            text.append((char) c);
+            consume();
+            c = peekChar();
+        }
+    }
+
+    private void readLiteral(String literal) throws RevelException {
+        for (int i = 0; i < literal.length(); i++) {
+            if (peekChar() != literal.charAt(i)) {
+                throw syntaxError("expected " + literal);
+            }
+            consume();
+        }
+    }
+
+    /**
+     * Returns the string in the name table equal to {@code name}, adding it if needed.
+     */
+    private String intern(CharSequence name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + name.charAt(i);
+        }
+        int mask = names.length - 1;
+        int slot = (hash ^ (hash >>> 16)) & mask;
+        while (names[slot] != null) {
+            if (names[slot].contentEquals(name)) {
+                return names[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        String added = name.toString();
+        names[slot] = added;
+        if (++nameCount * 2 > names.length) {
+            String[] old = names;
+            names = new String[old.length * 2];
+            nameCount = 0;
+            for (String existing : old) {
+                if (existing != null) {
+                    intern(existing);
+                }
+            }
+        }
+        return added;
+    }
+
+    private int peekNonWhitespace() throws RevelException {
+        int c = peekChar();
+        while (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+            consume();
+            c = peekChar();
+        }
+        return c;
+    }
+
+    /**
+     * Returns the next character without consuming it, or -1 at the end of the input.
+     */
+    private int peekChar() throws RevelException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos];
+    }
+
+    private void consume() {
+        if (buffer[pos++] == '\n') {
+            line++;
+            column = 1;
+        } else {
+            column++;
+        }
+    }
+
+    private boolean fill() throws RevelException {
+        if (isEndOfInput) {
+            return false;
+        }
+        pos = 0;
+        limit = 0;
+        try {
+            while (limit == 0 && !isEndOfInput) {
+                if (reader != null) {
+                    int read = reader.read(buffer, 0, buffer.length);
+                    isEndOfInput = read < 0;
+                    limit = Math.max(read, 0);
+                } else if (isFlushed) {
+                    isEndOfInput = true;
+                } else {
+                    CharBuffer chars = CharBuffer.wrap(buffer);
+                    decoder.decode(bytes, chars, true);
+                    if (!bytes.hasRemaining()) {
+                        decoder.flush(chars);
+                        isFlushed = true;
+                    }
+                    limit = chars.position();
+                }
+            }
+        } catch (IOException e) {
+            throw new RevelException("Unable to read " + sourceName);
+        }
+        return limit > 0;
+    }
+
+    private RevelException syntaxError(String message) {
+        return new RevelException("Invalid " + sourceName + " format at line " + line + ", column " + column
+                + ": " + message + ".");
+    }
+}
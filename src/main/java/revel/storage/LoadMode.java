@@ -0,0 +1,13 @@
+package revel.storage;
+
+/**
+ * Represents the strategies {@link Storage} can use to read the task file.
+ */
+public enum LoadMode {
+    /** Reads the whole file and builds every task up front. */
+    EAGER,
+    /** Memory-maps the file, indexes record offsets and builds tasks only when they are accessed. */
+    MAPPED,
+    /** Parses large text files in newline-aligned chunks on the fork-join pool; small files load eagerly. */
+    PARALLEL
+}
@@ -0,0 +1,245 @@
+package revel.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import revel.RevelException;
+import revel.task.Task;
+
+/**
+ * A task list backed by a memory-mapped task file that builds tasks only when they are accessed.
+ * <p>
+ * Mapping the file only records where each record starts (and, for the text format, ends).
+ * {@link #get(int)} decodes the record the first time it is requested and caches the result.
+ * Every record is checked while the file is indexed, so that a corrupt record fails the load, where
+ * the caller can salvage the file, rather than a later {@code get}: a text record with a checksum
+ * only has its checksum verified, a text record without one is decoded and dropped again (and fails
+ * the load if other records have checksums), and a binary record is checked field by field without
+ * building the task.
+ * Tasks added later live purely in memory. Before the underlying file is overwritten,
+ * {@link #detach()} must be called so that every remaining record is read while the mapping is
+ * still valid.
+ * </p>
+ */
+final class MappedTaskList extends AbstractList<Task> implements RandomAccess {
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int BINARY_PREFIX_LENGTH = 4;
+
+    private final StorageFormat format;
+    private ByteBuffer buffer;
+    private int[] starts;
+    private int[] ends;
+    private Task[] tasks;
+    private int size;
+
+    private MappedTaskList(ByteBuffer buffer, StorageFormat format, int[] starts, int[] ends, int size) {
+        int capacity = Math.max(size, INITIAL_CAPACITY);
+        this.buffer = buffer;
+        this.format = format;
+        this.starts = Arrays.copyOf(starts, capacity);
+        this.ends = ends == null ? null : Arrays.copyOf(ends, capacity);
+        this.tasks = new Task[capacity];
+        this.size = size;
+    }
+
+    /**
+     * Maps the given task file and indexes its records without decoding them.
+     *
+     * @param path Task file to map. Must be smaller than 2 GB.
+     * @return Lazily materialized list of the file's tasks.
+     * @throws IOException If the file cannot be mapped.
+     * @throws RevelException If a record is invalid.
+     */
+    static MappedTaskList map(Path path) throws IOException, RevelException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        byte[] prefix = new byte[Math.min(BINARY_PREFIX_LENGTH, buffer.limit())];
+        buffer.get(0, prefix);
+        if (BinaryTaskCodec.hasHeader(prefix)) {
+            return indexBinary(buffer);
+        }
+        return indexText(buffer);
+    }
+
+    private static MappedTaskList indexBinary(ByteBuffer buffer) throws RevelException {
+        ByteBuffer cursor = buffer.duplicate();
+        int count = BinaryTaskCodec.readHeader(cursor);
+        int[] starts = new int[count];
+        for (int i = 0; i < count; i++) {
+            starts[i] = cursor.position();
+            BinaryTaskCodec.skipTask(cursor);
+        }
+        return new MappedTaskList(buffer, StorageFormat.BINARY, starts, null, count);
+    }
+
+    private static MappedTaskList indexText(ByteBuffer buffer) throws RevelException {
+        int[] starts = new int[INITIAL_CAPACITY];
+        int[] ends = new int[INITIAL_CAPACITY];
+        int count = 0;
+        int limit = buffer.limit();
+        int lineStart = 0;
+        boolean isBlank = true;
+        for (int i = 0; i <= limit; i++) {
+            byte b = i < limit ? buffer.get(i) : (byte) '\n';
+            if (b != '\n') {
+                isBlank &= b == ' ' || b == '\t' || b == '\r';
+                continue;
+            }
+            if (!isBlank) {
+                if (count == starts.length) {
+                    starts = Arrays.copyOf(starts, count * 2);
+                    ends = Arrays.copyOf(ends, count * 2);
+                }
+                int lineEnd = i > lineStart && buffer.get(i - 1) == '\r' ? i - 1 : i;
+                starts[count] = lineStart;
+                ends[count] = lineEnd;
+                count++;
+            }
+            lineStart = i + 1;
+            isBlank = true;
+        }
+        MappedTaskList list = new MappedTaskList(buffer, StorageFormat.TEXT, starts, ends, count);
+        int checksummedCount = 0;
+        int firstUnchecksummed = -1;
+        for (int i = 0; i < count; i++) {
+            if (RecordChecksum.verify(buffer, starts[i], ends[i])) {
+                checksummedCount++;
+            } else {
+                list.decode(i);
+                firstUnchecksummed = firstUnchecksummed < 0 ? i : firstUnchecksummed;
+            }
+        }
+        if (checksummedCount > 0 && firstUnchecksummed >= 0) {
+            throw new RevelException("Invalid/Corrupt data! Missing checksum at position "
+                    + starts[firstUnchecksummed]);
+        }
+        return list;
+    }
+
+    @Override
+    public Task get(int index) {
+        Objects.checkIndex(index, size);
+        Task task = tasks[index];
+        if (task == null) {
+            try {
+                task = decode(index);
+            } catch (RevelException e) {
+                // Records are checked when the file is mapped, so this means the file changed since.
+                throw new IllegalStateException("Corrupt task record at position " + starts[index] + ": "
+                        + e.getMessage());
+            }
+            tasks[index] = task;
+        }
+        return task;
+    }
+
+    private Task decode(int index) throws RevelException {
+        if (format == StorageFormat.BINARY) {
+            return BinaryTaskCodec.decodeTask(buffer.duplicate().position(starts[index]));
+        }
+        byte[] bytes = new byte[ends[index] - starts[index]];
+        buffer.get(starts[index], bytes);
+        // Indexing already rejected records without a checksum in a file that has checksums.
+        return RecordChecksum.decodeTask(new String(bytes, StandardCharsets.UTF_8), false);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Task previous = get(index);
+        tasks[index] = task;
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        Objects.checkIndex(index, size + 1);
+        ensureCapacity(size + 1);
+        System.arraycopy(tasks, index, tasks, index + 1, size - index);
+        if (starts != null) {
+            System.arraycopy(starts, index, starts, index + 1, size - index);
+            if (ends != null) {
+                System.arraycopy(ends, index, ends, index + 1, size - index);
+            }
+        }
+        tasks[index] = task;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = get(index);
+        int tail = size - index - 1;
+        System.arraycopy(tasks, index + 1, tasks, index, tail);
+        if (starts != null) {
+            System.arraycopy(starts, index + 1, starts, index, tail);
+            if (ends != null) {
+                System.arraycopy(ends, index + 1, ends, index, tail);
+            }
+        }
+        size--;
+        tasks[size] = null;
+        modCount++;
+        return removed;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= tasks.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, tasks.length * 2);
+        tasks = Arrays.copyOf(tasks, newCapacity);
+        if (starts != null) {
+            starts = Arrays.copyOf(starts, newCapacity);
+            if (ends != null) {
+                ends = Arrays.copyOf(ends, newCapacity);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of tasks that have been built so far.
+     *
+     * @return Count of materialized tasks.
+     */
+    int getMaterializedCount() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (tasks[i] != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Materializes every remaining task and releases the mapping.
+     */
+    void detach() {
+        if (buffer == null) {
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            get(i);
+        }
+        buffer = null;
+        starts = null;
+        ends = null;
+    }
+}
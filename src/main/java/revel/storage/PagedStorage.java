@@ -0,0 +1,138 @@
+package revel.storage;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import revel.RevelException;
+import revel.task.Task;
+import revel.task.TaskList;
+
+/**
+ * Storage that keeps tasks in a {@link PagedTaskFile} and updates single tasks in place.
+ * <p>
+ * Marking or unmarking a task writes one byte, adding a task writes only its own slots, and
+ * deleting a task frees its slots for reuse. {@link #save(TaskList)} and {@link #compact(TaskList)}
+ * rewrite the file densely. A task file in another format is converted to the paged format the
+ * first time it is loaded.
+ * </p>
+ */
+public class PagedStorage extends Storage {
+    private final PagedTaskFile pagedFile;
+
+    /**
+     * Creates a paged storage using the default slot size.
+     *
+     * @param filePath Path of the task file.
+     */
+    public PagedStorage(Path filePath) {
+        this(filePath, PagedTaskFile.DEFAULT_SLOT_SIZE);
+    }
+
+    /**
+     * Creates a paged storage whose new files use slots of the given size.
+     *
+     * @param filePath Path of the task file.
+     * @param slotSize Size of one slot in bytes.
+     */
+    public PagedStorage(Path filePath, int slotSize) {
+        super(filePath);
+        this.pagedFile = new PagedTaskFile(filePath, slotSize);
+    }
+
+    /**
+     * Loads the tasks, converting the file to the paged format first if needed.
+     *
+     * @return Modifiable list of tasks (empty if file does not exist).
+     * @throws RevelException If the file cannot be read or converted.
+     */
+    @Override
+    public List<Task> load() throws RevelException {
+        try {
+            if (Files.notExists(filePath) || PagedTaskFile.isPagedFile(filePath)) {
+                return pagedFile.load(null);
+            }
+            List<Task> tasks = super.load();
+            pagedFile.rewrite(tasks);
+            return tasks;
+        } catch (IOException e) {
+            throw new RevelException("Unable to load tasks from file: " + filePath);
+        }
+    }
+
+    /**
+     * Rewrites all tasks into consecutive slots.
+     *
+     * @param tasks Task list to persist.
+     * @throws RevelException If the tasks cannot be saved.
+     */
+    @Override
+    public void save(TaskList tasks) throws RevelException {
+        assert tasks != null : "tasks cannot be null";
+        try {
+            Files.createDirectories(filePath.getParent());
+            pagedFile.rewrite(tasks.getTaskList());
+        } catch (IOException e) {
+            throw new RevelException("Unable to save tasks to disk.");
+        }
+    }
+
+    @Override
+    public void saveTaskAdded(TaskList tasks, Task task) throws RevelException {
+        if (pagedFile.size() != tasks.getSize() - 1) {
+            save(tasks);
+            return;
+        }
+        try {
+            Files.createDirectories(filePath.getParent());
+            pagedFile.append(task);
+        } catch (IOException e) {
+            throw new RevelException("Unable to save tasks to disk.");
+        }
+    }
+
+    @Override
+    public void saveTaskMarked(TaskList tasks, int index) throws RevelException {
+        saveDoneFlag(tasks, index, true);
+    }
+
+    @Override
+    public void saveTaskUnmarked(TaskList tasks, int index) throws RevelException {
+        saveDoneFlag(tasks, index, false);
+    }
+
+    private void saveDoneFlag(TaskList tasks, int index, boolean isDone) throws RevelException {
+        if (pagedFile.size() != tasks.getSize()) {
+            save(tasks);
+            return;
+        }
+        try {
+            pagedFile.setDone(index, isDone);
+        } catch (IOException e) {
+            throw new RevelException("Unable to save tasks to disk.");
+        }
+    }
+
+    @Override
+    public void saveTaskDeleted(TaskList tasks, int index) throws RevelException {
+        if (pagedFile.size() != tasks.getSize() + 1) {
+            save(tasks);
+            return;
+        }
+        try {
+            pagedFile.delete(index);
+        } catch (IOException e) {
+            throw new RevelException("Unable to save tasks to disk.");
+        }
+    }
+
+    /**
+     * Returns the number of free slots left behind by deletions since the last compaction.
+     *
+     * @return Free slot count.
+     */
+    public int getFreeSlotCount() {
+        return pagedFile.getFreeSlotCount();
+    }
+}
@@ -0,0 +1,386 @@
+package revel.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import revel.RevelException;
+import revel.task.Task;
+
+/**
+ * A task file made of fixed-size slots that can be updated in place.
+ * <p>
+ * After a 16-byte header ({@code RVLP}, a version byte and the slot size), the file is an array of
+ * slots. Each slot starts with a state byte (free, head or continuation), the index of the next
+ * slot of the same record, a sequence number and the record length, followed by payload bytes.
+ * A task is stored as a {@link BinaryTaskCodec} record spread over a head slot and as many
+ * continuation slots as it needs. Tasks are ordered by the sequence number of their head slot.
+ * </p>
+ * <p>
+ * Because the done flag sits at a fixed offset in the head slot, marking or unmarking a task is a
+ * single one-byte positional write. Deleting a task only sets the state of its slots to free;
+ * freed slots are kept on a free list and reused by later additions. {@link #rewrite(List)}
+ * compacts the file by writing the live tasks into consecutive slots. The free list is rebuilt
+ * from the slot states when the file is loaded, so an interrupted update never leaves it
+ * inconsistent.
+ * </p>
+ */
+final class PagedTaskFile {
+    /** Default size of one slot in bytes. */
+    static final int DEFAULT_SLOT_SIZE = 128;
+
+    private static final byte[] MAGIC = {'R', 'V', 'L', 'P'};
+    private static final byte VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int SLOT_SIZE_OFFSET = 8;
+    private static final byte STATE_FREE = 0;
+    private static final byte STATE_HEAD = 1;
+    private static final byte STATE_CONTINUATION = 2;
+    private static final int NEXT_OFFSET = 1;
+    private static final int PAYLOAD_OFFSET = 1 + Integer.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int DONE_OFFSET = PAYLOAD_OFFSET + BinaryTaskCodec.DONE_OFFSET;
+    private static final int NO_SLOT = -1;
+    private static final int MIN_SLOT_SIZE = PAYLOAD_OFFSET + 16;
+
+    private final Path path;
+    private int slotSize;
+    private int[] slotOfIndex = new int[16];
+    private int size;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotCount;
+    private long nextSequence;
+
+    /**
+     * Creates an engine for the paged file at {@code path} that uses slots of the given size for new files.
+     */
+    PagedTaskFile(Path path, int slotSize) {
+        assert slotSize >= MIN_SLOT_SIZE : "slotSize is too small";
+        this.path = path;
+        this.slotSize = slotSize;
+    }
+
+    /**
+     * Returns whether the file at {@code path} exists and starts with the paged file header.
+     *
+     * @param path File to check.
+     * @return True if the file is a paged task file.
+     * @throws IOException If the file cannot be read.
+     */
+    static boolean isPagedFile(Path path) throws IOException {
+        if (Files.notExists(path)) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer prefix = ByteBuffer.allocate(MAGIC.length);
+            while (prefix.hasRemaining() && channel.read(prefix) >= 0) {
+                // Keep reading until the prefix is full or the file ends.
+            }
+            return Arrays.equals(prefix.array(), 0, prefix.position(), MAGIC, 0, MAGIC.length);
+        }
+    }
+
+    /**
+     * Returns the number of live tasks.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots in the file, including free ones.
+     */
+    int getSlotCount() {
+        return slotCount;
+    }
+
+    /**
+     * Returns the number of free slots available for reuse.
+     */
+    int getFreeSlotCount() {
+        return freeCount;
+    }
+
+    /**
+     * Reads all tasks and rebuilds the slot index and free list.
+     *
+     * @param rejected If not null, the raw bytes of every unreadable record are added to it and
+     *     loading continues; otherwise the first unreadable record fails the load.
+     * @return Tasks in sequence order.
+     * @throws IOException If the file cannot be read.
+     * @throws RevelException If the header is invalid, or a record is unreadable and {@code rejected} is null.
+     */
+    List<Task> load(List<byte[]> rejected) throws IOException, RevelException {
+        size = 0;
+        freeCount = 0;
+        slotCount = 0;
+        nextSequence = 0;
+        if (Files.notExists(path)) {
+            return new ArrayList<>();
+        }
+
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Paged task file is too large: " + path);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        readHeader(data);
+        // A trailing partial slot is what an interrupted append leaves behind, so it is ignored.
+        slotCount = (data.limit() - HEADER_SIZE) / slotSize;
+
+        boolean[] isUsed = new boolean[slotCount];
+        List<HeadSlot> heads = new ArrayList<>();
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (data.get((int) offsetOf(slot)) != STATE_HEAD) {
+                continue;
+            }
+            try {
+                heads.add(readRecord(data, slot, isUsed));
+            } catch (RevelException e) {
+                if (rejected == null) {
+                    throw e;
+                }
+                byte[] raw = new byte[slotSize];
+                data.get((int) offsetOf(slot), raw);
+                rejected.add(raw);
+            }
+        }
+        heads.sort(Comparator.comparingLong(HeadSlot::sequence));
+
+        List<Task> tasks = new ArrayList<>(heads.size());
+        for (HeadSlot head : heads) {
+            tasks.add(head.task());
+            addIndex(head.slot());
+            nextSequence = Math.max(nextSequence, head.sequence() + 1);
+        }
+        // Free slots, and continuation slots that no live record reaches, can be reused.
+        for (int slot = slotCount - 1; slot >= 0; slot--) {
+            if (!isUsed[slot]) {
+                pushFree(slot);
+            }
+        }
+        return tasks;
+    }
+
+    private void readHeader(ByteBuffer data) throws RevelException {
+        if (data.limit() < HEADER_SIZE) {
+            throw new RevelException("Invalid/Corrupt data!");
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data.get(i) != MAGIC[i]) {
+                throw new RevelException("Invalid/Corrupt data!");
+            }
+        }
+        byte version = data.get(MAGIC.length);
+        if (version != VERSION) {
+            throw new RevelException("Unsupported task file version: " + version);
+        }
+        int fileSlotSize = data.getInt(SLOT_SIZE_OFFSET);
+        if (fileSlotSize < MIN_SLOT_SIZE) {
+            throw new RevelException("Invalid/Corrupt data!");
+        }
+        slotSize = fileSlotSize;
+    }
+
+    /**
+     * Collects and decodes the record whose head is {@code slot}, marking all of its slots as used.
+     */
+    private HeadSlot readRecord(ByteBuffer data, int slot, boolean[] isUsed) throws RevelException {
+        int headOffset = (int) offsetOf(slot);
+        long sequence = data.getLong(headOffset + NEXT_OFFSET + Integer.BYTES);
+        int length = data.getInt(headOffset + NEXT_OFFSET + Integer.BYTES + Long.BYTES);
+        int payloadSize = slotSize - PAYLOAD_OFFSET;
+        int slotsNeeded = length <= 0 ? 0 : (length - 1) / payloadSize + 1;
+        if (slotsNeeded == 0 || slotsNeeded > slotCount) {
+            throw new RevelException("Invalid/Corrupt data!");
+        }
+
+        byte[] record = new byte[length];
+        int[] chain = new int[slotsNeeded];
+        int current = slot;
+        for (int i = 0; i < slotsNeeded; i++) {
+            if (current < 0 || current >= slotCount || isUsed[current]
+                    || data.get((int) offsetOf(current)) != (i == 0 ? STATE_HEAD : STATE_CONTINUATION)) {
+                throw new RevelException("Invalid/Corrupt data!");
+            }
+            chain[i] = current;
+            int offset = (int) offsetOf(current);
+            int copied = i * payloadSize;
+            data.get(offset + PAYLOAD_OFFSET, record, copied, Math.min(payloadSize, length - copied));
+            current = data.getInt(offset + NEXT_OFFSET);
+        }
+
+        ByteBuffer recordBuffer = ByteBuffer.wrap(record);
+        Task task = BinaryTaskCodec.decodeTask(recordBuffer);
+        if (recordBuffer.hasRemaining()) {
+            throw new RevelException("Invalid/Corrupt data!");
+        }
+        for (int used : chain) {
+            isUsed[used] = true;
+        }
+        return new HeadSlot(slot, sequence, task);
+    }
+
+    /**
+     * Replaces the file with one holding {@code tasks} in consecutive slots, dropping all free slots.
+     *
+     * @param tasks Tasks to write, in order.
+     * @throws IOException If the file cannot be written.
+     */
+    void rewrite(List<Task> tasks) throws IOException {
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        size = 0;
+        freeCount = 0;
+        slotCount = 0;
+        nextSequence = 0;
+        try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeHeader(channel);
+            for (Task task : tasks) {
+                writeRecord(channel, task);
+            }
+        }
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Stores {@code task} after the last task, reusing free slots where possible.
+     *
+     * @param task Task to add.
+     * @throws IOException If the file cannot be written.
+     */
+    void append(Task task) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_SIZE) {
+                writeHeader(channel);
+            }
+            writeRecord(channel, task);
+        }
+    }
+
+    /**
+     * Overwrites the done flag of the task at {@code index} with one positional write.
+     *
+     * @param index Zero-based index of the task.
+     * @param isDone New done flag.
+     * @throws IOException If the file cannot be written.
+     */
+    void setDone(int index, boolean isDone) throws IOException {
+        assert index >= 0 && index < size : "index out of range";
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            writeByte(channel, offsetOf(slotOfIndex[index]) + DONE_OFFSET, (byte) (isDone ? 1 : 0));
+        }
+    }
+
+    /**
+     * Frees the slots of the task at {@code index} and puts them on the free list.
+     *
+     * @param index Zero-based index of the task.
+     * @throws IOException If the file cannot be written.
+     */
+    void delete(int index) throws IOException {
+        assert index >= 0 && index < size : "index out of range";
+        int slot = slotOfIndex[index];
+        System.arraycopy(slotOfIndex, index + 1, slotOfIndex, index, size - index - 1);
+        size--;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer next = ByteBuffer.allocate(Integer.BYTES);
+            // The head goes first so that an interrupted delete never leaves a record with missing parts.
+            for (int freed = 0; slot >= 0 && slot < slotCount && freed < slotCount; freed++) {
+                long offset = offsetOf(slot);
+                next.clear();
+                channel.read(next, offset + NEXT_OFFSET);
+                writeByte(channel, offset, STATE_FREE);
+                pushFree(slot);
+                slot = next.flip().remaining() == Integer.BYTES ? next.getInt() : NO_SLOT;
+            }
+        }
+    }
+
+    private void writeHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.put(MAGIC).put(VERSION);
+        header.putInt(SLOT_SIZE_OFFSET, slotSize);
+        channel.write(header.clear(), 0);
+    }
+
+    /**
+     * Writes {@code task} into newly allocated slots, continuation slots first and the head last.
+     */
+    private void writeRecord(FileChannel channel, Task task) throws IOException {
+        byte[] record = encode(task);
+        int payloadSize = slotSize - PAYLOAD_OFFSET;
+        int slotsNeeded = (record.length - 1) / payloadSize + 1;
+        int[] chain = new int[slotsNeeded];
+        for (int i = 0; i < slotsNeeded; i++) {
+            chain[i] = freeCount > 0 ? freeSlots[--freeCount] : slotCount++;
+        }
+
+        ByteBuffer slotBuffer = ByteBuffer.allocate(slotSize);
+        long sequence = nextSequence++;
+        for (int i = slotsNeeded - 1; i >= 0; i--) {
+            int copied = i * payloadSize;
+            slotBuffer.clear();
+            slotBuffer.put(i == 0 ? STATE_HEAD : STATE_CONTINUATION);
+            slotBuffer.putInt(i + 1 < slotsNeeded ? chain[i + 1] : NO_SLOT);
+            slotBuffer.putLong(sequence);
+            slotBuffer.putInt(record.length);
+            slotBuffer.put(record, copied, Math.min(payloadSize, record.length - copied));
+            slotBuffer.clear();
+            long offset = offsetOf(chain[i]);
+            while (slotBuffer.hasRemaining()) {
+                channel.write(slotBuffer, offset + slotBuffer.position());
+            }
+        }
+        addIndex(chain[0]);
+    }
+
+    private static byte[] encode(Task task) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            BinaryTaskCodec.encodeTask(task, out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeByte(FileChannel channel, long position, byte value) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1).put(value).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, position);
+        }
+    }
+
+    private long offsetOf(int slot) {
+        return HEADER_SIZE + (long) slot * slotSize;
+    }
+
+    private void addIndex(int slot) {
+        if (size == slotOfIndex.length) {
+            slotOfIndex = Arrays.copyOf(slotOfIndex, size * 2);
+        }
+        slotOfIndex[size++] = slot;
+    }
+
+    private void pushFree(int slot) {
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private record HeadSlot(int slot, long sequence, Task task) {
+    }
+}
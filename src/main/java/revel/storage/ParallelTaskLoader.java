@@ -0,0 +1,160 @@
+package revel.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import revel.RevelException;
+import revel.task.Task;
+
+/**
+ * Loads large text task files by parsing newline-aligned chunks in parallel.
+ * <p>
+ * The file is memory-mapped and cut into byte ranges that each end on a line break. Every range is
+ * parsed by its own fork-join task on the common pool, and the per-range results are concatenated
+ * in file order. Binary files are decoded sequentially, since their parsing cost is already small.
+ * Each range counts its lines with and without checksums, so that a file with checksums can be
+ * rejected if any of its lines lacks one.
+ * </p>
+ */
+final class ParallelTaskLoader {
+    /** Default file size (in bytes) from which parallel loading is used. */
+    static final long DEFAULT_THRESHOLD = 8L * 1024 * 1024;
+
+    private static final int MIN_CHUNK_SIZE = 256 * 1024;
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int BINARY_PREFIX_LENGTH = 4;
+
+    private ParallelTaskLoader() {
+    }
+
+    /**
+     * Loads all tasks from the given file.
+     *
+     * @param path Task file to load. Must be smaller than 2 GB.
+     * @return Tasks in file order.
+     * @throws IOException If the file cannot be mapped.
+     * @throws RevelException If any record is invalid.
+     */
+    static List<Task> load(Path path) throws IOException, RevelException {
+        ByteBuffer data = map(path);
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, data.limit() / (parallelism * CHUNKS_PER_THREAD) + 1);
+        return load(data, chunkSize);
+    }
+
+    /**
+     * Loads all tasks from the given file contents, cutting text into chunks of about {@code chunkSize} bytes.
+     */
+    static List<Task> load(ByteBuffer data, int chunkSize) throws RevelException {
+        byte[] prefix = new byte[Math.min(BINARY_PREFIX_LENGTH, data.limit())];
+        data.get(0, prefix);
+        if (BinaryTaskCodec.hasHeader(prefix)) {
+            return BinaryTaskCodec.decode(data.duplicate());
+        }
+
+        List<ChunkParser> parsers = new ArrayList<>();
+        int limit = data.limit();
+        int start = 0;
+        while (start < limit) {
+            int end = nextLineStart(data, Math.min(limit, start + chunkSize));
+            parsers.add(new ChunkParser(data, start, end));
+            start = end;
+        }
+        ForkJoinTask.invokeAll(parsers);
+
+        int total = 0;
+        int checksummedCount = 0;
+        for (ChunkParser parser : parsers) {
+            if (parser.error != null) {
+                throw parser.error;
+            }
+            total += parser.tasks.size();
+            checksummedCount += parser.checksummedCount;
+        }
+        if (checksummedCount > 0 && checksummedCount < total) {
+            throw new RevelException("Invalid/Corrupt data! Some records are missing their checksum.");
+        }
+        List<Task> tasks = new ArrayList<>(total);
+        for (ChunkParser parser : parsers) {
+            tasks.addAll(parser.tasks);
+        }
+        return tasks;
+    }
+
+    private static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Returns the position just after the first line break at or after {@code position}.
+     */
+    private static int nextLineStart(ByteBuffer data, int position) {
+        int i = position;
+        while (i < data.limit() && data.get(i) != '\n') {
+            i++;
+        }
+        return Math.min(data.limit(), i + 1);
+    }
+
+    /**
+     * Parses the complete lines in one byte range of the file.
+     */
+    private static final class ChunkParser extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ByteBuffer data;
+        private final int start;
+        private final int end;
+        private final List<Task> tasks = new ArrayList<>();
+        private int checksummedCount;
+        private RevelException error;
+
+        ChunkParser(ByteBuffer data, int start, int end) {
+            this.data = data;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            byte[] line = new byte[256];
+            int lineStart = start;
+            try {
+                while (lineStart < end) {
+                    int lineEnd = lineStart;
+                    while (lineEnd < end && data.get(lineEnd) != '\n') {
+                        lineEnd++;
+                    }
+                    int length = lineEnd - lineStart;
+                    if (length > 0 && data.get(lineEnd - 1) == '\r') {
+                        length--;
+                    }
+                    if (length > line.length) {
+                        line = new byte[Math.max(length, line.length * 2)];
+                    }
+                    data.get(lineStart, line, 0, length);
+                    String text = new String(line, 0, length, StandardCharsets.UTF_8);
+                    if (!text.isBlank()) {
+                        boolean hasChecksum = RecordChecksum.hasChecksum(text);
+                        tasks.add(RecordChecksum.decodeTask(text, false));
+                        checksummedCount += hasChecksum ? 1 : 0;
+                    }
+                    lineStart = lineEnd + 1;
+                }
+            } catch (RevelException e) {
+                error = e;
+            }
+        }
+    }
+}
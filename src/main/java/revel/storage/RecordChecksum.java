@@ -0,0 +1,169 @@
+package revel.storage;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import revel.RevelException;
+import revel.task.Task;
+
+/**
+ * Adds and verifies the checksum that ends every text record written by Revel.
+ * <p>
+ * A checksummed record is followed by {@code " | #"} and the CRC32C of the record's UTF-8 bytes as
+ * eight lowercase hex digits. Files written before checksums were introduced still load, as their
+ * lines have no such suffix at all. Once a file has any checksummed line, every line in it must have
+ * a valid checksum, so a line cut off while the file was being written is reported as corrupt.
+ * </p>
+ */
+final class RecordChecksum {
+    private static final String PREFIX = " | #";
+    private static final int HEX_DIGITS = 8;
+    private static final int SUFFIX_LENGTH = PREFIX.length() + HEX_DIGITS;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private RecordChecksum() {
+    }
+
+    /**
+     * Appends the checksum of the record currently held in {@code record}.
+     */
+    static void append(StringBuilder record) {
+        int checksum = checksum(record);
+        record.append(PREFIX);
+        for (int shift = (HEX_DIGITS - 1) * 4; shift >= 0; shift -= 4) {
+            record.append(HEX[(checksum >>> shift) & 0xF]);
+        }
+    }
+
+    /**
+     * Returns whether the line ends with a well-formed checksum suffix, whether or not it matches.
+     *
+     * @param line Line as read from disk, without its line break.
+     * @return True if the line has a checksum.
+     */
+    static boolean hasChecksum(String line) {
+        int recordEnd = line.length() - SUFFIX_LENGTH;
+        if (recordEnd < 0 || !line.startsWith(PREFIX, recordEnd)) {
+            return false;
+        }
+        for (int i = recordEnd + PREFIX.length(); i < line.length(); i++) {
+            if (Character.digit(line.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether any of the lines has a checksum, in which case all of them must have one.
+     *
+     * @param lines Lines of one file, without their line breaks.
+     * @return True if checksums are required for the lines.
+     */
+    static boolean isRequired(List<String> lines) {
+        for (String line : lines) {
+            if (hasChecksum(line)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the record with its checksum removed, after checking that the checksum matches.
+     * <p>
+     * A line without a checksum is returned unchanged, as a record written before checksums were
+     * introduced.
+     * </p>
+     *
+     * @param line Line as read from disk, without its line break.
+     * @return Record without the checksum suffix.
+     * @throws RevelException If the line has a checksum that does not match its record.
+     */
+    static String verify(String line) throws RevelException {
+        return verify(line, false);
+    }
+
+    /**
+     * Returns the record with its checksum removed, after checking that the checksum matches.
+     *
+     * @param line Line as read from disk, without its line break.
+     * @param isRequired Whether a line without a checksum is corrupt rather than an old record.
+     * @return Record without the checksum suffix.
+     * @throws RevelException If the checksum is missing although required, or does not match its record.
+     */
+    static String verify(String line, boolean isRequired) throws RevelException {
+        if (!hasChecksum(line)) {
+            if (isRequired) {
+                throw new RevelException("Invalid/Corrupt data! Missing checksum in: " + line);
+            }
+            return line;
+        }
+        int recordEnd = line.length() - SUFFIX_LENGTH;
+        int expected = 0;
+        for (int i = recordEnd + PREFIX.length(); i < line.length(); i++) {
+            expected = (expected << 4) | Character.digit(line.charAt(i), 16);
+        }
+        String record = line.substring(0, recordEnd);
+        if (checksum(record) != expected) {
+            throw new RevelException("Invalid/Corrupt data! Checksum mismatch in: " + record);
+        }
+        return record;
+    }
+
+    /**
+     * Checks the checksum of the line between {@code start} and {@code end} of {@code buffer} without
+     * decoding it.
+     *
+     * @param buffer Buffer holding the line.
+     * @param start Index of the first byte of the line.
+     * @param end Index after the last byte of the line, without its line break.
+     * @return True if the line ends with a matching checksum, false if it has none.
+     * @throws RevelException If the line has a checksum that does not match its record.
+     */
+    static boolean verify(ByteBuffer buffer, int start, int end) throws RevelException {
+        int recordEnd = end - SUFFIX_LENGTH;
+        if (recordEnd < start) {
+            return false;
+        }
+        for (int i = 0; i < PREFIX.length(); i++) {
+            if (buffer.get(recordEnd + i) != PREFIX.charAt(i)) {
+                return false;
+            }
+        }
+        int expected = 0;
+        for (int i = recordEnd + PREFIX.length(); i < end; i++) {
+            int digit = Character.digit(buffer.get(i), 16);
+            if (digit < 0) {
+                return false;
+            }
+            expected = (expected << 4) | digit;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().limit(recordEnd).position(start));
+        if ((int) crc.getValue() != expected) {
+            throw new RevelException("Invalid/Corrupt data! Checksum mismatch at position " + start);
+        }
+        return true;
+    }
+
+    /**
+     * Verifies a task file line and decodes the task it holds.
+     *
+     * @param line Line as read from disk, without its line break.
+     * @param isRequired Whether a line without a checksum is corrupt, see {@link #isRequired(List)}.
+     * @return Decoded task.
+     * @throws RevelException If the checksum is missing although required or wrong, or the record is invalid.
+     */
+    static Task decodeTask(String line, boolean isRequired) throws RevelException {
+        return Task.fromFileString(verify(line, isRequired));
+    }
+
+    private static int checksum(CharSequence record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record.toString().getBytes(StandardCharsets.UTF_8));
+        return (int) crc.getValue();
+    }
+}
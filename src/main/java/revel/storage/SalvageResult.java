@@ -0,0 +1,17 @@
+package revel.storage;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import revel.task.Task;
+
+/**
+ * Represents the outcome of salvaging a task file that could not be loaded normally.
+ *
+ * @param tasks Tasks that were recovered, in file order.
+ * @param recoveredCount Number of records that were read successfully.
+ * @param quarantinedCount Number of records that were moved to the quarantine file.
+ * @param quarantinePath File that holds the quarantined records.
+ */
+public record SalvageResult(List<Task> tasks, int recoveredCount, int quarantinedCount, Path quarantinePath) {
+}
@@ -0,0 +1,699 @@
+package revel.storage;
+
+import static revel.storage.JournalStorage.ADD;
+import static revel.storage.JournalStorage.DELETE;
+import static revel.storage.JournalStorage.INSERT;
+import static revel.storage.JournalStorage.MARK;
+import static revel.storage.JournalStorage.RECORD_SEPARATOR;
+import static revel.storage.JournalStorage.UNMARK;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import revel.RevelException;
+import revel.task.Task;
+import revel.task.TaskList;
+
+/**
+ * Storage that several Revel processes can use on the same data directory at the same time.
+ * <p>
+ * Changes are appended to a journal in the same format as {@link JournalStorage}, but the files are
+ * only ever read or written while holding a {@link FileChannel#lock() file lock} on a small version
+ * file next to the task file. Its header holds the number of changes committed so far (the version)
+ * and the version at which the task file was last rewritten. A process that finds a newer version
+ * than its own replays only the journal records it has not seen yet. If it has a change of its own
+ * to commit, the task number in that change is first adjusted for the other processes' records, so
+ * neither side's change is lost. Only when another process has rewritten the task file with new
+ * contents are the tasks reloaded in full.
+ * </p>
+ * <p>
+ * Saving the whole list also merges first: the storage remembers the ID and status of every task as
+ * last read or written, so it can tell which tasks other processes added, deleted, marked or unmarked
+ * since then, and which changes are this process's own. This reads every task once on loading.
+ * </p>
+ * <p>
+ * After the header, the version file holds the next free task ID, so that processes adding tasks at
+ * the same time reserve different IDs (see {@link #getIdSource()}).
+ * </p>
+ */
+public class SharedStorage extends Storage {
+    private static final String VERSION_SUFFIX = ".version";
+    private static final int HEADER_MAGIC = 0x52564C56; // "RVLV"
+    private static final int HEADER_SIZE = 24;
+    private static final int NEXT_ID_SIZE = 8;
+
+    private final Path journalPath;
+    private final Path versionPath;
+    private final long compactThreshold;
+    private long knownVersion;
+    private long knownSnapshotVersion;
+    private long journalOffset;
+    private List<StoredTask> storedTasks = new ArrayList<>();
+
+    /**
+     * Creates a shared storage whose task file is written in the given format.
+     *
+     * @param filePath Path of the task file.
+     * @param format Format of the task file.
+     * @param compactThreshold Journal size in bytes after which it is folded into the task file.
+     */
+    public SharedStorage(Path filePath, StorageFormat format, long compactThreshold) {
+        super(filePath, format);
+        assert compactThreshold > 0 : "compactThreshold must be positive";
+
+        this.journalPath = filePath.resolveSibling(filePath.getFileName() + JournalStorage.JOURNAL_SUFFIX);
+        this.versionPath = filePath.resolveSibling(filePath.getFileName() + VERSION_SUFFIX);
+        this.compactThreshold = compactThreshold;
+    }
+
+    /**
+     * Returns the version of the stored tasks that this storage last read or wrote.
+     *
+     * @return Number of changes committed up to that point.
+     */
+    public long getKnownVersion() {
+        return knownVersion;
+    }
+
+    @Override
+    public List<Task> load() throws RevelException {
+        return locked(lock -> {
+            List<Task> tasks = super.load();
+            JournalDelta delta = readJournal(0);
+            for (Change change : delta.changes()) {
+                apply(tasks, change);
+            }
+            Header header = readHeader(lock);
+            if (header == null) {
+                header = new Header(delta.changes().size(), 0);
+                writeHeader(lock, header);
+            }
+            remember(header, delta.endOffset());
+            rememberTasks(tasks);
+            return tasks;
+        });
+    }
+
+    /**
+     * Salvages the task file, replays the journal up to its first unreadable record and writes the result back.
+     *
+     * @return Recovered tasks and record counts.
+     * @throws RevelException If the files cannot be read or written.
+     */
+    @Override
+    public SalvageResult salvage() throws RevelException {
+        return locked(lock -> {
+            SalvageResult snapshot = salvageTaskFile();
+            List<Task> tasks = snapshot.tasks();
+            List<String> records = readJournalRecords();
+            int replayed = 0;
+            try {
+                for (String record : records) {
+                    apply(tasks, Change.parse(record));
+                    replayed++;
+                }
+            } catch (RevelException e) {
+                TaskFileSalvager.quarantine(quarantinePath, records.subList(replayed, records.size()));
+            }
+            Header header = readHeader(lock);
+            long version = header == null ? records.size() + 1 : header.version() + 1;
+            writeSnapshot(lock, tasks, new Header(version, version));
+            int quarantinedCount = snapshot.quarantinedCount() + records.size() - replayed;
+            return new SalvageResult(tasks, snapshot.recoveredCount() + replayed, quarantinedCount, quarantinePath);
+        });
+    }
+
+    /**
+     * Rewrites the task file with the given tasks and clears the journal.
+     * <p>
+     * If other processes changed the stored tasks since this storage last synchronised, their changes
+     * are merged into {@code tasks} first: tasks they added are appended, tasks they deleted are
+     * removed, and their status changes are applied to tasks whose status was not changed here too.
+     * </p>
+     *
+     * @param tasks Task list to persist.
+     * @throws RevelException If the tasks cannot be saved.
+     */
+    @Override
+    public void save(TaskList tasks) throws RevelException {
+        assert tasks != null : "tasks cannot be null";
+        locked(lock -> {
+            Header header = readHeader(lock);
+            if (header != null && (header.version() != knownVersion
+                    || header.snapshotVersion() != knownSnapshotVersion)) {
+                List<StoredTask> remoteTasks = readStoredTasks(header);
+                tasks.replaceTasks(0, tasks.getSize(), merge(tasks.getTaskList(), storedTasks, remoteTasks));
+            }
+            long version = (header == null ? knownVersion : header.version()) + 1;
+            writeSnapshot(lock, tasks.getTaskList(), new Header(version, version));
+            return null;
+        });
+    }
+
+    @Override
+    public void saveTaskAdded(TaskList tasks, Task task) throws RevelException {
+        commit(tasks, new Change(ADD, -1, task.toFileString()));
+    }
+
+    @Override
+    public void saveTaskInserted(TaskList tasks, int index) throws RevelException {
+        commit(tasks, new Change(INSERT, index, tasks.get(index).toFileString()));
+    }
+
+    @Override
+    public void saveTaskMarked(TaskList tasks, int index) throws RevelException {
+        commit(tasks, new Change(MARK, index, null));
+    }
+
+    @Override
+    public void saveTaskUnmarked(TaskList tasks, int index) throws RevelException {
+        commit(tasks, new Change(UNMARK, index, null));
+    }
+
+    @Override
+    public void saveTaskDeleted(TaskList tasks, int index) throws RevelException {
+        commit(tasks, new Change(DELETE, index, null));
+    }
+
+    @Override
+    public int reloadExternalChanges(TaskList tasks) throws RevelException {
+        return locked(lock -> catchUp(tasks, readHeader(lock)));
+    }
+
+    /**
+     * Returns a source of task IDs that are reserved in the version file.
+     * <p>
+     * If the version file cannot be accessed, IDs are given out by the task list alone; the save that
+     * follows reports the problem.
+     * </p>
+     *
+     * @return Source of task IDs shared by all processes using these files.
+     */
+    @Override
+    public TaskList.IdSource getIdSource() {
+        return (minimum, count) -> {
+            try {
+                return locked(lock -> {
+                    if (readHeader(lock) == null) {
+                        writeHeader(lock, new Header(knownVersion, knownSnapshotVersion));
+                    }
+                    long first = Math.max(minimum, readNextId(lock));
+                    writeNextId(lock, first + count);
+                    return first;
+                });
+            } catch (RevelException e) {
+                return minimum;
+            }
+        };
+    }
+
+    private <T> T locked(FileLocks.LockedAction<T> action) throws RevelException {
+        try {
+            return FileLocks.withLock(versionPath, lock -> {
+                // A process that crashed while replacing the task file may have left it half done.
+                JournalStorage.recoverSnapshotSwap(filePath, journalPath);
+                return action.run(lock);
+            });
+        } catch (IOException e) {
+            throw new RevelException("Unable to access the shared task files: " + filePath);
+        }
+    }
+
+    /**
+     * Applies the changes other processes committed since this storage last synchronised.
+     *
+     * @return Number of changes applied, or the task count after a full reload.
+     */
+    private int catchUp(TaskList tasks, Header header) throws IOException, RevelException {
+        if (header == null || (header.version() == knownVersion && header.snapshotVersion() == knownSnapshotVersion)) {
+            return 0;
+        }
+        if (header.snapshotVersion() != knownSnapshotVersion) {
+            if (header.version() == knownVersion) {
+                // The journal was only folded into the task file; the tasks themselves are unchanged.
+                remember(header, 0);
+                return 0;
+            }
+            return reloadAll(tasks, header);
+        }
+
+        JournalDelta delta = readJournal(journalOffset);
+        if (delta.changes().size() != header.version() - knownVersion) {
+            return reloadAll(tasks, header);
+        }
+        for (Change change : delta.changes()) {
+            apply(tasks.getTaskList(), change);
+            applyStored(storedTasks, change);
+        }
+        tasks.refreshIndexes();
+        remember(header, delta.endOffset());
+        return delta.changes().size();
+    }
+
+    private int reloadAll(TaskList tasks, Header header) throws IOException, RevelException {
+        List<Task> reloaded = super.load();
+        JournalDelta delta = readJournal(0);
+        for (Change change : delta.changes()) {
+            apply(reloaded, change);
+        }
+        tasks.replaceTasks(0, tasks.getSize(), reloaded);
+        remember(header, delta.endOffset());
+        rememberTasks(reloaded);
+        return reloaded.size();
+    }
+
+    /**
+     * Appends a change that was already applied to {@code tasks}, merging in any newer changes first.
+     */
+    private void commit(TaskList tasks, Change change) throws RevelException {
+        locked(lock -> {
+            Header header = readHeader(lock);
+            Change pending = change;
+            if (header != null && (header.version() != knownVersion
+                    || header.snapshotVersion() != knownSnapshotVersion)) {
+                JournalDelta delta = header.snapshotVersion() == knownSnapshotVersion
+                        ? readJournal(journalOffset)
+                        : null;
+                if (delta == null || delta.changes().size() != header.version() - knownVersion) {
+                    reloadAll(tasks, header);
+                    throw new RevelException("Another Revel process rewrote the task file, so your last change "
+                            + "could not be merged. Your tasks have been reloaded.");
+                }
+                pending = rebase(tasks.getTaskList(), change, delta.changes());
+                tasks.refreshIndexes();
+                remember(header, delta.endOffset());
+                for (Change remote : delta.changes()) {
+                    applyStored(storedTasks, remote);
+                }
+            }
+
+            long version = header == null ? knownVersion : header.version();
+            long snapshotVersion = header == null ? knownSnapshotVersion : header.snapshotVersion();
+            if (pending != null) {
+                StringBuilder line = new StringBuilder(pending.format());
+                RecordChecksum.append(line);
+                Files.writeString(journalPath, line.append('\n'), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.APPEND);
+                applyStored(storedTasks, pending);
+                version++;
+            }
+            long journalSize = Files.exists(journalPath) ? Files.size(journalPath) : 0;
+            if (journalSize >= compactThreshold) {
+                writeSnapshot(lock, tasks.getTaskList(), new Header(version, version));
+            } else {
+                Header updated = new Header(version, snapshotVersion);
+                writeHeader(lock, updated);
+                remember(updated, journalSize);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Applies {@code remoteChanges} to a list that already contains {@code local}, as if {@code local} came last.
+     *
+     * @return The local change adjusted to follow the remote changes, or null if it no longer applies.
+     */
+    private static Change rebase(List<Task> tasks, Change local, List<Change> remoteChanges) throws RevelException {
+        Change pending = local;
+        for (Change remote : remoteChanges) {
+            if (remote.type().equals(ADD)) {
+                // A task added locally stays last, as it will be once its record follows these ones.
+                boolean isLocalAdd = pending != null && pending.type().equals(ADD);
+                tasks.add(isLocalAdd ? tasks.size() - 1 : tasks.size(), Task.fromFileString(remote.payload()));
+                continue;
+            }
+
+            int index = remote.index();
+            boolean isRemoteInsert = remote.type().equals(INSERT);
+            boolean isRemoteDelete = remote.type().equals(DELETE);
+            if (pending != null && pending.type().equals(DELETE)) {
+                if (index == pending.index() && !isRemoteInsert) {
+                    // The task was deleted locally, so the remote change to it has nothing to apply to.
+                    if (isRemoteDelete) {
+                        pending = null;
+                    }
+                    continue;
+                }
+                if (index > pending.index()) {
+                    index--;
+                } else if (isRemoteDelete) {
+                    pending = pending.withIndex(pending.index() - 1);
+                } else if (isRemoteInsert) {
+                    pending = pending.withIndex(pending.index() + 1);
+                }
+            } else if (pending != null && pending.type().equals(INSERT)) {
+                // A task inserted locally goes after one inserted remotely at the same place.
+                if (index > pending.index() || (index == pending.index() && !isRemoteInsert)) {
+                    index++;
+                } else if (isRemoteDelete) {
+                    pending = pending.withIndex(pending.index() - 1);
+                } else if (isRemoteInsert) {
+                    pending = pending.withIndex(pending.index() + 1);
+                }
+            } else if (pending != null && !pending.type().equals(ADD)) {
+                if (isRemoteDelete && index == pending.index()) {
+                    pending = null;
+                } else if (isRemoteDelete && index < pending.index()) {
+                    pending = pending.withIndex(pending.index() - 1);
+                } else if (isRemoteInsert && index <= pending.index()) {
+                    pending = pending.withIndex(pending.index() + 1);
+                }
+            }
+            applyAt(tasks, remote, index);
+        }
+
+        if (pending != null && (pending.type().equals(MARK) || pending.type().equals(UNMARK))) {
+            // The local change is committed after the remote ones, so it wins on the same task.
+            applyAt(tasks, pending, pending.index());
+        }
+        return pending;
+    }
+
+    private static void apply(List<Task> tasks, Change change) throws RevelException {
+        if (change.type().equals(ADD)) {
+            tasks.add(Task.fromFileString(change.payload()));
+        } else {
+            applyAt(tasks, change, change.index());
+        }
+    }
+
+    private static void applyAt(List<Task> tasks, Change change, int index) throws RevelException {
+        int bound = change.type().equals(INSERT) ? tasks.size() + 1 : tasks.size();
+        if (index < 0 || index >= bound) {
+            throw new RevelException("Invalid/Corrupt journal record: " + change.format());
+        }
+        switch (change.type()) {
+        case MARK, UNMARK -> {
+            // Replace rather than change the task, since earlier versions of the list may share it.
+            Task changed = tasks.get(index).copy();
+            if (change.type().equals(MARK)) {
+                changed.markAsDone();
+            } else {
+                changed.markAsUndone();
+            }
+            tasks.set(index, changed);
+        }
+        case DELETE -> tasks.remove(index);
+        case INSERT -> tasks.add(index, Task.fromFileString(change.payload()));
+        default -> throw new RevelException("Invalid/Corrupt journal record: " + change.format());
+        }
+    }
+
+    /**
+     * Applies a journal record to the remembered IDs and statuses of the stored tasks.
+     */
+    private static void applyStored(List<StoredTask> tasks, Change change) throws RevelException {
+        if (change.type().equals(ADD)) {
+            tasks.add(StoredTask.of(Task.fromFileString(change.payload())));
+            return;
+        }
+        int index = change.index();
+        int bound = change.type().equals(INSERT) ? tasks.size() + 1 : tasks.size();
+        if (index < 0 || index >= bound) {
+            throw new RevelException("Invalid/Corrupt journal record: " + change.format());
+        }
+        switch (change.type()) {
+        case MARK, UNMARK -> tasks.set(index, new StoredTask(tasks.get(index).task(), change.type().equals(MARK)));
+        case DELETE -> tasks.remove(index);
+        case INSERT -> tasks.add(index, StoredTask.of(Task.fromFileString(change.payload())));
+        default -> throw new RevelException("Invalid/Corrupt journal record: " + change.format());
+        }
+    }
+
+    /**
+     * Returns the IDs and statuses of the tasks as stored at {@code header}.
+     */
+    private List<StoredTask> readStoredTasks(Header header) throws IOException, RevelException {
+        if (header.snapshotVersion() == knownSnapshotVersion) {
+            JournalDelta delta = readJournal(journalOffset);
+            if (delta.changes().size() == header.version() - knownVersion) {
+                List<StoredTask> tasks = new ArrayList<>(storedTasks);
+                for (Change change : delta.changes()) {
+                    applyStored(tasks, change);
+                }
+                return tasks;
+            }
+        }
+        List<Task> reloaded = super.load();
+        for (Change change : readJournal(0).changes()) {
+            apply(reloaded, change);
+        }
+        List<StoredTask> tasks = new ArrayList<>(reloaded.size());
+        for (Task task : reloaded) {
+            tasks.add(StoredTask.of(task));
+        }
+        return tasks;
+    }
+
+    /**
+     * Merges the changes other processes made between {@code base} and {@code remote} into {@code local}.
+     * <p>
+     * Tasks are matched by ID. A task deleted remotely is dropped, a task added remotely is appended,
+     * and a remote status change is applied unless the local task's status was changed as well.
+     * Tasks without an ID cannot be matched and are kept as they are locally.
+     * </p>
+     */
+    private static List<Task> merge(List<Task> local, List<StoredTask> base, List<StoredTask> remote) {
+        Map<Long, StoredTask> baseById = byId(base);
+        Map<Long, StoredTask> remoteById = byId(remote);
+        Set<Long> localIds = new HashSet<>();
+        List<Task> merged = new ArrayList<>(local.size());
+        for (Task task : local) {
+            localIds.add(task.getId());
+            StoredTask before = task.getId() == 0 ? null : baseById.get(task.getId());
+            if (before == null) {
+                merged.add(task);
+                continue;
+            }
+            StoredTask after = remoteById.get(task.getId());
+            if (after == null) {
+                continue;
+            }
+            if (after.isDone() != before.isDone() && task.isDone() == before.isDone()) {
+                Task changed = task.copy();
+                if (after.isDone()) {
+                    changed.markAsDone();
+                } else {
+                    changed.markAsUndone();
+                }
+                task = changed;
+            }
+            merged.add(task);
+        }
+        for (StoredTask added : remote) {
+            long id = added.task().getId();
+            if (id != 0 && !baseById.containsKey(id) && !localIds.contains(id)) {
+                merged.add(added.task());
+            }
+        }
+        return merged;
+    }
+
+    private static Map<Long, StoredTask> byId(List<StoredTask> tasks) {
+        Map<Long, StoredTask> tasksById = new HashMap<>(tasks.size() * 2);
+        for (StoredTask task : tasks) {
+            if (task.task().getId() != 0) {
+                tasksById.put(task.task().getId(), task);
+            }
+        }
+        return tasksById;
+    }
+
+    private void rememberTasks(List<Task> tasks) {
+        List<StoredTask> remembered = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            remembered.add(StoredTask.of(task));
+        }
+        storedTasks = remembered;
+    }
+
+    private void writeSnapshot(FileChannel lock, List<Task> tasks, Header header) throws IOException {
+        Files.createDirectories(filePath.toAbsolutePath().getParent());
+        writeTasks(JournalStorage.tempPath(filePath), tasks);
+        JournalStorage.swapSnapshot(filePath, journalPath);
+        writeHeader(lock, header);
+        remember(header, 0);
+        rememberTasks(tasks);
+    }
+
+    private void remember(Header header, long offset) {
+        knownVersion = header.version();
+        knownSnapshotVersion = header.snapshotVersion();
+        journalOffset = offset;
+    }
+
+    /**
+     * Returns the complete journal records from byte {@code offset} on, and the offset after the last of them.
+     */
+    private JournalDelta readJournal(long offset) throws IOException, RevelException {
+        if (Files.notExists(journalPath)) {
+            return new JournalDelta(List.of(), 0);
+        }
+        byte[] data;
+        try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+            long length = Math.max(0, channel.size() - offset);
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(Integer.MAX_VALUE - 8, length));
+            while (buffer.hasRemaining() && channel.read(buffer, offset + buffer.position()) > 0) {
+                assert buffer.position() <= length : "read past the end of the journal";
+            }
+            data = buffer.array();
+        }
+        // A record without its trailing newline is still being written or was cut off, so it is left for later.
+        int end = data.length;
+        while (end > 0 && data[end - 1] != '\n') {
+            end--;
+        }
+        List<Change> changes = new ArrayList<>();
+        for (String record : new String(data, 0, end, StandardCharsets.UTF_8).split("\n")) {
+            if (!record.isBlank()) {
+                changes.add(Change.parse(record.strip()));
+            }
+        }
+        return new JournalDelta(changes, offset + end);
+    }
+
+    private List<String> readJournalRecords() throws IOException {
+        if (Files.notExists(journalPath)) {
+            return List.of();
+        }
+        String journal = Files.readString(journalPath, StandardCharsets.UTF_8);
+        List<String> records = new ArrayList<>();
+        for (String record : journal.substring(0, journal.lastIndexOf('\n') + 1).split("\n")) {
+            if (!record.isBlank()) {
+                records.add(record.strip());
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Reads the header of the version file, or returns null if it has not been written yet.
+     */
+    private static Header readHeader(FileChannel lock) throws IOException, RevelException {
+        if (lock.size() < HEADER_SIZE) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+        while (buffer.hasRemaining()) {
+            if (lock.read(buffer, buffer.position()) < 0) {
+                throw new RevelException("Invalid/Corrupt data! Truncated version file.");
+            }
+        }
+        buffer.flip();
+        if (buffer.getInt() != HEADER_MAGIC) {
+            throw new RevelException("Invalid/Corrupt data! Unknown version file format.");
+        }
+        buffer.getInt();
+        return new Header(buffer.getLong(), buffer.getLong());
+    }
+
+    private static void writeHeader(FileChannel lock, Header header) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE)
+                .putInt(HEADER_MAGIC)
+                .putInt(0)
+                .putLong(header.version())
+                .putLong(header.snapshotVersion())
+                .flip();
+        while (buffer.hasRemaining()) {
+            lock.write(buffer, buffer.position());
+        }
+    }
+
+    /**
+     * Reads the next free task ID, or returns 0 if no ID has been reserved yet.
+     */
+    private static long readNextId(FileChannel lock) throws IOException {
+        if (lock.size() < HEADER_SIZE + NEXT_ID_SIZE) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(NEXT_ID_SIZE);
+        while (buffer.hasRemaining() && lock.read(buffer, HEADER_SIZE + buffer.position()) >= 0) {
+            assert buffer.position() <= NEXT_ID_SIZE : "read past the next ID";
+        }
+        return buffer.flip().getLong();
+    }
+
+    private static void writeNextId(FileChannel lock, long nextId) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(NEXT_ID_SIZE).putLong(nextId).flip();
+        while (buffer.hasRemaining()) {
+            lock.write(buffer, HEADER_SIZE + buffer.position());
+        }
+    }
+
+    /**
+     * Version file header: the number of committed changes and the version the task file was written at.
+     */
+    private record Header(long version, long snapshotVersion) {}
+
+    /**
+     * Journal records read from some offset, with the offset just after the last complete record.
+     */
+    private record JournalDelta(List<Change> changes, long endOffset) {}
+
+    /**
+     * A stored task with its status as stored, which the task itself may no longer have.
+     */
+    private record StoredTask(Task task, boolean isDone) {
+        static StoredTask of(Task task) {
+            return new StoredTask(task, task.isDone());
+        }
+    }
+
+    /**
+     * One journal record: an added task's file string, the index of a marked, unmarked or deleted
+     * task, or both for an inserted task.
+     */
+    private record Change(String type, int index, String payload) {
+        static Change parse(String checksummedRecord) throws RevelException {
+            String record = RecordChecksum.verify(checksummedRecord);
+            int separator = record.indexOf(RECORD_SEPARATOR);
+            if (separator < 0) {
+                throw new RevelException("Invalid/Corrupt journal record: " + record);
+            }
+            String type = record.substring(0, separator);
+            String payload = record.substring(separator + RECORD_SEPARATOR.length());
+            if (type.equals(ADD)) {
+                return new Change(type, -1, payload);
+            }
+            String taskRecord = null;
+            if (type.equals(INSERT)) {
+                int indexEnd = payload.indexOf(RECORD_SEPARATOR);
+                if (indexEnd < 0) {
+                    throw new RevelException("Invalid/Corrupt journal record: " + record);
+                }
+                taskRecord = payload.substring(indexEnd + RECORD_SEPARATOR.length());
+                payload = payload.substring(0, indexEnd);
+            }
+            try {
+                return new Change(type, Integer.parseInt(payload), taskRecord);
+            } catch (NumberFormatException e) {
+                throw new RevelException("Invalid/Corrupt journal record: " + record);
+            }
+        }
+
+        Change withIndex(int newIndex) {
+            return new Change(type, newIndex, payload);
+        }
+
+        String format() {
+            if (type.equals(ADD)) {
+                return type + RECORD_SEPARATOR + payload;
+            }
+            String record = type + RECORD_SEPARATOR + index;
+            return type.equals(INSERT) ? record + RECORD_SEPARATOR + payload : record;
+        }
+    }
+}
@@ -1,9 +1,14 @@
 package revel.storage;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
@@ -13,35 +18,106 @@ import revel.task.Task;
 import revel.task.TaskList;
 
 /**
- * Manages loading and saving tasks to disk.
+ * Manages loading and saving tasks to a task file on disk.
+ * <p>
+ * Tasks are written in the configured {@link StorageFormat}. When loading, the format is
+ * detected from the file header, so a storage can read files written in either format.
+ * </p>
+ * <p>
+ * This class rewrites the whole file for every {@code saveTask*} hook; subclasses such as
+ * {@link JournalStorage} override them to persist only the change.
+ * </p>
+ * <p>
+ * The next free task ID is kept in a small file next to the task file, so that the IDs of deleted
+ * tasks are not given out again after a restart (see {@link #getIdSource()}).
+ * </p>
  */
-public class Storage {
-    private final Path filePath;
+public class Storage implements StorageBackend {
+    private static final String QUARANTINE_SUFFIX = ".corrupt";
+    private static final String NEXT_ID_SUFFIX = ".nextid";
+
+    protected final Path filePath;
+    protected final StorageFormat format;
+    protected final Path quarantinePath;
+    private final Path nextIdPath;
+    private LoadMode loadMode = LoadMode.EAGER;
+    private long parallelThreshold = ParallelTaskLoader.DEFAULT_THRESHOLD;
 
     public Storage(Path filePath) {
+        this(filePath, StorageFormat.TEXT);
+    }
+
+    /**
+     * Creates a storage that writes tasks in the given format.
+     *
+     * @param filePath Path of the task file.
+     * @param format Format used when saving.
+     */
+    public Storage(Path filePath, StorageFormat format) {
         this.filePath = filePath;
+        this.format = format;
+        this.quarantinePath = filePath.resolveSibling(filePath.getFileName() + QUARANTINE_SUFFIX);
+        this.nextIdPath = filePath.resolveSibling(filePath.getFileName() + NEXT_ID_SUFFIX);
+    }
+
+    /**
+     * Sets how the task file is read by {@link #load()}.
+     *
+     * @param loadMode Load strategy to use.
+     */
+    public void setLoadMode(LoadMode loadMode) {
+        this.loadMode = loadMode;
+    }
+
+    /**
+     * Sets the file size (in bytes) from which {@link LoadMode#PARALLEL} parses the file in parallel.
+     *
+     * @param parallelThreshold Minimum file size for parallel loading.
+     */
+    public void setParallelThreshold(long parallelThreshold) {
+        assert parallelThreshold >= 0 : "parallelThreshold cannot be negative";
+        this.parallelThreshold = parallelThreshold;
     }
 
     /**
      * Loads tasks from the configured storage file.
+     * <p>
+     * In {@link LoadMode#MAPPED} mode, the returned list is backed by the mapped file and only
+     * builds tasks as they are accessed.
+     * </p>
      *
-     * @return List of tasks (empty if file does not exist).
+     * @return Modifiable list of tasks (empty if file does not exist).
      * @throws RevelException If the file cannot be read.
      */
+    @Override
     public List<Task> load() throws RevelException {
         try {
             if (Files.notExists(filePath)) {
                 return new ArrayList<>();
             }
 
-            List<String> lines = Files.readAllLines(filePath, StandardCharsets.UTF_8);
+            if (PagedTaskFile.isPagedFile(filePath)) {
+                return new PagedTaskFile(filePath, PagedTaskFile.DEFAULT_SLOT_SIZE).load(null);
+            }
+            long size = Files.size(filePath);
+            if (loadMode == LoadMode.MAPPED && size <= Integer.MAX_VALUE) {
+                return MappedTaskList.map(filePath);
+            }
+            if (loadMode == LoadMode.PARALLEL && size >= parallelThreshold && size <= Integer.MAX_VALUE) {
+                return ParallelTaskLoader.load(filePath);
+            }
+
+            byte[] data = Files.readAllBytes(filePath);
+            if (BinaryTaskCodec.hasHeader(data)) {
+                return BinaryTaskCodec.decode(ByteBuffer.wrap(data));
+            }
 
-            List<Task> tasks = new ArrayList<>();
+            List<String> lines = new String(data, StandardCharsets.UTF_8).lines().filter(line -> !line.isBlank())
+                    .toList();
+            boolean isChecksumRequired = RecordChecksum.isRequired(lines);
+            List<Task> tasks = new ArrayList<>(lines.size());
             for (String line : lines) {
-                if (line.isBlank()) {
-                    continue;
-                }
-                tasks.add(Task.fromFileString(line));
+                tasks.add(RecordChecksum.decodeTask(line, isChecksumRequired));
             }
             return tasks;
         } catch (IOException e) {
@@ -49,29 +125,139 @@ public class Storage {
         }
     }
 
+    /**
+     * Loads every readable task from a storage file that {@link #load()} rejected.
+     * <p>
+     * Records that fail their checksum or cannot be decoded are appended to the quarantine file
+     * next to the task file instead of being dropped. If anything was quarantined, the task file
+     * is then rewritten with only the recovered tasks, so the same records are not quarantined again.
+     * </p>
+     *
+     * @return Recovered tasks and record counts.
+     * @throws RevelException If the file cannot be read or the quarantine file cannot be written.
+     */
+    @Override
+    public SalvageResult salvage() throws RevelException {
+        SalvageResult result = salvageTaskFile();
+        if (result.quarantinedCount() > 0) {
+            save(TaskList.backedBy(result.tasks()));
+        }
+        return result;
+    }
+
+    /**
+     * Scans the task file, quarantining unreadable records, without rewriting it.
+     *
+     * @return Recovered tasks and record counts.
+     * @throws RevelException If the file cannot be read or the quarantine file cannot be written.
+     */
+    protected SalvageResult salvageTaskFile() throws RevelException {
+        try {
+            return TaskFileSalvager.salvage(filePath, quarantinePath);
+        } catch (IOException e) {
+            throw new RevelException("Unable to recover tasks from file: " + filePath);
+        }
+    }
+
+    /**
+     * Returns the file that unreadable records are moved to by {@link #salvage()}.
+     *
+     * @return Quarantine file path.
+     */
+    public Path getQuarantinePath() {
+        return quarantinePath;
+    }
+
     /**
      * Saves tasks to the configured storage file.
      *
      * @param tasks Task list to persist.
      * @throws RevelException If the tasks cannot be saved.
      */
+    @Override
     public void save(TaskList tasks) throws RevelException {
         assert tasks != null : "tasks cannot be null";
         try {
             Files.createDirectories(filePath.getParent());
-
-            List<String> lines = tasks.getTaskList()
-                    .stream()
-                    .map(Task::toFileString)
-                    .toList();
-
-
-            Files.write(filePath, lines, StandardCharsets.UTF_8,
-                    StandardOpenOption.CREATE,
-                    StandardOpenOption.TRUNCATE_EXISTING);
+            writeTasks(filePath, tasks.getTaskList());
         } catch (IOException e) {
             throw new RevelException("Unable to save tasks to disk.");
         }
     }
 
+    /**
+     * Returns a source of task IDs that records the next free ID in a file next to the task file.
+     * <p>
+     * The ID is raised before a new task is saved and never lowered, so a task added after a
+     * restart does not get the ID of a task deleted before it. If the file cannot be read or
+     * written, IDs are given out by the task list alone.
+     * </p>
+     *
+     * @return Source of task IDs kept across restarts.
+     */
+    @Override
+    public TaskList.IdSource getIdSource() {
+        return (minimum, count) -> {
+            try {
+                long first = Math.max(minimum, readNextId());
+                writeNextId(first + count);
+                return first;
+            } catch (IOException e) {
+                return minimum;
+            }
+        };
+    }
+
+    private long readNextId() throws IOException {
+        if (Files.notExists(nextIdPath)) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(Files.readString(nextIdPath, StandardCharsets.UTF_8).strip());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void writeNextId(long nextId) throws IOException {
+        Files.createDirectories(nextIdPath.toAbsolutePath().getParent());
+        Path tempPath = JournalStorage.tempPath(nextIdPath);
+        Files.writeString(tempPath, nextId + "\n", StandardCharsets.UTF_8);
+        Files.move(tempPath, nextIdPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes the given tasks to {@code target} in this storage's format, replacing its contents.
+     *
+     * @param target File to write.
+     * @param tasks Tasks to write.
+     * @throws IOException If the file cannot be written.
+     */
+    protected void writeTasks(Path target, List<Task> tasks) throws IOException {
+        if (tasks instanceof MappedTaskList mappedTasks) {
+            // The mapping may point at the file about to be replaced, so read everything first.
+            mappedTasks.detach();
+        }
+        if (format == StorageFormat.BINARY) {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                            StandardOpenOption.WRITE)))) {
+                BinaryTaskCodec.encode(tasks, out);
+            }
+            return;
+        }
+
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            StringBuilder line = new StringBuilder();
+            for (Task task : tasks) {
+                line.setLength(0);
+                task.appendFileString(line);
+                RecordChecksum.append(line);
+                writer.append(line);
+                writer.newLine();
+            }
+        }
+    }
 }
@@ -0,0 +1,152 @@
+package revel.storage;
+
+import java.util.List;
+
+import revel.RevelException;
+import revel.task.Task;
+import revel.task.TaskList;
+
+/**
+ * Represents a place where the task list is persisted.
+ * <p>
+ * Commands only depend on this interface, so the persistence strategy can be chosen per
+ * deployment (see {@link StorageBackends}). The {@code saveTask*} hooks are called after a single
+ * mutation and by default save the whole list; backends that can persist only the change
+ * override them.
+ * </p>
+ */
+public interface StorageBackend {
+    /**
+     * Loads the stored tasks.
+     *
+     * @return Modifiable list of tasks (empty if nothing is stored yet).
+     * @throws RevelException If the tasks cannot be read.
+     */
+    List<Task> load() throws RevelException;
+
+    /**
+     * Saves the whole task list.
+     *
+     * @param tasks Task list to persist.
+     * @throws RevelException If the tasks cannot be saved.
+     */
+    void save(TaskList tasks) throws RevelException;
+
+    /**
+     * Loads every readable task after {@link #load()} has failed, setting aside what cannot be read.
+     *
+     * @return Recovered tasks and record counts.
+     * @throws RevelException If nothing can be recovered.
+     */
+    SalvageResult salvage() throws RevelException;
+
+    /**
+     * Persists the addition of a task at the end of the list.
+     *
+     * @param tasks Task list after the addition.
+     * @param task Task that was added.
+     * @throws RevelException If the change cannot be saved.
+     */
+    default void saveTaskAdded(TaskList tasks, Task task) throws RevelException {
+        save(tasks);
+    }
+
+    /**
+     * Persists the insertion of a task at a position other than the end of the list.
+     *
+     * @param tasks Task list after the insertion.
+     * @param index Zero-based index of the inserted task.
+     * @throws RevelException If the change cannot be saved.
+     */
+    default void saveTaskInserted(TaskList tasks, int index) throws RevelException {
+        save(tasks);
+    }
+
+    /**
+     * Persists a task being marked as done.
+     *
+     * @param tasks Task list after the change.
+     * @param index Zero-based index of the marked task.
+     * @throws RevelException If the change cannot be saved.
+     */
+    default void saveTaskMarked(TaskList tasks, int index) throws RevelException {
+        save(tasks);
+    }
+
+    /**
+     * Persists a task being marked as not done.
+     *
+     * @param tasks Task list after the change.
+     * @param index Zero-based index of the unmarked task.
+     * @throws RevelException If the change cannot be saved.
+     */
+    default void saveTaskUnmarked(TaskList tasks, int index) throws RevelException {
+        save(tasks);
+    }
+
+    /**
+     * Persists the removal of a task.
+     *
+     * @param tasks Task list after the removal.
+     * @param index Zero-based index the task occupied before removal.
+     * @throws RevelException If the change cannot be saved.
+     */
+    default void saveTaskDeleted(TaskList tasks, int index) throws RevelException {
+        save(tasks);
+    }
+
+    /**
+     * Rewrites the stored data so that it holds only the given tasks, reclaiming any space left by
+     * earlier incremental updates.
+     *
+     * @param tasks Task list to persist.
+     * @throws RevelException If the tasks cannot be saved.
+     */
+    default void compact(TaskList tasks) throws RevelException {
+        save(tasks);
+    }
+
+    /**
+     * Writes any changes that are still pending. Backends that save synchronously do nothing.
+     *
+     * @throws RevelException If the pending changes cannot be saved.
+     */
+    default void flush() throws RevelException {
+    }
+
+    /**
+     * Returns and clears the message of a save that failed in the background, if any.
+     *
+     * @return Error message, or null if no background save has failed.
+     */
+    default String pollDeferredError() {
+        return null;
+    }
+
+    /**
+     * Applies changes that other programs made to the stored tasks since they were last loaded or saved.
+     * <p>
+     * Backends that do not watch their storage never report changes.
+     * </p>
+     *
+     * @param tasks Task list to update.
+     * @return Number of tasks that changed.
+     * @throws RevelException If the changed tasks cannot be read.
+     */
+    default int reloadExternalChanges(TaskList tasks) throws RevelException {
+        return 0;
+    }
+
+    /**
+     * Returns where a task list loaded from this backend should reserve IDs for new tasks.
+     * <p>
+     * Only backends that several programs write at the same time need one; the others return null,
+     * so that lists give out IDs on their own.
+     * </p>
+     *
+     * @return Source of task IDs, or null.
+     */
+    default TaskList.IdSource getIdSource() {
+        return null;
+    }
+}
@@ -0,0 +1,99 @@
+package revel.storage;
+
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Creates the storage backend selected by configuration properties.
+ * <p>
+ * {@code revel.storage} picks the backend: {@code text} (the default) or {@code binary} for a
+ * plain {@link Storage}, {@code journal} for {@link JournalStorage}, {@code paged} for
+ * {@link PagedStorage}, {@code memory} for {@link InMemoryStorage}, {@code shared} for
+ * {@link SharedStorage} (for several processes using the same files), and {@code async} for a plain
+ * {@link Storage} written through an {@link AsyncStorage} (with its write window taken from
+ * {@code revel.storage.window}, in milliseconds). File-based backends write the format named by
+ * {@code revel.storage.format} ({@code text} by default, or {@code binary}).
+ * {@code revel.storage.load=mapped} makes tasks load lazily from a memory-mapped file, while
+ * {@code revel.storage.load=parallel} parses files of at least {@code revel.storage.parallelThreshold}
+ * bytes in parallel. {@code revel.storage.watch=true} makes the {@code text} and {@code binary}
+ * backends reload changes other programs make to the task file (see {@link WatchedStorage}).
+ * </p>
+ */
+public final class StorageBackends {
+    /** Property that selects the backend. */
+    public static final String MODE_PROPERTY = "revel.storage";
+    /** Property that selects the file format of file-based backends. */
+    public static final String FORMAT_PROPERTY = "revel.storage.format";
+    /** Property that selects how the task file is read. */
+    public static final String LOAD_PROPERTY = "revel.storage.load";
+    /** Property that sets the write window of the asynchronous backend, in milliseconds. */
+    public static final String WINDOW_PROPERTY = "revel.storage.window";
+    /** Property that sets the file size from which parallel loading is used, in bytes. */
+    public static final String PARALLEL_THRESHOLD_PROPERTY = "revel.storage.parallelThreshold";
+    /** Property that enables reloading the task file when other programs change it. */
+    public static final String WATCH_PROPERTY = "revel.storage.watch";
+
+    private StorageBackends() {
+    }
+
+    /**
+     * Creates the backend described by {@code properties} for the task file at {@code tasksPath}.
+     *
+     * @param tasksPath Path of the task file used by file-based backends.
+     * @param properties Configuration, usually the system properties.
+     * @return Configured storage backend.
+     */
+    public static StorageBackend create(Path tasksPath, Properties properties) {
+        String mode = properties.getProperty(MODE_PROPERTY, "").trim().toLowerCase();
+        StorageFormat format = mode.equals("binary")
+                || properties.getProperty(FORMAT_PROPERTY, "").trim().equalsIgnoreCase("binary")
+                ? StorageFormat.BINARY
+                : StorageFormat.TEXT;
+
+        switch (mode) {
+        case "memory":
+            return new InMemoryStorage();
+        case "paged":
+            return new PagedStorage(tasksPath);
+        case "journal":
+            return configure(new JournalStorage(tasksPath, format, JournalStorage.DEFAULT_COMPACT_THRESHOLD),
+                    properties);
+        case "shared":
+            return configure(new SharedStorage(tasksPath, format, JournalStorage.DEFAULT_COMPACT_THRESHOLD),
+                    properties);
+        case "async":
+            long window = parseLong(properties.getProperty(WINDOW_PROPERTY), AsyncStorage.DEFAULT_WINDOW_MILLIS);
+            return new AsyncStorage(configure(new Storage(tasksPath, format), properties), Math.max(0, window));
+        default:
+            Storage storage = configure(new Storage(tasksPath, format), properties);
+            return Boolean.parseBoolean(properties.getProperty(WATCH_PROPERTY, "").trim())
+                    ? new WatchedStorage(storage)
+                    : storage;
+        }
+    }
+
+    private static Storage configure(Storage storage, Properties properties) {
+        LoadMode loadMode = switch (properties.getProperty(LOAD_PROPERTY, "").trim().toLowerCase()) {
+        case "mapped" -> LoadMode.MAPPED;
+        case "parallel" -> LoadMode.PARALLEL;
+        default -> LoadMode.EAGER;
+        };
+        storage.setLoadMode(loadMode);
+        String parallelThreshold = properties.getProperty(PARALLEL_THRESHOLD_PROPERTY);
+        if (parallelThreshold != null) {
+            storage.setParallelThreshold(Math.max(0, parseLong(parallelThreshold, 0)));
+        }
+        return storage;
+    }
+
+    private static long parseLong(String value, long defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
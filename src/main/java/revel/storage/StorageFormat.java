@@ -0,0 +1,11 @@
+package revel.storage;
+
+/**
+ * Represents the on-disk formats supported for the task file.
+ */
+public enum StorageFormat {
+    /** One human-readable {@code Task#toFileString()} line per task. */
+    TEXT,
+    /** Compact binary records, see {@link BinaryTaskCodec}. */
+    BINARY
+}
@@ -0,0 +1,269 @@
+package revel.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import revel.RevelException;
+import revel.task.Task;
+import revel.task.TaskList;
+
+/**
+ * Cold storage tier that holds completed tasks outside the main task file.
+ * <p>
+ * Archived tasks are stored as checksummed text records in a GZIP file next to the task file.
+ * Each archiving run appends one more GZIP member, so the existing archive is never rewritten.
+ * A small {@link TrigramBloomFilter} of the archived descriptions is kept in a separate
+ * uncompressed file, together with the archive length it covers, so keyword searches that cannot
+ * match skip the archive without decompressing it. The archive itself is only read when archived
+ * tasks are explicitly requested.
+ * </p>
+ */
+public class TaskArchive {
+    /** System property with the number of completed tasks that triggers automatic archiving. */
+    public static final String THRESHOLD_PROPERTY = "revel.archive.threshold";
+
+    private static final String ARCHIVE_SUFFIX = ".archive.gz";
+    private static final String FILTER_SUFFIX = ".archive.bloom";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path archivePath;
+    private final Path filterPath;
+    private final int autoThreshold;
+    private TrigramBloomFilter filter;
+
+    /**
+     * Creates the archive that belongs to the given task file, without automatic archiving.
+     *
+     * @param tasksPath Path of the main task file.
+     */
+    public TaskArchive(Path tasksPath) {
+        this(tasksPath, 0);
+    }
+
+    /**
+     * Creates the archive that belongs to the given task file.
+     *
+     * @param tasksPath Path of the main task file.
+     * @param autoThreshold Number of completed tasks at which {@link #applyPolicy} archives them,
+     *     or 0 to archive only on request.
+     */
+    public TaskArchive(Path tasksPath, int autoThreshold) {
+        assert autoThreshold >= 0 : "threshold must not be negative";
+        this.autoThreshold = autoThreshold;
+        this.archivePath = tasksPath.resolveSibling(tasksPath.getFileName() + ARCHIVE_SUFFIX);
+        this.filterPath = tasksPath.resolveSibling(tasksPath.getFileName() + FILTER_SUFFIX);
+    }
+
+    /**
+     * Returns the path of the compressed archive file.
+     *
+     * @return Archive path.
+     */
+    public Path getArchivePath() {
+        return archivePath;
+    }
+
+    /**
+     * Moves every completed task from {@code tasks} into the archive and saves the remaining tasks.
+     * <p>
+     * The archive is written before the task file, so an interruption can at worst leave a task
+     * in both places, never in neither.
+     * </p>
+     *
+     * @param tasks Task list to take completed tasks from.
+     * @param storage Storage that the remaining tasks are saved to.
+     * @return Number of tasks archived.
+     * @throws RevelException If the archive or the task file cannot be written.
+     */
+    public int archiveDone(TaskList tasks, StorageBackend storage) throws RevelException {
+        List<Task> done = new ArrayList<>();
+        for (Task task : tasks.getTaskList()) {
+            if (task.isDone()) {
+                done.add(task);
+            }
+        }
+        if (done.isEmpty()) {
+            return 0;
+        }
+
+        append(done);
+        tasks.removeDoneTasks();
+        tasks.clearHistory(); // undoing would bring back tasks that are now in the archive
+        storage.compact(tasks);
+        return done.size();
+    }
+
+    /**
+     * Archives the completed tasks if there are at least as many as the automatic threshold.
+     *
+     * @param tasks Task list to take completed tasks from.
+     * @param storage Storage that the remaining tasks are saved to.
+     * @return Number of tasks archived, 0 if the threshold was not reached or is not set.
+     * @throws RevelException If the archive or the task file cannot be written.
+     */
+    public int applyPolicy(TaskList tasks, StorageBackend storage) throws RevelException {
+        if (autoThreshold == 0) {
+            return 0;
+        }
+        long doneCount = tasks.getTaskList().stream().filter(Task::isDone).count();
+        return doneCount >= autoThreshold ? archiveDone(tasks, storage) : 0;
+    }
+
+    /**
+     * Appends the given tasks to the archive.
+     *
+     * @param archivedTasks Tasks to archive.
+     * @throws RevelException If the archive cannot be written.
+     */
+    public void append(List<Task> archivedTasks) throws RevelException {
+        try {
+            // Load the filter first so that a rebuild does not see the tasks being appended.
+            TrigramBloomFilter current = getFilter();
+            Files.createDirectories(archivePath.toAbsolutePath().getParent());
+            try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                    Files.newOutputStream(archivePath, StandardOpenOption.CREATE, StandardOpenOption.APPEND)),
+                    StandardCharsets.UTF_8))) {
+                StringBuilder line = new StringBuilder();
+                for (Task task : archivedTasks) {
+                    line.setLength(0);
+                    task.appendFileString(line);
+                    RecordChecksum.append(line);
+                    writer.append(line).append('\n');
+                }
+            }
+
+            for (Task task : archivedTasks) {
+                current.add(task.getDescription());
+            }
+            if (current.isOverfull()) {
+                current = rebuildFilter(current.getTrigramCount() * 2);
+            }
+            writeFilter(current);
+        } catch (IOException e) {
+            throw new RevelException("Unable to write task archive: " + archivePath);
+        }
+    }
+
+    /**
+     * Returns the archived tasks whose descriptions contain {@code keyword} (case-insensitive).
+     * <p>
+     * An empty keyword returns every archived task. If the filter shows that no archived task can
+     * match, the archive file is not read at all.
+     * </p>
+     *
+     * @param keyword Search keyword, or an empty string for all archived tasks.
+     * @return Matching archived tasks in the order they were archived.
+     * @throws RevelException If the archive cannot be read.
+     */
+    public List<Task> search(String keyword) throws RevelException {
+        String key = keyword.trim().toLowerCase();
+        if (Files.notExists(archivePath)) {
+            return new ArrayList<>();
+        }
+        try {
+            if (!key.isEmpty() && !getFilter().mightContain(key)) {
+                return new ArrayList<>();
+            }
+            List<Task> matches = new ArrayList<>();
+            for (Task task : readAll()) {
+                if (task.getDescription().toLowerCase().contains(key)) {
+                    matches.add(task);
+                }
+            }
+            return matches;
+        } catch (IOException e) {
+            throw new RevelException("Unable to read task archive: " + archivePath);
+        }
+    }
+
+    private List<Task> readAll() throws IOException, RevelException {
+        List<String> lines = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archivePath)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    lines.add(line);
+                }
+            }
+        }
+        boolean isChecksumRequired = RecordChecksum.isRequired(lines);
+        List<Task> tasks = new ArrayList<>(lines.size());
+        for (String line : lines) {
+            tasks.add(RecordChecksum.decodeTask(line, isChecksumRequired));
+        }
+        return tasks;
+    }
+
+    private TrigramBloomFilter getFilter() throws IOException {
+        if (filter != null) {
+            return filter;
+        }
+        if (Files.exists(filterPath)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(filterPath)))) {
+                long coveredLength = in.readLong();
+                TrigramBloomFilter stored = TrigramBloomFilter.readFrom(in);
+                // A filter written before the last append finished does not cover every archived task.
+                if (coveredLength == archiveLength()) {
+                    filter = stored;
+                    return filter;
+                }
+            } catch (IOException e) {
+                // A damaged filter is rebuilt from the archive below.
+            }
+        }
+        filter = rebuildFilter(0);
+        return filter;
+    }
+
+    /**
+     * Builds a new filter from every task in the archive, sized for at least {@code expectedTrigrams}.
+     */
+    private TrigramBloomFilter rebuildFilter(int expectedTrigrams) throws IOException {
+        List<Task> archived;
+        try {
+            archived = Files.exists(archivePath) ? readAll() : List.of();
+        } catch (RevelException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        int trigrams = expectedTrigrams;
+        for (Task task : archived) {
+            trigrams += task.getDescription().length();
+        }
+        TrigramBloomFilter rebuilt = new TrigramBloomFilter(trigrams);
+        for (Task task : archived) {
+            rebuilt.add(task.getDescription());
+        }
+        filter = rebuilt;
+        return rebuilt;
+    }
+
+    private long archiveLength() throws IOException {
+        return Files.exists(archivePath) ? Files.size(archivePath) : 0;
+    }
+
+    private void writeFilter(TrigramBloomFilter current) throws IOException {
+        Path tempPath = filterPath.resolveSibling(filterPath.getFileName() + TEMP_SUFFIX);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+            out.writeLong(archiveLength());
+            current.writeTo(out);
+        }
+        Files.move(tempPath, filterPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
@@ -0,0 +1,298 @@
+package revel.storage;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import revel.RevelException;
+import revel.task.Deadline;
+import revel.task.Event;
+import revel.task.Task;
+
+/**
+ * Writes tasks to CSV, JSON Lines and iCalendar files.
+ * <p>
+ * Each task is written to a buffered writer as soon as it is formatted, so the output is never
+ * held in memory as a whole. The columns and members match those {@link TaskImporter} reads, and
+ * dates are written as ISO-8601 local date-times, so an exported file can be imported again.
+ * Completed events are written without a status in iCalendar files, since {@code VEVENT} has no
+ * completed state.
+ * </p>
+ */
+public final class TaskExporter {
+    private static final String CSV_HEADER = "type,description,first,second,done";
+    private static final String ICS_LINE_END = "\r\n";
+    private static final int ICS_MAX_LINE_OCTETS = 75;
+    private static final DateTimeFormatter ICS_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Runs exports one at a time on a worker thread that stops when idle. The thread is not a daemon,
+     * so an export that is still running when the user exits is finished before the program ends.
+     */
+    private static final ExecutorService EXPORTER = new ThreadPoolExecutor(0, 1, 1, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> new Thread(runnable, "revel-export"));
+
+    private TaskExporter() {
+    }
+
+    /**
+     * Writes the given tasks to {@code file} on the export thread.
+     * <p>
+     * The file is written to a temporary sibling first and moved into place when complete, so a
+     * failed export does not leave a truncated file behind.
+     * </p>
+     *
+     * @param tasks Tasks to export; the list must not be changed while the export runs.
+     * @param format Format to write.
+     * @param file File to write.
+     * @return Future that completes with the number of tasks written, or with a {@link RevelException}.
+     */
+    public static CompletableFuture<Integer> exportAsync(List<Task> tasks, ExchangeFormat format, Path file) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return export(tasks, format, file);
+            } catch (RevelException e) {
+                throw new CompletionException(e);
+            }
+        }, EXPORTER);
+    }
+
+    /**
+     * Waits until every export started so far has finished.
+     */
+    public static void awaitExports() {
+        CompletableFuture.runAsync(() -> { }, EXPORTER).join();
+    }
+
+    /**
+     * Writes the given tasks to {@code file} on the calling thread.
+     *
+     * @param tasks Tasks to export.
+     * @param format Format to write.
+     * @param file File to write.
+     * @return Number of tasks written.
+     * @throws RevelException If the file cannot be written.
+     */
+    public static int export(List<Task> tasks, ExchangeFormat format, Path file) throws RevelException {
+        Path tempFile = file.resolveSibling(file.getFileName() + TEMP_SUFFIX);
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+                write(tasks, format, writer);
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            return tasks.size();
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(tempFile);
+            } catch (IOException ignored) {
+                // The original error is the one worth reporting.
+            }
+            throw new RevelException("Unable to export tasks to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the given tasks to {@code writer} in the given format.
+     *
+     * @param tasks Tasks to write.
+     * @param format Format to write.
+     * @param writer Destination; it is flushed but not closed.
+     * @throws IOException If writing fails.
+     */
+    public static void write(List<Task> tasks, ExchangeFormat format, Writer writer) throws IOException {
+        switch (format) {
+        case CSV -> writeCsv(tasks, writer);
+        case JSONL -> writeJsonLines(tasks, writer);
+        case ICS -> writeIcs(tasks, writer);
+        default -> throw new IllegalArgumentException("Unknown format: " + format);
+        }
+        writer.flush();
+    }
+
+    private static void writeCsv(List<Task> tasks, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        for (Task task : tasks) {
+            writer.write(typeName(task));
+            writer.write(',');
+            writeCsvField(task.getDescription(), writer);
+            writer.write(',');
+            writer.write(firstDate(task));
+            writer.write(',');
+            writer.write(secondDate(task));
+            writer.write(',');
+            writer.write(task.isDone() ? "1" : "0");
+            writer.write('\n');
+        }
+    }
+
+    private static void writeCsvField(String value, Writer writer) throws IOException {
+        boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private static void writeJsonLines(List<Task> tasks, Writer writer) throws IOException {
+        for (Task task : tasks) {
+            writer.write("{\"type\":\"");
+            writer.write(typeName(task));
+            writer.write("\",\"description\":");
+            writeJsonString(task.getDescription(), writer);
+            if (task instanceof Deadline deadline) {
+                writer.write(",\"by\":\"");
+                writer.write(deadline.getByDate().toString());
+                writer.write('"');
+            } else if (task instanceof Event event) {
+                writer.write(",\"from\":\"");
+                writer.write(event.getFromDate().toString());
+                writer.write("\",\"to\":\"");
+                writer.write(event.getToDate().toString());
+                writer.write('"');
+            }
+            writer.write(",\"done\":");
+            writer.write(task.isDone() ? "true" : "false");
+            writer.write("}\n");
+        }
+    }
+
+    private static void writeJsonString(String value, Writer writer) throws IOException {
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '"' -> writer.write("\\\"");
+            case '\\' -> writer.write("\\\\");
+            case '\n' -> writer.write("\\n");
+            case '\r' -> writer.write("\\r");
+            case '\t' -> writer.write("\\t");
+            default -> {
+                if (c < 0x20) {
+                    writer.write(String.format("\\u%04x", (int) c));
+                } else {
+                    writer.write(c);
+                }
+            }
+            }
+        }
+        writer.write('"');
+    }
+
+    private static void writeIcs(List<Task> tasks, Writer writer) throws IOException {
+        String stamp = LocalDateTime.now(ZoneOffset.UTC).format(ICS_DATE_TIME) + "Z";
+        writeIcsLine("BEGIN:VCALENDAR", writer);
+        writeIcsLine("VERSION:2.0", writer);
+        writeIcsLine("PRODID:-//Revel//Revel//EN", writer);
+        int index = 0;
+        for (Task task : tasks) {
+            index++;
+            String component = task instanceof Event ? "VEVENT" : "VTODO";
+            writeIcsLine("BEGIN:" + component, writer);
+            writeIcsLine("UID:revel-" + index + "-" + Integer.toHexString(task.getDescription().hashCode())
+                    + "@revel", writer);
+            writeIcsLine("DTSTAMP:" + stamp, writer);
+            writeIcsLine("SUMMARY:" + escapeIcs(task.getDescription()), writer);
+            if (task instanceof Deadline deadline) {
+                writeIcsLine("DUE:" + deadline.getByDate().format(ICS_DATE_TIME), writer);
+            } else if (task instanceof Event event) {
+                writeIcsLine("DTSTART:" + event.getFromDate().format(ICS_DATE_TIME), writer);
+                writeIcsLine("DTEND:" + event.getToDate().format(ICS_DATE_TIME), writer);
+            }
+            if (!(task instanceof Event)) {
+                writeIcsLine("STATUS:" + (task.isDone() ? "COMPLETED" : "NEEDS-ACTION"), writer);
+            }
+            writeIcsLine("END:" + component, writer);
+        }
+        writeIcsLine("END:VCALENDAR", writer);
+    }
+
+    /**
+     * Writes one content line, folding it so that no physical line exceeds 75 octets of UTF-8.
+     */
+    private static void writeIcsLine(String line, Writer writer) throws IOException {
+        int octets = 0;
+        int limit = ICS_MAX_LINE_OCTETS;
+        for (int i = 0; i < line.length(); ) {
+            int codePoint = line.codePointAt(i);
+            int size = utf8Length(codePoint);
+            if (octets + size > limit) {
+                writer.write(ICS_LINE_END);
+                writer.write(' ');
+                octets = 0;
+                limit = ICS_MAX_LINE_OCTETS - 1; // the leading space counts towards the limit
+            }
+            writer.write(Character.toChars(codePoint));
+            octets += size;
+            i += Character.charCount(codePoint);
+        }
+        writer.write(ICS_LINE_END);
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+
+    private static String escapeIcs(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+            case '\\', ';', ',' -> sb.append('\\').append(c);
+            case '\n' -> sb.append("\\n");
+            case '\r' -> {
+                // Line breaks are written as \n only.
+            }
+            default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String typeName(Task task) {
+        if (task instanceof Deadline) {
+            return "deadline";
+        }
+        return task instanceof Event ? "event" : "todo";
+    }
+
+    private static String firstDate(Task task) {
+        if (task instanceof Deadline deadline) {
+            return deadline.getByDate().toString();
+        }
+        return task instanceof Event event ? event.getFromDate().toString() : "";
+    }
+
+    private static String secondDate(Task task) {
+        return task instanceof Event event ? event.getToDate().toString() : "";
+    }
+}
@@ -0,0 +1,51 @@
+package revel.storage;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import revel.RevelException;
+import revel.task.TaskList;
+
+/**
+ * Converts a task file between the text and binary formats.
+ * <p>
+ * Usage: {@code java -cp revel.jar revel.storage.TaskFileConverter <source> <target> <text|binary>}
+ * </p>
+ */
+public final class TaskFileConverter {
+    private static final String USAGE = "Usage: TaskFileConverter <source> <target> <text|binary>";
+
+    private TaskFileConverter() {
+    }
+
+    /**
+     * Reads {@code source} in whichever format it is stored and writes its tasks to {@code target}.
+     *
+     * @param source Task file to convert.
+     * @param target File to write the converted tasks to.
+     * @param format Format of the target file.
+     * @return Number of tasks converted.
+     * @throws RevelException If the source cannot be read or the target cannot be written.
+     */
+    public static int convert(Path source, Path target, StorageFormat format) throws RevelException {
+        TaskList tasks = new TaskList(new Storage(source).load());
+        new Storage(target, format).save(tasks);
+        return tasks.getSize();
+    }
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            System.out.println(USAGE);
+            return;
+        }
+        try {
+            StorageFormat format = StorageFormat.valueOf(args[2].trim().toUpperCase());
+            int count = convert(Paths.get(args[0]), Paths.get(args[1]), format);
+            System.out.println("Converted " + count + " tasks to " + format.name().toLowerCase() + ".");
+        } catch (IllegalArgumentException e) {
+            System.out.println(USAGE);
+        } catch (RevelException e) {
+            System.out.println(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package revel.storage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import revel.RevelException;
+import revel.task.Task;
+
+/**
+ * Recovers the readable records of a damaged task file.
+ * <p>
+ * Text files are scanned line by line through a buffered stream, so memory use does not grow with
+ * the file size. Every line that fails its checksum or cannot be decoded is appended, byte for
+ * byte, to a quarantine file, and scanning continues with the next line. If any line of the file
+ * has a checksum, a line without one is quarantined as well, since it was most likely cut off
+ * while the file was being written; finding that out takes a first pass over the file. Binary files have no
+ * record separators to resynchronise on, so the records before the first unreadable one are kept
+ * and all remaining bytes are quarantined. Paged files quarantine the head slot of each
+ * unreadable record.
+ * </p>
+ */
+final class TaskFileSalvager {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int BINARY_PREFIX_LENGTH = 4;
+
+    private final Path quarantinePath;
+    private OutputStream quarantine;
+    private int quarantinedCount;
+    private boolean isChecksumRequired;
+
+    private TaskFileSalvager(Path quarantinePath) {
+        this.quarantinePath = quarantinePath;
+    }
+
+    /**
+     * Reads all valid records of {@code source} and quarantines the rest.
+     *
+     * @param source Task file to salvage.
+     * @param quarantinePath File the unreadable records are appended to.
+     * @return Recovered tasks and record counts.
+     * @throws IOException If the source cannot be read or the quarantine file cannot be written.
+     */
+    static SalvageResult salvage(Path source, Path quarantinePath) throws IOException {
+        TaskFileSalvager salvager = new TaskFileSalvager(quarantinePath);
+        try {
+            List<Task> tasks = Files.notExists(source) ? new ArrayList<>() : salvager.scan(source);
+            return new SalvageResult(tasks, tasks.size(), salvager.quarantinedCount, quarantinePath);
+        } finally {
+            salvager.closeQuarantine();
+        }
+    }
+
+    /**
+     * Appends the given records, one per line, to the quarantine file.
+     *
+     * @param quarantinePath Quarantine file.
+     * @param records Records to quarantine.
+     * @throws IOException If the quarantine file cannot be written.
+     */
+    static void quarantine(Path quarantinePath, List<String> records) throws IOException {
+        TaskFileSalvager salvager = new TaskFileSalvager(quarantinePath);
+        try {
+            for (String record : records) {
+                byte[] bytes = record.getBytes(StandardCharsets.UTF_8);
+                salvager.quarantineLine(bytes, bytes.length);
+            }
+        } finally {
+            salvager.closeQuarantine();
+        }
+    }
+
+    private List<Task> scan(Path source) throws IOException {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(source), BUFFER_SIZE)) {
+            in.mark(BINARY_PREFIX_LENGTH);
+            byte[] prefix = in.readNBytes(BINARY_PREFIX_LENGTH);
+            in.reset();
+            if (BinaryTaskCodec.hasHeader(prefix)) {
+                return scanBinary(source);
+            }
+            if (PagedTaskFile.isPagedFile(source)) {
+                return scanPaged(source);
+            }
+            try (InputStream first = new BufferedInputStream(Files.newInputStream(source), BUFFER_SIZE)) {
+                forEachLine(first, this::noteChecksum);
+            }
+            List<Task> tasks = new ArrayList<>();
+            forEachLine(in, (line, length) -> salvageLine(tasks, line, length));
+            return tasks;
+        }
+    }
+
+    /**
+     * Passes every line of {@code in} to {@code handler}, reusing one buffer for the line bytes.
+     */
+    private static void forEachLine(InputStream in, LineHandler handler) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] line = new byte[256];
+        int length = 0;
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            int lineStart = 0;
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] != '\n') {
+                    continue;
+                }
+                line = appendBytes(line, length, buffer, lineStart, i - lineStart);
+                length += i - lineStart;
+                handler.accept(line, length);
+                length = 0;
+                lineStart = i + 1;
+            }
+            line = appendBytes(line, length, buffer, lineStart, read - lineStart);
+            length += read - lineStart;
+        }
+        handler.accept(line, length);
+    }
+
+    private static byte[] appendBytes(byte[] line, int length, byte[] source, int from, int count) {
+        byte[] target = line;
+        if (length + count > target.length) {
+            target = Arrays.copyOf(target, Math.max(length + count, target.length * 2));
+        }
+        System.arraycopy(source, from, target, length, count);
+        return target;
+    }
+
+    private void noteChecksum(byte[] line, int length) {
+        if (!isChecksumRequired) {
+            isChecksumRequired = RecordChecksum.hasChecksum(lineText(line, length));
+        }
+    }
+
+    private void salvageLine(List<Task> tasks, byte[] line, int length) throws IOException {
+        int end = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+        String text = lineText(line, length);
+        if (text.isBlank()) {
+            return;
+        }
+        try {
+            tasks.add(RecordChecksum.decodeTask(text, isChecksumRequired));
+        } catch (RevelException e) {
+            quarantineLine(line, end);
+        }
+    }
+
+    private List<Task> scanBinary(Path source) throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Binary task file is too large to salvage: " + source);
+            }
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int recordStart = 0;
+            try {
+                int count = BinaryTaskCodec.readHeader(data);
+                for (int i = 0; i < count; i++) {
+                    recordStart = data.position();
+                    tasks.add(BinaryTaskCodec.decodeTask(data));
+                }
+                recordStart = data.position();
+            } catch (RevelException e) {
+                // Without a separator there is no safe place to resume, so everything left is quarantined.
+            }
+            if (recordStart < data.limit()) {
+                byte[] rest = new byte[data.limit() - recordStart];
+                data.get(recordStart, rest);
+                quarantineLine(rest, rest.length);
+            }
+        }
+        return tasks;
+    }
+
+    private List<Task> scanPaged(Path source) throws IOException {
+        List<byte[]> rejected = new ArrayList<>();
+        List<Task> tasks;
+        try {
+            tasks = new PagedTaskFile(source, PagedTaskFile.DEFAULT_SLOT_SIZE).load(rejected);
+        } catch (RevelException e) {
+            // Only an unusable header gets here, which leaves nothing to recover.
+            byte[] all = Files.readAllBytes(source);
+            quarantineLine(all, all.length);
+            return new ArrayList<>();
+        }
+        for (byte[] slot : rejected) {
+            quarantineLine(slot, slot.length);
+        }
+        return tasks;
+    }
+
+    private static String lineText(byte[] line, int length) {
+        int end = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+        return new String(line, 0, end, StandardCharsets.UTF_8);
+    }
+
+    private void quarantineLine(byte[] bytes, int length) throws IOException {
+        if (quarantine == null) {
+            if (quarantinePath.getParent() != null) {
+                Files.createDirectories(quarantinePath.getParent());
+            }
+            quarantine = new BufferedOutputStream(Files.newOutputStream(quarantinePath,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+        }
+        quarantine.write(bytes, 0, length);
+        quarantine.write('\n');
+        quarantinedCount++;
+    }
+
+    private void closeQuarantine() throws IOException {
+        if (quarantine != null) {
+            quarantine.close();
+        }
+    }
+
+    /**
+     * Receives one line of a text file, without its line break, in the first {@code length} bytes of {@code line}.
+     */
+    private interface LineHandler {
+        void accept(byte[] line, int length) throws IOException;
+    }
+}
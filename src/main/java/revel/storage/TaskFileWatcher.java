@@ -0,0 +1,73 @@
+package revel.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Watches a single file for modifications on a background thread.
+ * <p>
+ * The watcher only records that the file changed; the change itself is read by whoever calls
+ * {@link #pollChanged()}, so the task list is never touched from the watcher thread.
+ * </p>
+ */
+final class TaskFileWatcher implements Closeable {
+    private final Path fileName;
+    private final WatchService watchService;
+    private final AtomicBoolean isChanged = new AtomicBoolean();
+
+    /**
+     * Starts watching {@code file}. Its directory must already exist.
+     *
+     * @throws IOException If the directory cannot be watched.
+     */
+    TaskFileWatcher(Path file) throws IOException {
+        Path absolute = file.toAbsolutePath();
+        this.fileName = absolute.getFileName();
+        this.watchService = FileSystems.getDefault().newWatchService();
+        absolute.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread thread = new Thread(this::run, "revel-file-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    // An overflow means events were lost, so the file may have changed.
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                        isChanged.set(true);
+                    }
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // The watcher was closed.
+        }
+    }
+
+    /**
+     * Returns whether the file changed since the last call, and clears the flag.
+     */
+    boolean pollChanged() {
+        return isChanged.getAndSet(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
@@ -0,0 +1,479 @@
+package revel.storage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import revel.RevelException;
+import revel.parser.DateTimeParser;
+import revel.parser.TaskArgumentParser;
+import revel.task.Deadline;
+import revel.task.Event;
+import revel.task.Task;
+import revel.task.ToDo;
+
+/**
+ * Reads tasks from CSV, JSON Lines and iCalendar files.
+ * <p>
+ * The file is streamed on the calling thread and split into records: one per line for CSV and
+ * JSON Lines, one per {@code VTODO} or {@code VEVENT} block for iCalendar. Records are parsed in
+ * batches on the common fork-join pool into the same argument records the {@code todo},
+ * {@code deadline} and {@code event} commands use, and the resulting tasks are collected in file
+ * order. Only a bounded number of batches is in flight at once, so memory use does not grow with
+ * the file. Records that cannot be parsed are counted and skipped.
+ * </p>
+ */
+public final class TaskImporter {
+    private static final int BATCH_SIZE = 2048;
+    private static final int MAX_BATCHES_IN_FLIGHT = 2 * Runtime.getRuntime().availableProcessors();
+    private static final long PROGRESS_INTERVAL_NANOS = 500_000_000L;
+    private static final int MAX_REPORTED_ERRORS = 5;
+    private static final DateTimeFormatter ICS_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter ICS_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private TaskImporter() {
+    }
+
+    /**
+     * Receives progress updates while a file is being imported.
+     */
+    public interface ProgressListener {
+        /**
+         * Called periodically with the number of records parsed so far.
+         *
+         * @param recordCount Records parsed so far.
+         * @param recordsPerSecond Average parsing rate so far.
+         */
+        void onProgress(long recordCount, double recordsPerSecond);
+    }
+
+    /**
+     * Outcome of an import: the parsed tasks in file order and the records that were skipped.
+     *
+     * @param tasks Parsed tasks.
+     * @param failedCount Number of records that could not be parsed.
+     * @param errors Messages for the first few skipped records.
+     * @param elapsedNanos Time the import took.
+     */
+    public record ImportResult(List<Task> tasks, int failedCount, List<String> errors, long elapsedNanos) {
+        /**
+         * Returns the average number of records read per second.
+         *
+         * @return Records per second.
+         */
+        public double recordsPerSecond() {
+            return ratePerSecond(tasks.size() + failedCount, elapsedNanos);
+        }
+    }
+
+    private record RawRecord(int lineNumber, String text) {}
+
+    private record ParsedBatch(List<Task> tasks, List<String> errors, int failedCount) {}
+
+    /**
+     * Reads every task from {@code file}.
+     *
+     * @param file File to import.
+     * @param format Format of the file.
+     * @param listener Receives progress updates, or null.
+     * @return Parsed tasks and skipped records.
+     * @throws RevelException If the file cannot be read.
+     */
+    public static ImportResult read(Path file, ExchangeFormat format, ProgressListener listener)
+            throws RevelException {
+        long start = System.nanoTime();
+        long lastReport = start;
+        List<Task> tasks = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        int failedCount = 0;
+        Deque<CompletableFuture<ParsedBatch>> inFlight = new ArrayDeque<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            RecordSplitter splitter = new RecordSplitter(reader, format);
+            List<RawRecord> batch = new ArrayList<>(BATCH_SIZE);
+            boolean isDone = false;
+            while (!isDone) {
+                RawRecord record = splitter.next();
+                isDone = record == null;
+                if (record != null) {
+                    batch.add(record);
+                }
+                if (batch.size() == BATCH_SIZE || (isDone && !batch.isEmpty())) {
+                    List<RawRecord> submitted = batch;
+                    inFlight.add(CompletableFuture.supplyAsync(() -> parseBatch(format, submitted)));
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+                while (inFlight.size() > (isDone ? 0 : MAX_BATCHES_IN_FLIGHT)) {
+                    ParsedBatch parsed = join(inFlight.poll());
+                    tasks.addAll(parsed.tasks());
+                    failedCount += parsed.failedCount();
+                    for (String error : parsed.errors()) {
+                        if (errors.size() < MAX_REPORTED_ERRORS) {
+                            errors.add(error);
+                        }
+                    }
+                    long now = System.nanoTime();
+                    if (listener != null && now - lastReport >= PROGRESS_INTERVAL_NANOS) {
+                        long recordCount = tasks.size() + failedCount;
+                        listener.onProgress(recordCount, ratePerSecond(recordCount, now - start));
+                        lastReport = now;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            inFlight.forEach(future -> future.cancel(false));
+            throw new RevelException("Unable to read file: " + file);
+        }
+        return new ImportResult(tasks, failedCount, errors, System.nanoTime() - start);
+    }
+
+    private static ParsedBatch join(CompletableFuture<ParsedBatch> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw new IllegalStateException("Import batch failed", e.getCause());
+        }
+    }
+
+    private static double ratePerSecond(long count, long elapsedNanos) {
+        return elapsedNanos <= 0 ? 0 : count * 1e9 / elapsedNanos;
+    }
+
+    private static ParsedBatch parseBatch(ExchangeFormat format, List<RawRecord> records) {
+        List<Task> tasks = new ArrayList<>(records.size());
+        List<String> errors = new ArrayList<>();
+        int failedCount = 0;
+        for (RawRecord record : records) {
+            try {
+                Task task = switch (format) {
+                case CSV -> parseCsv(record.text());
+                case JSONL -> parseJson(record.text());
+                case ICS -> parseIcs(record.text());
+                default -> throw new RevelException("Unsupported format: " + format);
+                };
+                if (task != null) {
+                    tasks.add(task);
+                }
+            } catch (RevelException e) {
+                failedCount++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add("Line " + record.lineNumber() + ": " + e.getMessage().strip().lines().findFirst()
+                            .orElse(""));
+                }
+            }
+        }
+        return new ParsedBatch(tasks, errors, failedCount);
+    }
+
+    /**
+     * Builds a task from the fields of an imported record, using the command argument records.
+     */
+    private static Task toTask(String type, String description, String first, String second, boolean isDone)
+            throws RevelException {
+        String desc = description == null ? "" : description.strip();
+        Task task = switch (type == null ? "" : type.strip().toLowerCase()) {
+        case "todo", "t" -> new ToDo(TaskArgumentParser.parseTodo(desc));
+        case "deadline", "d" -> {
+            TaskArgumentParser.DeadlineArgs args = new TaskArgumentParser.DeadlineArgs(
+                    requireText(desc, "description"), parseDate(requireText(first, "by date")));
+            yield new Deadline(args.description(), args.byDate());
+        }
+        case "event", "e" -> {
+            TaskArgumentParser.EventArgs args = new TaskArgumentParser.EventArgs(requireText(desc, "description"),
+                    parseDate(requireText(first, "start date")), parseDate(requireText(second, "end date")));
+            yield new Event(args.description(), args.fromDate(), args.toDate());
+        }
+        default -> throw new RevelException("Unknown task type: " + type);
+        };
+        if (isDone) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    private static String requireText(String value, String name) throws RevelException {
+        if (value == null || value.isBlank()) {
+            throw new RevelException("Missing " + name);
+        }
+        return value.strip();
+    }
+
+    /**
+     * Parses a date in any format accepted by the commands, or an ISO-8601 local date-time.
+     */
+    private static LocalDateTime parseDate(String raw) throws RevelException {
+        if (raw.indexOf('T') > 0) {
+            try {
+                return LocalDateTime.parse(raw);
+            } catch (DateTimeParseException e) {
+                throw new RevelException("Invalid date/time: " + raw);
+            }
+        }
+        return DateTimeParser.parseToLocalDateTime(raw);
+    }
+
+    private static boolean parseDone(String raw) {
+        String value = raw == null ? "" : raw.strip().toLowerCase();
+        return value.equals("1") || value.equals("true") || value.equals("x") || value.equals("yes");
+    }
+
+    /**
+     * Parses a CSV line with the columns type, description, first date, second date and done.
+     */
+    private static Task parseCsv(String line) throws RevelException {
+        List<String> fields = splitCsv(line);
+        if (fields.get(0).strip().equalsIgnoreCase("type")) {
+            return null; // header row
+        }
+        return toTask(fields.get(0), field(fields, 1), field(fields, 2), field(fields, 3),
+                parseDone(field(fields, 4)));
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : null;
+    }
+
+    private static List<String> splitCsv(String line) throws RevelException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean isQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (isQuoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    isQuoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                isQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (isQuoted) {
+            throw new RevelException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Parses a JSON object with the members type, description, by, from, to and done.
+     */
+    private static Task parseJson(String line) throws RevelException {
+        String type = null;
+        String description = null;
+        String by = null;
+        String from = null;
+        String to = null;
+        boolean isDone = false;
+        JsonReader json = JsonReader.of("JSON record", new StringReader(line));
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if (json.peek() == JsonReader.Token.NULL) {
+                json.nextNull();
+                continue;
+            }
+            switch (name) {
+            case "type" -> type = json.nextString();
+            case "description" -> description = json.nextString();
+            case "by" -> by = json.nextString();
+            case "from" -> from = json.nextString();
+            case "to" -> to = json.nextString();
+            case "done" -> isDone = json.nextBoolean();
+            default -> json.skipValue();
+            }
+        }
+        json.endObject();
+        json.endDocument();
+        return toTask(type, description, by != null ? by : from, to, isDone);
+    }
+
+    /**
+     * Parses an unfolded {@code VTODO} or {@code VEVENT} block.
+     */
+    private static Task parseIcs(String block) throws RevelException {
+        String summary = null;
+        String start = null;
+        String end = null;
+        String due = null;
+        boolean isDone = false;
+        boolean isEvent = false;
+        for (String line : block.split("\n")) {
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String name = line.substring(0, colon);
+            int parameters = name.indexOf(';');
+            String property = (parameters < 0 ? name : name.substring(0, parameters)).toUpperCase();
+            String value = line.substring(colon + 1);
+            switch (property) {
+            case "BEGIN" -> isEvent = value.equalsIgnoreCase("VEVENT");
+            case "SUMMARY" -> summary = unescapeIcs(value);
+            case "DTSTART" -> start = value;
+            case "DTEND" -> end = value;
+            case "DUE" -> due = value;
+            case "STATUS" -> isDone = value.equalsIgnoreCase("COMPLETED");
+            case "COMPLETED" -> isDone = true;
+            default -> {
+                // Other properties are not part of a task.
+            }
+            }
+        }
+        if (isEvent) {
+            String startDate = formatIcsDate(requireText(start, "DTSTART"));
+            String endDate = end == null ? startDate : formatIcsDate(end);
+            return toTask("event", summary, startDate, endDate, isDone);
+        }
+        if (due != null) {
+            return toTask("deadline", summary, formatIcsDate(due), null, isDone);
+        }
+        return toTask("todo", summary, null, null, isDone);
+    }
+
+    /**
+     * Converts an iCalendar date or date-time value to an ISO-8601 local date-time.
+     */
+    private static String formatIcsDate(String raw) throws RevelException {
+        String value = raw.strip();
+        try {
+            if (value.length() == 8) {
+                return LocalDate.parse(value, ICS_DATE).atStartOfDay().toString();
+            }
+            if (value.endsWith("Z")) {
+                LocalDateTime utc = LocalDateTime.parse(value.substring(0, value.length() - 1), ICS_DATE_TIME);
+                return utc.atOffset(ZoneOffset.UTC).atZoneSameInstant(ZoneId.systemDefault())
+                        .toLocalDateTime().toString();
+            }
+            return LocalDateTime.parse(value, ICS_DATE_TIME).toString();
+        } catch (DateTimeParseException e) {
+            throw new RevelException("Invalid date/time: " + raw);
+        }
+    }
+
+    private static String unescapeIcs(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 'n' || next == 'N' ? '\n' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Splits the input into the records that are parsed independently.
+     */
+    private static final class RecordSplitter {
+        private final BufferedReader reader;
+        private final ExchangeFormat format;
+        private String pendingLine;
+        private int pendingLineNumber;
+        private int lineNumber;
+        private int unfoldedLineNumber;
+
+        RecordSplitter(BufferedReader reader, ExchangeFormat format) {
+            this.reader = reader;
+            this.format = format;
+        }
+
+        /**
+         * Returns the next record, or null at the end of the input.
+         */
+        RawRecord next() throws IOException {
+            return format == ExchangeFormat.ICS ? nextIcsBlock() : nextLine();
+        }
+
+        private RawRecord nextLine() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.isBlank()) {
+                    return new RawRecord(lineNumber, line);
+                }
+            }
+            return null;
+        }
+
+        private RawRecord nextIcsBlock() throws IOException {
+            StringBuilder block = null;
+            int blockLine = 0;
+            String line;
+            while ((line = nextUnfoldedLine()) != null) {
+                String upper = line.toUpperCase();
+                if (block == null) {
+                    if (upper.equals("BEGIN:VEVENT") || upper.equals("BEGIN:VTODO")) {
+                        block = new StringBuilder(line);
+                        blockLine = unfoldedLineNumber;
+                    }
+                    continue;
+                }
+                if (upper.equals("END:VEVENT") || upper.equals("END:VTODO")) {
+                    return new RawRecord(blockLine, block.toString());
+                }
+                block.append('\n').append(line);
+            }
+            return null;
+        }
+
+        /**
+         * Returns the next logical line, joining folded continuation lines that start with a space or tab.
+         */
+        private String nextUnfoldedLine() throws IOException {
+            String line = pendingLine != null ? pendingLine : readLine();
+            unfoldedLineNumber = pendingLine != null ? pendingLineNumber : lineNumber;
+            pendingLine = null;
+            if (line == null) {
+                return null;
+            }
+            StringBuilder unfolded = new StringBuilder(line);
+            String next;
+            while ((next = readLine()) != null) {
+                if (next.startsWith(" ") || next.startsWith("\t")) {
+                    unfolded.append(next, 1, next.length());
+                } else {
+                    pendingLine = next;
+                    pendingLineNumber = lineNumber;
+                    break;
+                }
+            }
+            return unfolded.toString();
+        }
+
+        private String readLine() throws IOException {
+            String line = reader.readLine();
+            if (line != null) {
+                lineNumber++;
+            }
+            return line;
+        }
+    }
+}
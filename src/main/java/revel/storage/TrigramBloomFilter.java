@@ -0,0 +1,130 @@
+package revel.storage;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * A Bloom filter over the lowercase character trigrams of task descriptions.
+ * <p>
+ * Every description added contributes all of its trigrams. A keyword can only occur in an added
+ * description if all of its own trigrams were added, so {@link #mightContain(String)} never
+ * misses a description that contains the keyword; it may occasionally report a match that does
+ * not exist. Keywords shorter than three characters cannot be checked and always report a
+ * possible match.
+ * </p>
+ */
+final class TrigramBloomFilter {
+    private static final int MIN_BITS = 1 << 13;
+    private static final int BITS_PER_TRIGRAM = 10;
+    private static final int HASH_COUNT = 5;
+    private static final int GRAM = 3;
+
+    private final long[] bits;
+    private int trigramCount;
+
+    /**
+     * Creates an empty filter sized for roughly {@code expectedTrigrams} trigrams.
+     */
+    TrigramBloomFilter(int expectedTrigrams) {
+        this(new long[bitCountFor(expectedTrigrams) / Long.SIZE], 0);
+    }
+
+    private TrigramBloomFilter(long[] bits, int trigramCount) {
+        this.bits = bits;
+        this.trigramCount = trigramCount;
+    }
+
+    private static int bitCountFor(int expectedTrigrams) {
+        long wanted = Math.max(MIN_BITS, (long) expectedTrigrams * BITS_PER_TRIGRAM);
+        return (int) Math.min(1L << 30, Long.highestOneBit(wanted - 1) << 1);
+    }
+
+    /**
+     * Returns whether the filter has taken in more trigrams than it was sized for.
+     */
+    boolean isOverfull() {
+        return (long) trigramCount * BITS_PER_TRIGRAM > (long) bits.length * Long.SIZE;
+    }
+
+    /**
+     * Returns the number of trigrams added so far.
+     */
+    int getTrigramCount() {
+        return trigramCount;
+    }
+
+    /**
+     * Adds every trigram of the given description.
+     */
+    void add(String description) {
+        String text = description.toLowerCase();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            long hash = hash(text, i);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int k = 0; k < HASH_COUNT; k++) {
+                int bit = (h1 + k * h2) & (bits.length * Long.SIZE - 1);
+                bits[bit >>> 6] |= 1L << bit;
+            }
+            trigramCount++;
+        }
+    }
+
+    /**
+     * Returns false only if no added description can contain {@code keyword} (case-insensitively).
+     */
+    boolean mightContain(String keyword) {
+        String text = keyword.toLowerCase();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            long hash = hash(text, i);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int k = 0; k < HASH_COUNT; k++) {
+                int bit = (h1 + k * h2) & (bits.length * Long.SIZE - 1);
+                if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static long hash(String text, int from) {
+        long packed = ((long) text.charAt(from) << 32) | ((long) text.charAt(from + 1) << 16) | text.charAt(from + 2);
+        // SplitMix64 finaliser, so that similar trigrams spread over the whole bit array.
+        long z = packed + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Writes the filter as its trigram count, word count and bit words.
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(trigramCount);
+        out.writeInt(bits.length);
+        for (long word : bits) {
+            out.writeLong(word);
+        }
+    }
+
+    /**
+     * Reads a filter written by {@link #writeTo(DataOutputStream)}.
+     *
+     * @throws IOException If the data cannot be read or is not a valid filter.
+     */
+    static TrigramBloomFilter readFrom(DataInputStream in) throws IOException {
+        int trigramCount = in.readInt();
+        int wordCount = in.readInt();
+        if (trigramCount < 0 || wordCount <= 0 || Integer.bitCount(wordCount) != 1 || wordCount > (1 << 24)) {
+            throw new IOException("Invalid archive filter");
+        }
+        long[] bits = new long[wordCount];
+        for (int i = 0; i < wordCount; i++) {
+            bits[i] = in.readLong();
+        }
+        return new TrigramBloomFilter(bits, trigramCount);
+    }
+}
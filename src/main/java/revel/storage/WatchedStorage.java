@@ -0,0 +1,243 @@
+package revel.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import revel.RevelException;
+import revel.task.Task;
+import revel.task.TaskList;
+
+/**
+ * Storage that picks up changes other programs make to the task file while Revel is running.
+ * <p>
+ * A {@link TaskFileWatcher} flags modifications of the file. When
+ * {@link #reloadExternalChanges(TaskList)} is called, the file is compared record by record with
+ * what was last loaded or saved, using a 64-bit hash per record: the unchanged records at the start
+ * and end are kept, and only the records in between are decoded and spliced into the task list.
+ * Writes made through this storage remember the resulting file size and modification time, so they
+ * do not trigger a reload of their own.
+ * </p>
+ */
+public class WatchedStorage implements StorageBackend {
+    private final Storage delegate;
+    private TaskFileWatcher watcher;
+    private long[] knownHashes;
+    private FileTime writtenTime;
+    private long writtenSize = -1;
+
+    /**
+     * Creates a watched storage around the given file storage.
+     *
+     * @param delegate Storage that reads and writes the task file.
+     */
+    public WatchedStorage(Storage delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Loads the stored tasks and starts watching the task file.
+     *
+     * @return Modifiable list of tasks (empty if file does not exist).
+     * @throws RevelException If the file cannot be read.
+     */
+    @Override
+    public List<Task> load() throws RevelException {
+        List<Task> tasks = delegate.load();
+        rememberFile();
+        startWatching();
+        return tasks;
+    }
+
+    @Override
+    public SalvageResult salvage() throws RevelException {
+        SalvageResult result = delegate.salvage();
+        rememberFile();
+        startWatching();
+        return result;
+    }
+
+    @Override
+    public void save(TaskList tasks) throws RevelException {
+        try {
+            delegate.save(tasks);
+        } catch (RevelException e) {
+            // The file no longer matches the list, so the next reload replaces everything.
+            knownHashes = null;
+            throw e;
+        }
+        knownHashes = hashTasks(tasks.getTaskList());
+        rememberWrite();
+    }
+
+    @Override
+    public TaskList.IdSource getIdSource() {
+        return delegate.getIdSource();
+    }
+
+    @Override
+    public int reloadExternalChanges(TaskList tasks) throws RevelException {
+        if (watcher == null || !watcher.pollChanged()) {
+            return 0;
+        }
+        return reload(tasks);
+    }
+
+    /**
+     * Applies the differences between the task file and the last loaded or saved state to {@code tasks}.
+     *
+     * @param tasks Task list to update.
+     * @return Number of records that changed.
+     * @throws RevelException If the file cannot be read or a changed record cannot be decoded.
+     */
+    int reload(TaskList tasks) throws RevelException {
+        try {
+            if (Files.notExists(delegate.filePath) || isOwnWrite()) {
+                return 0;
+            }
+            BasicFileAttributes attributes = Files.readAttributes(delegate.filePath, BasicFileAttributes.class);
+            FileRecords records = readRecords();
+            long[] hashes = records.hashes();
+
+            int oldCount = tasks.getSize();
+            int prefix = 0;
+            int suffix = 0;
+            if (knownHashes != null && knownHashes.length == oldCount) {
+                int limit = Math.min(oldCount, hashes.length);
+                while (prefix < limit && knownHashes[prefix] == hashes[prefix]) {
+                    prefix++;
+                }
+                while (suffix < limit - prefix
+                        && knownHashes[oldCount - 1 - suffix] == hashes[hashes.length - 1 - suffix]) {
+                    suffix++;
+                }
+            }
+
+            List<Task> changed = records.decode(prefix, hashes.length - suffix);
+            tasks.replaceTasks(prefix, oldCount - suffix, changed);
+            knownHashes = hashes;
+            writtenTime = attributes.lastModifiedTime();
+            writtenSize = attributes.size();
+            return Math.max(changed.size(), oldCount - suffix - prefix);
+        } catch (IOException e) {
+            throw new RevelException("Unable to reload tasks from file: " + delegate.filePath);
+        }
+    }
+
+    private boolean isOwnWrite() throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(delegate.filePath, BasicFileAttributes.class);
+        return attributes.size() == writtenSize && attributes.lastModifiedTime().equals(writtenTime);
+    }
+
+    private void rememberFile() {
+        try {
+            knownHashes = Files.exists(delegate.filePath) ? readRecords().hashes() : new long[0];
+            rememberWrite();
+        } catch (IOException | RevelException e) {
+            knownHashes = null;
+        }
+    }
+
+    private void rememberWrite() {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(delegate.filePath, BasicFileAttributes.class);
+            writtenTime = attributes.lastModifiedTime();
+            writtenSize = attributes.size();
+        } catch (IOException e) {
+            writtenTime = null;
+            writtenSize = -1;
+        }
+    }
+
+    private void startWatching() {
+        if (watcher != null) {
+            return;
+        }
+        try {
+            Files.createDirectories(delegate.filePath.toAbsolutePath().getParent());
+            watcher = new TaskFileWatcher(delegate.filePath);
+        } catch (IOException e) {
+            // Without a watcher the storage still works, it just does not reload.
+            watcher = null;
+        }
+    }
+
+    /**
+     * Reads the records of the task file, decoding them only if the file is not plain text.
+     */
+    private FileRecords readRecords() throws IOException, RevelException {
+        byte[] data = Files.readAllBytes(delegate.filePath);
+        if (BinaryTaskCodec.hasHeader(data)) {
+            return FileRecords.ofTasks(BinaryTaskCodec.decode(ByteBuffer.wrap(data)));
+        }
+        if (PagedTaskFile.isPagedFile(delegate.filePath)) {
+            PagedTaskFile pagedFile = new PagedTaskFile(delegate.filePath, PagedTaskFile.DEFAULT_SLOT_SIZE);
+            return FileRecords.ofTasks(pagedFile.load(null));
+        }
+        List<String> lines = new ArrayList<>();
+        for (String line : new String(data, StandardCharsets.UTF_8).lines().toList()) {
+            if (!line.isBlank()) {
+                lines.add(line);
+            }
+        }
+        return new FileRecords(lines, null);
+    }
+
+    private static long[] hashTasks(List<Task> tasks) {
+        return FileRecords.ofTasks(tasks).hashes();
+    }
+
+    /**
+     * Hashes a record with 64-bit FNV-1a.
+     */
+    private static long hash(String record) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < record.length(); i++) {
+            hash = (hash ^ record.charAt(i)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * Records of a task file as the text lines {@link Storage} writes, with their tasks if already decoded.
+     */
+    private record FileRecords(List<String> lines, List<Task> tasks) {
+        static FileRecords ofTasks(List<Task> tasks) {
+            List<String> lines = new ArrayList<>(tasks.size());
+            StringBuilder line = new StringBuilder();
+            for (Task task : tasks) {
+                line.setLength(0);
+                task.appendFileString(line);
+                RecordChecksum.append(line);
+                lines.add(line.toString());
+            }
+            return new FileRecords(lines, tasks);
+        }
+
+        long[] hashes() {
+            long[] hashes = new long[lines.size()];
+            for (int i = 0; i < hashes.length; i++) {
+                hashes[i] = hash(lines.get(i));
+            }
+            return hashes;
+        }
+
+        List<Task> decode(int from, int to) throws RevelException {
+            if (tasks != null) {
+                return new ArrayList<>(tasks.subList(from, to));
+            }
+            // Checksums are required if any line of the file has one, not just the changed lines.
+            boolean isChecksumRequired = RecordChecksum.isRequired(lines);
+            List<Task> decoded = new ArrayList<>(to - from);
+            for (String line : lines.subList(from, to)) {
+                decoded.add(RecordChecksum.decodeTask(line, isChecksumRequired));
+            }
+            return decoded;
+        }
+    }
+}
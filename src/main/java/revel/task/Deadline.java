@@ -1,7 +1,6 @@
 package revel.task;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 import revel.parser.DateTimeParser;
 
@@ -24,6 +23,15 @@ public class Deadline extends Task {
         this.byDate = byDate;
     }
 
+    /**
+     * Returns the deadline date-time.
+     *
+     * @return Deadline date-time.
+     */
+    public LocalDateTime getByDate() {
+        return this.byDate;
+    }
+
     /**
      * Returns a user-friendly representation of the deadline task.
      *
@@ -35,13 +43,19 @@ public class Deadline extends Task {
     }
 
     /**
-     * Returns the file storage representation of this task.
+     * Appends the file storage representation of this task to {@code sb}.
      *
-     * @return Serialized task string.
+     * @param sb Builder to append to.
      */
     @Override
-    public String toFileString() {
-        return "DL | " + (isDone ? 1 : 0) + " | " + description + " | "
-                + byDate.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    public void appendFileString(StringBuilder sb) {
+        TaskRecordCodec.appendHeader(sb, TaskType.DEADLINE, isDone, description);
+        TaskRecordCodec.appendDateTime(sb, byDate);
+        TaskRecordCodec.appendId(sb, getId());
+    }
+
+    @Override
+    protected Task copyContents() {
+        return new Deadline(description, byDate);
     }
 }
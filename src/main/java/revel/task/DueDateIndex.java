@@ -0,0 +1,148 @@
+package revel.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Index of the deadlines and events of a task list that are not done, ordered by the date they are due.
+ * <p>
+ * A deadline is due at its {@code /by} date and an event at its start. Tasks that are due at the
+ * same time are ordered by their IDs, which follow the order they were added. Deadlines are also
+ * kept in a map of their own, so that looking for overdue deadlines does not pass over past events.
+ * Adding and removing a task costs O(log n), and a query O(log n + k) for k returned tasks.
+ * </p>
+ * <p>
+ * Done tasks are left out, so the owner must call {@link #statusChanged(Task)} whenever a task in
+ * the list is marked or unmarked.
+ * </p>
+ */
+final class DueDateIndex {
+    private final NavigableMap<DueKey, Task> tasksByDate = new TreeMap<>();
+    private final NavigableMap<DueKey, Task> deadlinesByDate = new TreeMap<>();
+    private final Map<Task, DueKey> keys = new IdentityHashMap<>();
+
+    private record DueKey(LocalDateTime date, long id) implements Comparable<DueKey> {
+        @Override
+        public int compareTo(DueKey other) {
+            int result = date.compareTo(other.date);
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+    }
+
+    /**
+     * Builds an index over the deadlines and events among the given tasks, which must all have IDs.
+     */
+    DueDateIndex(List<Task> tasks) {
+        for (Task task : tasks) {
+            add(task);
+        }
+    }
+
+    /**
+     * Returns the date {@code task} is due, or null if it has none.
+     */
+    static LocalDateTime getDueDate(Task task) {
+        if (task instanceof Deadline deadline) {
+            return deadline.getByDate();
+        }
+        if (task instanceof Event event) {
+            return event.getFromDate();
+        }
+        return null;
+    }
+
+    /**
+     * Adds a task to the index if it has a due date and is not done.
+     */
+    void add(Task task) {
+        LocalDateTime date = getDueDate(task);
+        if (date != null && !task.isDone()) {
+            assert task.getId() > 0 : "task must have an ID";
+            DueKey key = new DueKey(date, task.getId());
+            keys.put(task, key);
+            tasksByDate.put(key, task);
+            if (task instanceof Deadline) {
+                deadlinesByDate.put(key, task);
+            }
+        }
+    }
+
+    /**
+     * Removes a task from the index; does nothing if it is not in the index.
+     */
+    void remove(Task task) {
+        DueKey key = keys.remove(task);
+        if (key != null) {
+            tasksByDate.remove(key);
+            deadlinesByDate.remove(key);
+        }
+    }
+
+    /**
+     * Adds or removes a task that was just unmarked or marked.
+     */
+    void statusChanged(Task task) {
+        if (task.isDone()) {
+            remove(task);
+        } else if (!keys.containsKey(task)) {
+            add(task);
+        }
+    }
+
+    /**
+     * Puts {@code replacement} in the place of {@code task}.
+     */
+    void replace(Task task, Task replacement) {
+        DueKey key = keys.get(task);
+        if (key == null || replacement.isDone() || key.id() != replacement.getId()
+                || !key.date().equals(getDueDate(replacement)) || task.getClass() != replacement.getClass()) {
+            remove(task);
+            add(replacement);
+            return;
+        }
+        keys.remove(task);
+        keys.put(replacement, key);
+        tasksByDate.put(key, replacement);
+        if (replacement instanceof Deadline) {
+            deadlinesByDate.put(key, replacement);
+        }
+    }
+
+    int size() {
+        return keys.size();
+    }
+
+    /**
+     * Returns the tasks that are not done and are due before {@code date}, ordered by due date.
+     *
+     * @param isDeadlinesOnly Whether to leave out events.
+     */
+    List<Task> findBefore(LocalDateTime date, boolean isDeadlinesOnly) {
+        NavigableMap<DueKey, Task> map = isDeadlinesOnly ? deadlinesByDate : tasksByDate;
+        return collect(map.headMap(new DueKey(date, Long.MIN_VALUE), false), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns up to {@code limit} tasks that are not done and are due at or after {@code date},
+     * ordered by due date.
+     */
+    List<Task> findFrom(LocalDateTime date, int limit) {
+        return collect(tasksByDate.tailMap(new DueKey(date, Long.MIN_VALUE), true), limit);
+    }
+
+    private static List<Task> collect(NavigableMap<DueKey, Task> range, int limit) {
+        List<Task> found = new ArrayList<>();
+        for (Task task : range.values()) {
+            if (found.size() == limit) {
+                break;
+            }
+            found.add(task);
+        }
+        return found;
+    }
+}
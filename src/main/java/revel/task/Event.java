@@ -1,7 +1,6 @@
 package revel.task;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 
 import revel.parser.DateTimeParser;
 
@@ -28,6 +27,24 @@ public class Event extends Task {
         this.toDate = toDate;
     }
 
+    /**
+     * Returns the start date-time of the event.
+     *
+     * @return Start date-time.
+     */
+    public LocalDateTime getFromDate() {
+        return this.fromDate;
+    }
+
+    /**
+     * Returns the end date-time of the event.
+     *
+     * @return End date-time.
+     */
+    public LocalDateTime getToDate() {
+        return this.toDate;
+    }
+
     /**
      * Returns a user-friendly representation of the event task.
      *
@@ -40,14 +57,20 @@ public class Event extends Task {
     }
 
     /**
-     * Returns the file storage representation of this task.
+     * Appends the file storage representation of this task to {@code sb}.
      *
-     * @return Serialized task string.
+     * @param sb Builder to append to.
      */
     @Override
-    public String toFileString() {
-        return "E | " + (isDone ? 1 : 0) + " | " + description + " | "
-                + fromDate.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + " | "
-                + toDate.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+    public void appendFileString(StringBuilder sb) {
+        TaskRecordCodec.appendHeader(sb, TaskType.EVENT, isDone, description);
+        TaskRecordCodec.appendDateTime(sb, fromDate);
+        TaskRecordCodec.appendDateTime(sb, toDate);
+        TaskRecordCodec.appendId(sb, getId());
+    }
+
+    @Override
+    protected Task copyContents() {
+        return new Event(description, fromDate, toDate);
     }
 }
@@ -0,0 +1,215 @@
+package revel.task;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interval tree over the events of a task list, used to find the events that overlap a time range.
+ * <p>
+ * Events are kept in a height-balanced tree ordered by start, with ties broken by the order in
+ * which they were added. Every node also stores the latest end of any event in its subtree, so a
+ * query can skip each subtree that ends before the range starts and stop at the first event that
+ * starts after it ends. Adding and removing an event costs O(log n) and a query O(log n + k) for k
+ * matching events.
+ * </p>
+ */
+final class EventIntervalTree {
+    private final Map<Event, Node> nodes = new IdentityHashMap<>();
+    private Node root;
+    private long nextSequence;
+
+    private static final class Node {
+        private Event event;
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private long sequence;
+        private LocalDateTime maxTo;
+        private Node left;
+        private Node right;
+        private int height = 1;
+
+        private Node(Event event, long sequence) {
+            setEvent(event, sequence);
+        }
+
+        private void setEvent(Event event, long sequence) {
+            this.event = event;
+            this.from = event.getFromDate();
+            this.to = event.getToDate();
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Builds a tree over the events among the given tasks.
+     */
+    EventIntervalTree(List<Task> tasks) {
+        for (Task task : tasks) {
+            if (task instanceof Event event) {
+                add(event);
+            }
+        }
+    }
+
+    int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Adds an event to the tree.
+     */
+    void add(Event event) {
+        Node node = new Node(event, nextSequence++);
+        nodes.put(event, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes an event from the tree; does nothing if it is not in the tree.
+     */
+    void remove(Event event) {
+        Node node = nodes.remove(event);
+        if (node != null) {
+            root = delete(root, node.from, node.sequence);
+        }
+    }
+
+    /**
+     * Puts {@code replacement} in the place of {@code event}, keeping its position among events that
+     * start at the same time if both cover the same time range.
+     */
+    void replace(Event event, Event replacement) {
+        Node node = nodes.get(event);
+        if (node == null) {
+            return;
+        }
+        if (!node.from.equals(replacement.getFromDate()) || !node.to.equals(replacement.getToDate())) {
+            remove(event);
+            add(replacement);
+            return;
+        }
+        nodes.remove(event);
+        node.event = replacement;
+        nodes.put(replacement, node);
+    }
+
+    /**
+     * Returns the events that overlap the range from {@code start} to {@code end}, both inclusive,
+     * ordered by start.
+     */
+    List<Event> findOverlapping(LocalDateTime start, LocalDateTime end) {
+        List<Event> found = new ArrayList<>();
+        collectOverlapping(root, start, end, found);
+        return found;
+    }
+
+    private static void collectOverlapping(Node node, LocalDateTime start, LocalDateTime end, List<Event> found) {
+        if (node == null || node.maxTo.isBefore(start)) {
+            return;
+        }
+        collectOverlapping(node.left, start, end, found);
+        if (node.from.isAfter(end)) {
+            // Everything to the right starts even later.
+            return;
+        }
+        if (!node.to.isBefore(start)) {
+            found.add(node.event);
+        }
+        collectOverlapping(node.right, start, end, found);
+    }
+
+    private static int compare(LocalDateTime from, long sequence, Node node) {
+        int result = from.compareTo(node.from);
+        return result != 0 ? result : Long.compare(sequence, node.sequence);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            update(added);
+            return added;
+        }
+        if (compare(added.from, added.sequence, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return balance(node);
+    }
+
+    private Node delete(Node node, LocalDateTime from, long sequence) {
+        int order = compare(from, sequence, node);
+        if (order < 0) {
+            node.left = delete(node.left, from, sequence);
+        } else if (order > 0) {
+            node.right = delete(node.right, from, sequence);
+        } else if (node.left == null) {
+            return node.right;
+        } else if (node.right == null) {
+            return node.left;
+        } else {
+            Node first = node.right;
+            while (first.left != null) {
+                first = first.left;
+            }
+            // Move the next event into this node, then delete the node it came from.
+            node.right = delete(node.right, first.from, first.sequence);
+            node.setEvent(first.event, first.sequence);
+            nodes.put(node.event, node);
+        }
+        return balance(node);
+    }
+
+    private static Node balance(Node node) {
+        update(node);
+        if (height(node.left) > height(node.right) + 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (height(node.right) > height(node.left) + 1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        LocalDateTime maxTo = node.to;
+        if (node.left != null && node.left.maxTo.isAfter(maxTo)) {
+            maxTo = node.left.maxTo;
+        }
+        if (node.right != null && node.right.maxTo.isAfter(maxTo)) {
+            maxTo = node.right.maxTo;
+        }
+        node.maxTo = maxTo;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+}
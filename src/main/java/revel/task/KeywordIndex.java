@@ -0,0 +1,303 @@
+package revel.task;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted index over task descriptions, used to answer {@code find} queries.
+ * <p>
+ * Every task gets an ordinal in list order, and descriptions are lowercased once when a task is
+ * added. A query is a list of terms: terms are combined with AND, and groups of terms separated by
+ * {@code OR} are combined with OR, by intersecting and merging posting lists. A term matches a task
+ * whose description contains it anywhere, just like {@code String.contains}. Terms of three or more
+ * characters take their candidates from a {@link TrigramIndex} and only those candidates are
+ * checked; shorter terms use an index of the words in the descriptions, matching the tasks of every
+ * word that contains the term.
+ * </p>
+ * <p>
+ * Removed tasks leave their ordinals in the posting lists until the index is rebuilt; they are
+ * skipped when results are collected. Inserting a task anywhere but at the end would break the
+ * ordinal order, so the owner rebuilds the index instead.
+ * </p>
+ */
+final class KeywordIndex {
+    private static final String OR = "OR";
+    private static final String AND = "AND";
+    private static final int[] NO_ORDINALS = new int[0];
+    /** Approximate bytes used per word entry: the map entry, the word string and its posting list object. */
+    private static final int WORD_OVERHEAD_BYTES = 32 + 56 + 16;
+    /** Approximate bytes used per identity map slot pair and boxed ordinal. */
+    private static final int ORDINAL_OVERHEAD_BYTES = 8 + 16;
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final TrigramIndex trigrams = new TrigramIndex();
+    private final Map<Task, Integer> ordinals = new IdentityHashMap<>();
+    private Task[] tasks = new Task[16];
+    private String[] descriptions = new String[16];
+    private int nextOrdinal;
+
+    /**
+     * Builds an index over the given tasks in list order.
+     */
+    KeywordIndex(List<Task> initialTasks) {
+        for (Task task : initialTasks) {
+            add(task);
+        }
+    }
+
+    /**
+     * Adds a task that was appended to the end of the list.
+     */
+    void add(Task task) {
+        int ordinal = nextOrdinal++;
+        if (ordinal == tasks.length) {
+            tasks = Arrays.copyOf(tasks, ordinal * 2);
+            descriptions = Arrays.copyOf(descriptions, ordinal * 2);
+        }
+        String description = task.getDescription().toLowerCase();
+        tasks[ordinal] = task;
+        descriptions[ordinal] = description;
+        ordinals.put(task, ordinal);
+        trigrams.add(ordinal, description);
+
+        int start = -1;
+        for (int i = 0; i <= description.length(); i++) {
+            boolean isWordChar = i < description.length() && Character.isLetterOrDigit(description.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                postings.computeIfAbsent(description.substring(start, i), word -> new PostingList()).add(ordinal);
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * Removes a task from the index.
+     */
+    void remove(Task task) {
+        Integer ordinal = ordinals.remove(task);
+        if (ordinal != null) {
+            tasks[ordinal] = null;
+            descriptions[ordinal] = null;
+        }
+    }
+
+    /**
+     * Puts {@code replacement} in the place of {@code task}, if both have the same description.
+     *
+     * @return False if the descriptions differ, in which case the index is unchanged.
+     */
+    boolean replace(Task task, Task replacement) {
+        Integer ordinal = ordinals.get(task);
+        if (ordinal == null || !task.getDescription().equals(replacement.getDescription())) {
+            return false;
+        }
+        ordinals.remove(task);
+        ordinals.put(replacement, ordinal);
+        tasks[ordinal] = replacement;
+        return true;
+    }
+
+    /**
+     * Returns whether removed tasks take up more of the index than the tasks still in it.
+     */
+    boolean isMostlyRemoved() {
+        return nextOrdinal > 64 && ordinals.size() < nextOrdinal / 2;
+    }
+
+    /**
+     * Returns the tasks that match {@code query}, in list order.
+     *
+     * @param query Lowercased terms separated by whitespace, with {@code OR} between alternatives.
+     */
+    List<Task> search(String query) {
+        int[] result = null;
+        int[] group = null;
+        for (String term : query.trim().split("\\s+")) {
+            if (term.equals(OR)) {
+                // A leading, repeated or trailing OR has no group of terms before it to add.
+                if (group != null) {
+                    result = result == null ? group : union(result, group);
+                }
+                group = null;
+                continue;
+            }
+            if (term.equals(AND)) {
+                continue;
+            }
+            int[] matches = matchTerm(term.toLowerCase());
+            group = group == null ? matches : intersect(group, matches);
+        }
+        if (group != null) {
+            result = result == null ? group : union(result, group);
+        }
+
+        List<Task> found = new ArrayList<>();
+        for (int ordinal : result == null ? NO_ORDINALS : result) {
+            if (tasks[ordinal] != null) {
+                found.add(tasks[ordinal]);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Returns the size of the index and an estimate of the heap memory it uses.
+     */
+    TaskList.SearchIndexStats getStats() {
+        long wordBytes = 0;
+        long wordPostingCount = 0;
+        for (PostingList list : postings.values()) {
+            wordBytes += WORD_OVERHEAD_BYTES + 4L * list.capacity();
+            wordPostingCount += list.size();
+        }
+        long ordinalBytes = (long) ORDINAL_OVERHEAD_BYTES * ordinals.size() + 8L * 2 * tasks.length;
+        long descriptionBytes = 0;
+        for (int i = 0; i < nextOrdinal; i++) {
+            // Lowercasing usually produces a new string, unless the description was lowercase already.
+            if (descriptions[i] != null && tasks[i].getDescription() != descriptions[i]) {
+                descriptionBytes += 40 + descriptions[i].length();
+            }
+        }
+        return new TaskList.SearchIndexStats(ordinals.size(), postings.size(), trigrams.getTrigramCount(),
+                wordPostingCount + trigrams.getPostingCount(),
+                trigrams.estimateFootprintBytes() + wordBytes + ordinalBytes + descriptionBytes);
+    }
+
+    private int[] matchTerm(String term) {
+        if (term.length() >= TrigramIndex.GRAM_LENGTH) {
+            return verify(trigrams.candidates(term), term);
+        }
+        List<String> words = splitWords(term);
+        if (words.size() == 1 && words.get(0).length() == term.length()) {
+            return matchWordPart(term);
+        }
+        return verify(null, term);
+    }
+
+    /**
+     * Returns the candidates, or all tasks if {@code candidates} is null, whose description contains
+     * {@code term}.
+     */
+    private int[] verify(int[] candidates, String term) {
+        int candidateCount = candidates == null ? nextOrdinal : candidates.length;
+        int[] verified = new int[candidateCount];
+        int count = 0;
+        for (int i = 0; i < candidateCount; i++) {
+            int ordinal = candidates == null ? i : candidates[i];
+            if (descriptions[ordinal] != null && descriptions[ordinal].contains(term)) {
+                verified[count++] = ordinal;
+            }
+        }
+        return Arrays.copyOf(verified, count);
+    }
+
+    /**
+     * Returns the ordinals of the tasks with a word that contains {@code part}.
+     */
+    private int[] matchWordPart(String part) {
+        PostingList exact = postings.get(part);
+        List<PostingList> matching = new ArrayList<>();
+        for (Map.Entry<String, PostingList> entry : postings.entrySet()) {
+            if (entry.getValue() != exact && entry.getKey().contains(part)) {
+                matching.add(entry.getValue());
+            }
+        }
+        if (matching.isEmpty()) {
+            return exact == null ? NO_ORDINALS : exact.toArray();
+        }
+        if (exact != null) {
+            matching.add(exact);
+        }
+        int total = 0;
+        for (PostingList list : matching) {
+            total += list.size();
+        }
+        int[] merged = new int[total];
+        int offset = 0;
+        for (PostingList list : matching) {
+            list.copyTo(merged, offset);
+            offset += list.size();
+        }
+        Arrays.sort(merged);
+        return distinct(merged);
+    }
+
+    private static List<String> splitWords(String text) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean isWordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (isWordChar && start < 0) {
+                start = i;
+            } else if (!isWordChar && start >= 0) {
+                words.add(text.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static int[] distinct(int[] sorted) {
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return count == sorted.length ? sorted : Arrays.copyOf(sorted, count);
+    }
+
+    /**
+     * Intersects two ascending ordinal lists, stepping through the shorter one and binary-searching
+     * the longer one from the last match onwards.
+     */
+    static int[] intersect(int[] a, int[] b) {
+        int[] shorter = a.length <= b.length ? a : b;
+        int[] longer = shorter == a ? b : a;
+        int[] result = new int[shorter.length];
+        int count = 0;
+        int from = 0;
+        for (int ordinal : shorter) {
+            int position = Arrays.binarySearch(longer, from, longer.length, ordinal);
+            if (position >= 0) {
+                result[count++] = ordinal;
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+            if (from == longer.length) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Merges two ascending ordinal lists, dropping duplicates.
+     */
+    static int[] union(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int count = 0;
+        while (i < a.length || j < b.length) {
+            int next;
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                next = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                next = b[j++];
+            } else {
+                next = a[i++];
+                j++;
+            }
+            result[count++] = next;
+        }
+        return Arrays.copyOf(result, count);
+    }
+}
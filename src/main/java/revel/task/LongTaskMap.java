@@ -0,0 +1,136 @@
+package revel.task;
+
+/**
+ * Hash map from positive {@code long} keys to tasks, stored in two flat arrays.
+ * <p>
+ * Keys are kept unboxed and collisions are resolved by linear probing, so a lookup usually reads
+ * one or two neighbouring array slots. The key 0 marks an empty slot. Removal shifts later entries
+ * of the same probe run back instead of leaving markers behind, so lookups never slow down after
+ * many removals. The table doubles whenever it becomes half full.
+ * </p>
+ */
+final class LongTaskMap {
+    private static final int MIN_CAPACITY = 16;
+    /** Odd multiplier close to 2^64 divided by the golden ratio, used to spread consecutive keys. */
+    private static final long HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private Task[] values;
+    private int size;
+    private int shift;
+
+    LongTaskMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * Creates a map with room for {@code expectedSize} entries before it has to grow.
+     */
+    LongTaskMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the task stored under {@code key}, or null if there is none.
+     */
+    Task get(long key) {
+        assert key > 0 : "key must be positive";
+        int mask = keys.length - 1;
+        for (int slot = slot(key); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stores {@code task} under {@code key}.
+     *
+     * @return Task previously stored under {@code key}, or null if there was none.
+     */
+    Task put(long key, Task task) {
+        assert key > 0 : "key must be positive";
+        int mask = keys.length - 1;
+        int slot = slot(key);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                Task previous = values[slot];
+                values[slot] = task;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = task;
+        if (++size * 2 > keys.length) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the entry for {@code key}.
+     *
+     * @return Task that was stored under {@code key}, or null if there was none.
+     */
+    Task remove(long key) {
+        assert key > 0 : "key must be positive";
+        int mask = keys.length - 1;
+        int slot = slot(key);
+        while (keys[slot] != key) {
+            if (keys[slot] == 0) {
+                return null;
+            }
+            slot = (slot + 1) & mask;
+        }
+        Task removed = values[slot];
+        size--;
+
+        // Move back every later entry of the run that would no longer be found past the new gap.
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = 0;
+        values[gap] = null;
+        return removed;
+    }
+
+    private int slot(long key) {
+        return (int) ((key * HASH_MULTIPLIER) >>> shift);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Task[capacity];
+        shift = Long.SIZE - Integer.numberOfTrailingZeros(capacity);
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Task[] oldValues = values;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
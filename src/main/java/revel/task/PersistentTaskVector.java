@@ -0,0 +1,196 @@
+package revel.task;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable sequence of tasks stored in a height-balanced tree indexed by position.
+ * <p>
+ * Every update returns a new vector that shares all untouched subtrees with the old one, so an
+ * update costs O(log n) time and O(log n) new nodes, and old versions stay valid for as long as
+ * they are referenced. This makes keeping earlier versions of the list cheap.
+ * </p>
+ */
+final class PersistentTaskVector implements Iterable<Task> {
+    static final PersistentTaskVector EMPTY = new PersistentTaskVector(null);
+
+    private final Node root;
+
+    private record Node(Task task, Node left, Node right, int size, int height) {
+    }
+
+    private PersistentTaskVector(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Returns a vector holding the given tasks in order, built in O(n).
+     */
+    static PersistentTaskVector of(List<Task> tasks) {
+        return tasks.isEmpty() ? EMPTY : new PersistentTaskVector(build(tasks, 0, tasks.size()));
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    boolean isEmpty() {
+        return root == null;
+    }
+
+    Task get(int index) {
+        checkIndex(index, size());
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.task;
+            }
+        }
+    }
+
+    PersistentTaskVector set(int index, Task task) {
+        checkIndex(index, size());
+        return new PersistentTaskVector(set(root, index, task));
+    }
+
+    PersistentTaskVector insert(int index, Task task) {
+        checkIndex(index, size() + 1);
+        return new PersistentTaskVector(insert(root, index, task));
+    }
+
+    PersistentTaskVector remove(int index) {
+        checkIndex(index, size());
+        return new PersistentTaskVector(remove(root, index));
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return new Iterator<>() {
+            private final Deque<Node> path = new ArrayDeque<>();
+
+            {
+                pushLeft(root);
+            }
+
+            private void pushLeft(Node node) {
+                for (Node n = node; n != null; n = n.left) {
+                    path.push(n);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public Task next() {
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node node = path.pop();
+                pushLeft(node.right);
+                return node.task;
+            }
+        };
+    }
+
+    private static void checkIndex(int index, int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + bound);
+        }
+    }
+
+    private static Node build(List<Task> tasks, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        return node(tasks.get(mid), build(tasks, from, mid), build(tasks, mid + 1, to));
+    }
+
+    private static Node set(Node node, int index, Task task) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return node(node.task, set(node.left, index, task), node.right);
+        }
+        if (index > leftSize) {
+            return node(node.task, node.left, set(node.right, index - leftSize - 1, task));
+        }
+        return node(task, node.left, node.right);
+    }
+
+    private static Node insert(Node node, int index, Task task) {
+        if (node == null) {
+            return node(task, null, null);
+        }
+        int leftSize = size(node.left);
+        if (index <= leftSize) {
+            return balance(node.task, insert(node.left, index, task), node.right);
+        }
+        return balance(node.task, node.left, insert(node.right, index - leftSize - 1, task));
+    }
+
+    private static Node remove(Node node, int index) {
+        int leftSize = size(node.left);
+        if (index < leftSize) {
+            return balance(node.task, remove(node.left, index), node.right);
+        }
+        if (index > leftSize) {
+            return balance(node.task, node.left, remove(node.right, index - leftSize - 1));
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node first = node.right;
+        while (first.left != null) {
+            first = first.left;
+        }
+        return balance(first.task, node.left, remove(node.right, 0));
+    }
+
+    /**
+     * Joins two subtrees whose heights differ by at most two, rotating them back into balance.
+     */
+    private static Node balance(Task task, Node left, Node right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return node(left.task, left.left, node(task, left.right, right));
+            }
+            Node inner = left.right;
+            return node(inner.task, node(left.task, left.left, inner.left), node(task, inner.right, right));
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return node(right.task, node(task, left, right.left), right.right);
+            }
+            Node inner = right.left;
+            return node(inner.task, node(task, left, inner.left), node(right.task, inner.right, right.right));
+        }
+        return node(task, left, right);
+    }
+
+    private static Node node(Task task, Node left, Node right) {
+        return new Node(task, left, right, size(left) + size(right) + 1, Math.max(height(left), height(right)) + 1);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+}
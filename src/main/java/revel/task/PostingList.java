@@ -0,0 +1,67 @@
+package revel.task;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of ascending task ordinals, as used by the search indexes.
+ */
+final class PostingList {
+    private int[] ordinals = new int[2];
+    private int size;
+
+    /**
+     * Appends {@code ordinal}, which must not be smaller than the last one; repeats are ignored.
+     */
+    void add(int ordinal) {
+        if (size > 0 && ordinals[size - 1] == ordinal) {
+            return;
+        }
+        assert size == 0 || ordinals[size - 1] < ordinal : "ordinals must be ascending";
+        if (size == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, size * 2);
+        }
+        ordinals[size++] = ordinal;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return ordinals.length;
+    }
+
+    /**
+     * Copies the ordinals into {@code target} starting at {@code offset}.
+     */
+    void copyTo(int[] target, int offset) {
+        System.arraycopy(ordinals, 0, target, offset, size);
+    }
+
+    /**
+     * Returns the ordinals of {@code sorted} that are also in this list, binary-searching this list
+     * from the last match onwards.
+     */
+    int[] retainAll(int[] sorted) {
+        int[] result = new int[Math.min(sorted.length, size)];
+        int count = 0;
+        int from = 0;
+        for (int ordinal : sorted) {
+            int position = Arrays.binarySearch(ordinals, from, size, ordinal);
+            if (position >= 0) {
+                result[count++] = ordinal;
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+            if (from == size) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(ordinals, size);
+    }
+}
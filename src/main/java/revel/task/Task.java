@@ -1,9 +1,5 @@
 package revel.task;
 
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
-
 import revel.RevelException;
 
 
@@ -11,7 +7,10 @@ import revel.RevelException;
  * Represents a task in the task list.
  */
 public abstract class Task {
-    private enum TaskType {
+    /**
+     * Represents the task kinds and their codes in the file storage representation.
+     */
+    enum TaskType {
         TODO("TD"),
         DEADLINE("DL"),
         EVENT("E");
@@ -20,22 +19,13 @@ public abstract class Task {
         TaskType(String code) {
             this.code = code;
         }
-
-        static TaskType fromCode(String code) throws RevelException {
-            for (TaskType t : TaskType.values()) {
-                if (t.code.equals(code)) {
-                    return t;
-                }
-            }
-            throw new RevelException("Unknown task type: " + code);
-        }
     }
 
-    private static final String DONE_FLAG = "1";
     private static final String DONE_ICON = "X";
     private static final String NOT_DONE_ICON = " ";
     protected final String description;
     protected boolean isDone;
+    private long id;
 
     /**
      * Creates a task with the given description.
@@ -55,43 +45,10 @@ public abstract class Task {
      *
      * @param line Serialized task string.
      * @return Parsed task instance.
+     * @throws RevelException If the line is not a valid task record.
      */
     public static Task fromFileString(String line) throws RevelException {
-        String[] parts = line.split("\\s*\\|\\s*", -1);
-        try {
-            String type = parts[0];
-            TaskType taskType = TaskType.fromCode(type);
-            boolean isDone = parts[1].equals(DONE_FLAG);
-            String desc = parts[2];
-
-
-            Task task;
-            switch (taskType) {
-            case TODO:
-                task = new ToDo(desc);
-                break;
-            case DEADLINE:
-                LocalDateTime byDate = LocalDateTime.parse(parts[3], DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-                task = new Deadline(desc, byDate);
-                break;
-            case EVENT:
-                LocalDateTime fromDate = LocalDateTime.parse(parts[3], DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-                LocalDateTime toDate = LocalDateTime.parse(parts[4], DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-                task = new Event(desc, fromDate, toDate);
-                break;
-            default:
-                throw new RevelException("Unknown task type: " + type);
-            }
-
-            if (isDone) {
-                task.markAsDone();
-            }
-            return task;
-        } catch (ArrayIndexOutOfBoundsException e) {
-            throw new RevelException("Invalid/Corrupt data!");
-        } catch (DateTimeParseException e) {
-            throw new RevelException("Invalid date format!");
-        }
+        return TaskRecordCodec.decode(line);
     }
 
     /**
@@ -103,6 +60,28 @@ public abstract class Task {
         return this.description;
     }
 
+    /**
+     * Returns the ID of the task, which stays the same when other tasks are added or deleted.
+     * <p>
+     * IDs are given out by the {@link TaskList} the task is added to, and are stored with the task.
+     * </p>
+     *
+     * @return Positive ID, or 0 if none has been given yet.
+     */
+    public long getId() {
+        return this.id;
+    }
+
+    /**
+     * Sets the ID of the task, for storage code that reads a task together with its ID.
+     *
+     * @param id Positive ID.
+     */
+    public void setId(long id) {
+        assert id > 0 : "id must be positive";
+        this.id = id;
+    }
+
     /**
      * Returns the completion status icon.
      *
@@ -135,6 +114,34 @@ public abstract class Task {
         this.isDone = false;
     }
 
+    /**
+     * Returns a new task with the same ID, contents and completion status.
+     *
+     * @return Independent copy of this task.
+     */
+    public Task copy() {
+        Task copy = copyContents();
+        copy.isDone = this.isDone;
+        copy.id = this.id;
+        return copy;
+    }
+
+    /**
+     * Returns whether {@code other} is the same kind of task with the same ID, description and dates,
+     * whatever the completion status of either.
+     */
+    boolean hasSameContents(Task other) {
+        return getClass() == other.getClass() && id == other.id
+                && copyContents().toFileString().equals(other.copyContents().toFileString());
+    }
+
+    /**
+     * Returns a new task with the same description and dates, not yet completed and without an ID.
+     *
+     * @return Copy of this task without its completion status and ID.
+     */
+    protected abstract Task copyContents();
+
     /**
      * Returns the user-facing representation of the task.
      *
@@ -150,5 +157,19 @@ public abstract class Task {
      *
      * @return Serialized task string.
      */
-    public abstract String toFileString();
+    public String toFileString() {
+        StringBuilder sb = new StringBuilder(description.length() + 48);
+        appendFileString(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Appends the file storage representation of this task to {@code sb}.
+     * <p>
+     * Callers that serialise many tasks can reuse one builder instead of creating a string per task.
+     * </p>
+     *
+     * @param sb Builder to append to.
+     */
+    public abstract void appendFileString(StringBuilder sb);
 }
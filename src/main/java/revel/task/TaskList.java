@@ -1,22 +1,127 @@
 package revel.task;
 
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 import revel.RevelException;
 import revel.parser.TaskArgumentParser;
 
 /**
  * Stores and manages a list of tasks.
+ * <p>
+ * Changes can be grouped into a transaction. Inside a transaction the committed list is left
+ * untouched: the first change copies it into an overlay, and a task is copied before it is first
+ * marked or unmarked, so rolling back only drops the overlay.
+ * </p>
+ * <p>
+ * The tasks are kept in a {@link PersistentTaskVector}, a balanced tree indexed by position, so
+ * getting, inserting and deleting a task by its number each cost O(log n) however long the list
+ * is. A list given to {@link #backedBy(List)} is used as it is until it is first changed, so that a
+ * lazily loaded list stays lazy while it is only read. With history enabled, each recorded version shares all
+ * unchanged parts with the next one, so a history step costs O(log n) memory for a command that
+ * changes one task, and tasks are copied before their status changes so that older versions keep
+ * their own status.
+ * </p>
+ * <p>
+ * Searches use a {@link KeywordIndex}, time range queries an {@link EventIntervalTree} and due date
+ * queries a {@link DueDateIndex}. Each is
+ * built on the first query that needs it and then kept up to date as tasks are added and deleted.
+ * Changes that move tasks around, such as undo or reloading, discard them so that they are
+ * rebuilt on the next query.
+ * </p>
+ * <p>
+ * Every task in the list has an ID that stays the same when other tasks are added or deleted, so
+ * commands can refer to a task as {@code #<id>} as well as by its number. IDs are given out in
+ * increasing order and are kept in a {@link LongTaskMap} for constant-time lookups. Tasks loaded
+ * without an ID, or with an ID already taken, get a new one the first time IDs are needed; this
+ * reads every task of a lazily loaded list once, as the first change to it does. Such IDs are only
+ * kept if the list is then saved as a whole (see {@link #takeUnsavedIds()}), and an {@link IdSource}
+ * can hand out IDs that programs sharing the stored tasks agree on.
+ * </p>
  */
 public class TaskList {
-    final ArrayList<Task> storedTasks;
+    /** System property with the number of steps that can be undone; 0 disables undo. */
+    public static final String HISTORY_DEPTH_PROPERTY = "revel.history.depth";
+    /** Number of steps that can be undone if {@link #HISTORY_DEPTH_PROPERTY} is not set. */
+    public static final int DEFAULT_HISTORY_DEPTH = 50;
+
+    /** Most single-task changes an undo step is reported as before it is reported as a replacement. */
+    private static final int MAX_REPORTED_CHANGES = 32;
+
+    List<Task> storedTasks;
+    private List<Task> committedTasks;
+    private Set<Task> transactionTasks;
+    private int historyDepth;
+    private final Deque<PersistentTaskVector> undoVersions = new ArrayDeque<>();
+    private final Deque<PersistentTaskVector> redoVersions = new ArrayDeque<>();
+    private PersistentTaskVector recordedVersion;
+    private KeywordIndex keywordIndex;
+    private EventIntervalTree eventIndex;
+    private DueDateIndex dueDateIndex;
+    private LongTaskMap idIndex;
+    private long nextId = 1;
+    private long reservedIdEnd;
+    private IdSource idSource;
+    private boolean hasUnsavedIds;
+
+    /**
+     * Receives the changes an undo or redo makes to the list, so that they can be saved one by one.
+     */
+    public interface ChangeListener {
+        /**
+         * Called after a task has been inserted.
+         *
+         * @param index Index of the inserted task.
+         */
+        void taskInserted(int index);
+
+        /**
+         * Called after a task has been removed.
+         *
+         * @param index Index the task occupied before removal.
+         */
+        void taskDeleted(int index);
+
+        /**
+         * Called after a task has been marked or unmarked.
+         *
+         * @param index Index of the changed task.
+         */
+        void taskStatusChanged(int index);
+
+        /**
+         * Called instead of the other methods when so many tasks changed that the list is better
+         * saved as a whole.
+         */
+        void tasksReplaced();
+    }
+
+    /**
+     * Gives out task IDs that no other program adding tasks to the same storage gives out as well.
+     */
+    public interface IdSource {
+        /**
+         * Reserves {@code count} consecutive IDs for this list.
+         *
+         * @param minimum Lowest ID this list may use, as it already has every lower one or gave it out.
+         * @param count Number of IDs needed.
+         * @return First of the reserved IDs, which is at least {@code minimum}.
+         */
+        long reserve(long minimum, int count);
+    }
 
     /**
      * Creates an empty task list.
      */
     public TaskList() {
-        this.storedTasks = new ArrayList<>();
+        this.storedTasks = new VersionedTaskList(PersistentTaskVector.EMPTY);
     }
 
     /**
@@ -25,8 +130,25 @@ public class TaskList {
      * @param storedTasks Tasks to initialize with.
      */
     public TaskList(List<Task> storedTasks) {
-        this.storedTasks = new ArrayList<>();
-        this.storedTasks.addAll(storedTasks);
+        this(storedTasks, true);
+    }
+
+    private TaskList(List<Task> storedTasks, boolean isCopied) {
+        this.storedTasks = isCopied ? new VersionedTaskList(PersistentTaskVector.of(storedTasks)) : storedTasks;
+    }
+
+    /**
+     * Creates a task list that uses the given modifiable list directly instead of copying it.
+     * <p>
+     * This keeps lazily loaded lists from {@code Storage} lazy until the first change, which moves
+     * the tasks into the position-indexed tree. The given list must not be used elsewhere afterwards.
+     * </p>
+     *
+     * @param storedTasks Modifiable list to use as the backing list.
+     * @return Task list backed by {@code storedTasks}.
+     */
+    public static TaskList backedBy(List<Task> storedTasks) {
+        return new TaskList(storedTasks, false);
     }
 
     /**
@@ -38,6 +160,74 @@ public class TaskList {
         return this.storedTasks;
     }
 
+    /**
+     * Discards the search indexes, so that they are rebuilt from the list on the next search.
+     * <p>
+     * Must be called after the list returned by {@link #getTaskList()} was changed directly.
+     * </p>
+     */
+    public void refreshIndexes() {
+        keywordIndex = null;
+        eventIndex = null;
+        dueDateIndex = null;
+        idIndex = null;
+    }
+
+    /**
+     * Adds a task to the indexes; the ID index must have been built before the task was added.
+     */
+    private void indexAdded(Task task) {
+        indexId(task);
+        if (keywordIndex != null) {
+            keywordIndex.add(task);
+        }
+        if (eventIndex != null && task instanceof Event event) {
+            eventIndex.add(event);
+        }
+        if (dueDateIndex != null) {
+            dueDateIndex.add(task);
+        }
+    }
+
+    private void indexRemoved(Task task) {
+        if (idIndex != null && task.getId() > 0 && idIndex.get(task.getId()) == task) {
+            idIndex.remove(task.getId());
+        }
+        if (keywordIndex != null) {
+            keywordIndex.remove(task);
+            if (keywordIndex.isMostlyRemoved()) {
+                keywordIndex = null;
+            }
+        }
+        if (eventIndex != null && task instanceof Event event) {
+            eventIndex.remove(event);
+        }
+        if (dueDateIndex != null) {
+            dueDateIndex.remove(task);
+        }
+    }
+
+    private void indexReplaced(Task task, Task replacement) {
+        if (idIndex != null && task.getId() > 0 && idIndex.get(task.getId()) == task) {
+            idIndex.put(task.getId(), replacement);
+        }
+        if (keywordIndex != null && !keywordIndex.replace(task, replacement)) {
+            keywordIndex = null;
+        }
+        if (eventIndex != null && task instanceof Event event) {
+            eventIndex.replace(event, (Event) replacement);
+        }
+        if (dueDateIndex != null) {
+            dueDateIndex.replace(task, replacement);
+        }
+    }
+
+    private void indexStatusChanged(Task task) {
+        if (dueDateIndex != null) {
+            dueDateIndex.statusChanged(task);
+        }
+    }
+
     /**
      * Returns the number of tasks in the list.
      *
@@ -65,12 +255,159 @@ public class TaskList {
      * @throws RevelException If the task number is invalid.
      */
     public Task getTask(String argsLine) throws RevelException {
+        return this.storedTasks.get(getIndex(argsLine));
+    }
+
+    /**
+     * Returns the index of the task referenced by the argument string.
+     *
+     * @param argsLine Argument string containing a task number, or {@code #} followed by a task ID.
+     * @return Zero-based index of the task.
+     * @throws RevelException If the task number or ID is invalid.
+     */
+    public int getIndex(String argsLine) throws RevelException {
+        String reference = argsLine.trim();
+        if (reference.startsWith(TaskArgumentParser.ID_PREFIX)) {
+            return indexOfId(TaskArgumentParser.parseTaskId(reference));
+        }
         int itemCount = this.storedTasks.size();
-        int selectedNumber = TaskArgumentParser.parseTaskNumber(TaskArgumentParser.parseNumber(argsLine), itemCount);
-        return this.storedTasks.get(selectedNumber - 1);
+        return TaskArgumentParser.parseTaskNumber(TaskArgumentParser.parseNumber(reference), itemCount) - 1;
+    }
+
+    /**
+     * Returns the ID of the task at the given index, giving out IDs first if needed.
+     *
+     * @param i Zero-based index.
+     * @return ID of the task.
+     */
+    public long getId(int i) {
+        getIdIndex();
+        return this.storedTasks.get(i).getId();
+    }
+
+    /**
+     * Returns the index of the task with the given ID.
+     * <p>
+     * Tasks are normally in ID order, as IDs are given out increasingly and tasks are added at the
+     * end, so the task is looked for by binary search first and by a scan only if that misses.
+     * </p>
+     */
+    private int indexOfId(long id) throws RevelException {
+        Task task = getIdIndex().get(id);
+        if (task == null) {
+            throw new RevelException(" Sorry, but there is no task with ID #" + id + ".\n"
+                    + "Use 'list' to see the IDs of your tasks.");
+        }
+        int low = 0;
+        int high = this.storedTasks.size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            Task candidate = this.storedTasks.get(mid);
+            if (candidate == task) {
+                return mid;
+            }
+            if (candidate.getId() < id) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        int index = 0;
+        for (Task candidate : this.storedTasks) {
+            if (candidate == task) {
+                return index;
+            }
+            index++;
+        }
+        throw new AssertionError("task with ID #" + id + " is indexed but not in the list");
+    }
+
+    private LongTaskMap getIdIndex() {
+        if (idIndex == null) {
+            buildIdIndex();
+        }
+        return idIndex;
     }
 
-    private Task getTaskForUpdate(String argsLine, String actionPast, String actionCommand) throws RevelException {
+    /**
+     * Indexes the IDs of all tasks, giving new IDs to tasks without one or with one that is taken.
+     * <p>
+     * Such new IDs are remembered for {@link #takeUnsavedIds()}. Tasks being added are only indexed
+     * after this, since their IDs are saved along with them.
+     * </p>
+     */
+    private void buildIdIndex() {
+        idIndex = new LongTaskMap(this.storedTasks.size());
+        List<Task> unassigned = new ArrayList<>();
+        for (Task task : this.storedTasks) {
+            long id = task.getId();
+            if (id == 0 || idIndex.get(id) != null) {
+                unassigned.add(task);
+            } else {
+                idIndex.put(id, task);
+                nextId = Math.max(nextId, id + 1);
+            }
+        }
+        reserveIds(unassigned.size());
+        unassigned.forEach(this::indexId);
+        hasUnsavedIds |= !unassigned.isEmpty();
+    }
+
+    /**
+     * Adds a task to the ID index, first giving it a new ID if it has none or its ID is taken.
+     */
+    private void indexId(Task task) {
+        long id = task.getId();
+        Task existing = id == 0 ? null : idIndex.get(id);
+        if (id == 0 || (existing != null && existing != task)) {
+            reserveIds(1);
+            id = nextId++;
+            task.setId(id);
+        } else {
+            nextId = Math.max(nextId, id + 1);
+        }
+        idIndex.put(id, task);
+    }
+
+    /**
+     * Makes sure that the next {@code count} IDs from {@code nextId} on are reserved with the ID source, if any.
+     */
+    private void reserveIds(int count) {
+        if (idSource == null || count == 0 || nextId + count <= reservedIdEnd) {
+            return;
+        }
+        nextId = Math.max(nextId, idSource.reserve(nextId, count));
+        reservedIdEnd = nextId + count;
+    }
+
+    /**
+     * Sets where IDs for new tasks are reserved, so that programs sharing the stored tasks do not give
+     * out the same ID twice.
+     *
+     * @param idSource Source of IDs, or null to give out IDs from this list alone.
+     */
+    public void setIdSource(IdSource idSource) {
+        this.idSource = idSource;
+        this.reservedIdEnd = 0;
+    }
+
+    /**
+     * Returns whether tasks that were loaded without an ID, or with one that was already taken, were
+     * given a new ID since the last call, and forgets it.
+     * <p>
+     * Those IDs are not part of any change that is saved, so the caller should save the whole list
+     * once for the tasks to keep them.
+     * </p>
+     *
+     * @return Whether the list has IDs that are not saved yet.
+     */
+    public boolean takeUnsavedIds() {
+        boolean result = hasUnsavedIds;
+        hasUnsavedIds = false;
+        return result;
+    }
+
+    private int getIndexForUpdate(String argsLine, String actionPast, String actionCommand) throws RevelException {
         int itemCount = this.storedTasks.size();
         if (itemCount == 0) {
             throw new RevelException("Sorry, but there are no tasks to be " + actionPast + ".\n"
@@ -81,29 +418,319 @@ public class TaskList {
             throw new RevelException("Sorry, but the task number cannot be empty.\n"
                     + "Usage: " + actionCommand + " <number>");
         }
-        return getTask(argsLine);
+        return getIndex(argsLine);
+    }
+
+    private Task getTaskForUpdate(int index, boolean isDoneAfter) {
+        Task task = this.storedTasks.get(index);
+        return task.isDone() == isDoneAfter ? task : ownTask(index);
+    }
+
+    /**
+     * Returns the task at {@code index}, first replacing it with a copy if it may also belong to the
+     * committed list of a transaction or to a recorded version, so that changing it leaves those untouched.
+     */
+    private Task ownTask(int index) {
+        Task task = this.storedTasks.get(index);
+        boolean isShared = isHistoryEnabled() || (isInTransaction() && !transactionTasks.contains(task));
+        if (!isShared) {
+            return task;
+        }
+        prepareChange();
+        Task copy = task.copy();
+        this.storedTasks.set(index, copy);
+        indexReplaced(task, copy);
+        if (isInTransaction()) {
+            transactionTasks.add(copy);
+        }
+        return copy;
+    }
+
+    /**
+     * Moves a list given to {@link #backedBy(List)} into a persistent vector before its first change,
+     * and copies the committed list into the overlay before the first change of a transaction.
+     */
+    private void prepareChange() {
+        if (!(this.storedTasks instanceof VersionedTaskList)) {
+            // The vector is a copy, so this also leaves the committed list of a transaction untouched.
+            this.storedTasks = new VersionedTaskList(PersistentTaskVector.of(this.storedTasks));
+            if (isHistoryEnabled() && recordedVersion == null) {
+                recordedVersion = currentVersion();
+            }
+        } else if (isInTransaction() && this.storedTasks == committedTasks) {
+            this.storedTasks = new VersionedTaskList(((VersionedTaskList) committedTasks).getVersion());
+        }
+    }
+
+    /**
+     * Keeps up to {@code depth} earlier versions of the list so that changes can be undone.
+     * <p>
+     * A list given to {@link #backedBy(List)} is left as it is until its first change, so enabling
+     * history does not read every task of a lazily loaded list. A depth of 0 turns history off again.
+     * </p>
+     *
+     * @param depth Number of steps that can be undone.
+     */
+    public void enableHistory(int depth) {
+        assert depth >= 0 : "depth must not be negative";
+        assert !isInTransaction() : "history cannot be enabled during a transaction";
+        historyDepth = depth;
+        undoVersions.clear();
+        redoVersions.clear();
+        recordedVersion = depth == 0 ? null : currentVersion();
+    }
+
+    private boolean isHistoryEnabled() {
+        return historyDepth > 0;
+    }
+
+    /**
+     * Returns the current version, or null if the list has not been moved into a persistent vector yet.
+     */
+    private PersistentTaskVector currentVersion() {
+        return this.storedTasks instanceof VersionedTaskList versioned ? versioned.getVersion() : null;
+    }
+
+    /**
+     * Records the current list as a new step in the history if it changed since the last step.
+     * <p>
+     * Nothing is recorded while a transaction is open, so a committed transaction becomes a single
+     * step. Recording a step clears the steps that could be redone.
+     * </p>
+     */
+    public void recordHistory() {
+        PersistentTaskVector current = currentVersion();
+        if (!isHistoryEnabled() || isInTransaction() || current == null || current == recordedVersion) {
+            return;
+        }
+        undoVersions.push(recordedVersion);
+        if (undoVersions.size() > historyDepth) {
+            undoVersions.removeLast();
+        }
+        redoVersions.clear();
+        recordedVersion = currentVersion();
+    }
+
+    /**
+     * Forgets every recorded step, for changes that cannot be undone such as archiving.
+     */
+    public void clearHistory() {
+        if (!isHistoryEnabled()) {
+            return;
+        }
+        undoVersions.clear();
+        redoVersions.clear();
+        recordedVersion = currentVersion();
+    }
+
+    /**
+     * Restores the list as it was before the last recorded step.
+     *
+     * @param listener Receives each change made to the list.
+     * @return False if there is nothing to undo.
+     * @throws RevelException If a transaction is open.
+     */
+    public boolean undo(ChangeListener listener) throws RevelException {
+        return moveInHistory(undoVersions, redoVersions, "undo", listener);
+    }
+
+    /**
+     * Reapplies the last step that was undone.
+     *
+     * @param listener Receives each change made to the list.
+     * @return False if there is nothing to redo.
+     * @throws RevelException If a transaction is open.
+     */
+    public boolean redo(ChangeListener listener) throws RevelException {
+        return moveInHistory(redoVersions, undoVersions, "redo", listener);
+    }
+
+    private boolean moveInHistory(Deque<PersistentTaskVector> from, Deque<PersistentTaskVector> to, String action,
+            ChangeListener listener) throws RevelException {
+        if (isInTransaction()) {
+            throw new RevelException("Sorry, but you cannot " + action + " during a transaction.\n"
+                    + "Use 'rollback' to discard its changes, or 'commit' first.");
+        }
+        if (from.isEmpty()) {
+            return false;
+        }
+        recordHistory();
+        PersistentTaskVector target = from.pop();
+        to.push(currentVersion());
+        changeTo(target, listener);
+        recordedVersion = target;
+        return true;
+    }
+
+    /**
+     * Turns the current version into {@code target} one change at a time, reporting each change.
+     * <p>
+     * Only the range between the longest common prefix and suffix is touched. If the range holds
+     * the same tasks with a different status, only the status changes are reported; otherwise the
+     * old tasks in the range are deleted and the new ones inserted.
+     * </p>
+     */
+    private void changeTo(PersistentTaskVector target, ChangeListener listener) {
+        refreshIndexes();
+        VersionedTaskList list = (VersionedTaskList) this.storedTasks;
+        PersistentTaskVector current = list.getVersion();
+        int prefix = 0;
+        Iterator<Task> currentTasks = current.iterator();
+        Iterator<Task> targetTasks = target.iterator();
+        while (currentTasks.hasNext() && targetTasks.hasNext() && currentTasks.next() == targetTasks.next()) {
+            prefix++;
+        }
+        int currentEnd = current.size();
+        int targetEnd = target.size();
+        while (currentEnd > prefix && targetEnd > prefix
+                && current.get(currentEnd - 1) == target.get(targetEnd - 1)) {
+            currentEnd--;
+            targetEnd--;
+        }
+
+        int removedCount = currentEnd - prefix;
+        int insertedCount = targetEnd - prefix;
+        boolean isStatusOnly = removedCount == insertedCount;
+        for (int i = prefix; isStatusOnly && i < currentEnd; i++) {
+            isStatusOnly = current.get(i).hasSameContents(target.get(i));
+        }
+        int changeCount = isStatusOnly ? removedCount : removedCount + insertedCount;
+        if (changeCount > MAX_REPORTED_CHANGES) {
+            list.setVersion(target);
+            listener.tasksReplaced();
+            return;
+        }
+
+        if (isStatusOnly) {
+            for (int i = prefix; i < currentEnd; i++) {
+                list.set(i, target.get(i));
+                listener.taskStatusChanged(i);
+            }
+        } else {
+            for (int i = currentEnd - 1; i >= prefix; i--) {
+                list.remove(i);
+                listener.taskDeleted(i);
+            }
+            for (int i = prefix; i < targetEnd; i++) {
+                list.add(i, target.get(i));
+                listener.taskInserted(i);
+            }
+        }
+        // The result equals the target; keep the target itself so that it shares its nodes.
+        list.setVersion(target);
+    }
+
+    /**
+     * Returns whether a transaction is open.
+     *
+     * @return True between {@link #beginTransaction()} and the matching commit or rollback.
+     */
+    public boolean isInTransaction() {
+        return committedTasks != null;
+    }
+
+    /**
+     * Opens a transaction; later changes can be kept with {@link #commitTransaction()} or undone
+     * with {@link #rollbackTransaction()}.
+     *
+     * @throws RevelException If a transaction is already open.
+     */
+    public void beginTransaction() throws RevelException {
+        if (isInTransaction()) {
+            throw new RevelException("Sorry, but a transaction is already in progress.\n"
+                    + "Use 'commit' or 'rollback' to finish it first.");
+        }
+        committedTasks = this.storedTasks;
+        transactionTasks = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Keeps the changes made in the open transaction and closes it.
+     *
+     * @return True if the list was changed in the transaction.
+     * @throws RevelException If no transaction is open.
+     */
+    public boolean commitTransaction() throws RevelException {
+        requireTransaction("commit");
+        boolean isChanged = this.storedTasks != committedTasks;
+        committedTasks = null;
+        transactionTasks = null;
+        return isChanged;
+    }
+
+    /**
+     * Discards the changes made in the open transaction and closes it.
+     *
+     * @return True if the list had been changed in the transaction.
+     * @throws RevelException If no transaction is open.
+     */
+    public boolean rollbackTransaction() throws RevelException {
+        requireTransaction("roll back");
+        boolean isChanged = this.storedTasks != committedTasks;
+        if (isChanged) {
+            refreshIndexes();
+        }
+        this.storedTasks = committedTasks;
+        committedTasks = null;
+        transactionTasks = null;
+        return isChanged;
+    }
+
+    private void requireTransaction(String action) throws RevelException {
+        if (!isInTransaction()) {
+            throw new RevelException("Sorry, but there is no transaction to " + action + ".\n"
+                    + "Use 'begin' to start one.");
+        }
     }
 
     /**
      * Returns the task to be marked.
+     * <p>
+     * Use {@link #markTaskAt(int)} to change the task, so that the due date index sees the change.
+     * </p>
      *
      * @param argsLine Argument string containing a task number.
      * @return Selected task.
      * @throws RevelException If the task number is invalid.
      */
     public Task getTaskForMarking(String argsLine) throws RevelException {
-        return getTaskForUpdate(argsLine, "marked", "mark");
+        return getTaskForUpdate(getIndexForMarking(argsLine), true);
+    }
+
+    /**
+     * Returns the index of the task to be marked.
+     *
+     * @param argsLine Argument string containing a task number or {@code #} followed by a task ID.
+     * @return Zero-based index of the task.
+     * @throws RevelException If the list is empty or the task number or ID is invalid.
+     */
+    public int getIndexForMarking(String argsLine) throws RevelException {
+        return getIndexForUpdate(argsLine, "marked", "mark");
     }
 
     /**
      * Returns the task to be unmarked.
+     * <p>
+     * Use {@link #unmarkTaskAt(int)} to change the task, so that the due date index sees the change.
+     * </p>
      *
      * @param argsLine Argument string containing a task number.
      * @return Selected task.
      * @throws RevelException If the task number is invalid.
      */
     public Task getTaskForUnmarking(String argsLine) throws RevelException {
-        return getTaskForUpdate(argsLine, "unmarked", "unmark");
+        return getTaskForUpdate(getIndexForUnmarking(argsLine), false);
+    }
+
+    /**
+     * Returns the index of the task to be unmarked.
+     *
+     * @param argsLine Argument string containing a task number or {@code #} followed by a task ID.
+     * @return Zero-based index of the task.
+     * @throws RevelException If the list is empty or the task number or ID is invalid.
+     */
+    public int getIndexForUnmarking(String argsLine) throws RevelException {
+        return getIndexForUpdate(argsLine, "unmarked", "unmark");
     }
 
     /**
@@ -112,7 +739,35 @@ public class TaskList {
      * @param task Task to add.
      */
     public void addTask(Task task) {
+        prepareChange();
+        getIdIndex();
         this.storedTasks.add(task);
+        indexAdded(task);
+        if (isInTransaction()) {
+            transactionTasks.add(task);
+        }
+    }
+
+    /**
+     * Adds several tasks to the end of the list at once.
+     *
+     * @param addedTasks Tasks to add, in order.
+     */
+    public void addTasks(List<Task> addedTasks) {
+        prepareChange();
+        LongTaskMap ids = getIdIndex();
+        int unassignedCount = 0;
+        for (Task task : addedTasks) {
+            if (task.getId() == 0 || ids.get(task.getId()) != null) {
+                unassignedCount++;
+            }
+        }
+        reserveIds(unassignedCount);
+        this.storedTasks.addAll(addedTasks);
+        addedTasks.forEach(this::indexAdded);
+        if (isInTransaction()) {
+            transactionTasks.addAll(addedTasks);
+        }
     }
 
     /**
@@ -123,8 +778,19 @@ public class TaskList {
      * @throws RevelException If the task number is invalid.
      */
     public Task markTask(String argsLine) throws RevelException {
-        Task selectedTask = getTaskForMarking(argsLine);
+        return markTaskAt(getIndexForMarking(argsLine));
+    }
+
+    /**
+     * Marks the task at the given index as completed.
+     *
+     * @param index Zero-based index of the task.
+     * @return Marked task.
+     */
+    public Task markTaskAt(int index) {
+        Task selectedTask = getTaskForUpdate(index, true);
         selectedTask.markAsDone();
+        indexStatusChanged(selectedTask);
         return selectedTask;
     }
 
@@ -136,19 +802,41 @@ public class TaskList {
      * @throws RevelException If the task number is invalid.
      */
     public Task unmarkTask(String argsLine) throws RevelException {
-        Task selectedTask = getTaskForUnmarking(argsLine);
+        return unmarkTaskAt(getIndexForUnmarking(argsLine));
+    }
+
+    /**
+     * Marks the task at the given index as not completed.
+     *
+     * @param index Zero-based index of the task.
+     * @return Unmarked task.
+     */
+    public Task unmarkTaskAt(int index) {
+        Task selectedTask = getTaskForUpdate(index, false);
         selectedTask.markAsUndone();
+        indexStatusChanged(selectedTask);
         return selectedTask;
     }
 
     /**
      * Deletes a task from the list.
      *
-     * @param argsLine Argument string containing a task number.
+     * @param argsLine Argument string containing a task number or {@code #} followed by a task ID.
      * @return Deleted task.
-     * @throws RevelException If the task number is invalid.
+     * @throws RevelException If the task number or ID is invalid.
      */
     public Task deleteTask(String argsLine) throws RevelException {
+        return deleteTaskAt(getIndexForDeletion(argsLine));
+    }
+
+    /**
+     * Returns the index of the task to be deleted.
+     *
+     * @param argsLine Argument string containing a task number or {@code #} followed by a task ID.
+     * @return Zero-based index of the task.
+     * @throws RevelException If the list is empty or the task number or ID is invalid.
+     */
+    public int getIndexForDeletion(String argsLine) throws RevelException {
         int itemCount = this.storedTasks.size();
         if (itemCount == 0) {
             throw new RevelException("Sorry, but there are no tasks to be deleted.\n"
@@ -160,17 +848,71 @@ public class TaskList {
                     + "Usage: delete <number>");
         }
 
-        int selectedNumber = TaskArgumentParser.parseTaskNumber(TaskArgumentParser.parseNumber(argsLine), itemCount);
-        Task selectedTask = getTask(argsLine);
-        this.storedTasks.remove(selectedNumber - 1);
+        return getIndex(argsLine);
+    }
+
+    /**
+     * Deletes the task at the given index.
+     *
+     * @param index Zero-based index of the task.
+     * @return Deleted task.
+     */
+    public Task deleteTaskAt(int index) {
+        prepareChange();
+        Task selectedTask = this.storedTasks.remove(index);
+        indexRemoved(selectedTask);
         return selectedTask;
     }
 
     /**
-     * Returns tasks whose string representation contains the given keyword (case-insensitive).
+     * Replaces the tasks from index {@code from} (inclusive) to {@code to} (exclusive) with the given tasks.
      *
-     * @param keyword The search keyword.
-     * @return A list of matching tasks (can be empty).
+     * @param from Index of the first task to replace.
+     * @param to Index after the last task to replace.
+     * @param replacement Tasks to insert in their place.
+     */
+    public void replaceTasks(int from, int to, List<Task> replacement) {
+        assert 0 <= from && from <= to && to <= this.storedTasks.size() : "invalid range";
+        prepareChange();
+        refreshIndexes();
+        if (isInTransaction()) {
+            transactionTasks.addAll(replacement);
+        }
+        List<Task> range = this.storedTasks.subList(from, to);
+        range.clear();
+        range.addAll(replacement);
+    }
+
+    /**
+     * Removes every completed task from the list.
+     *
+     * @return Removed tasks, in list order.
+     */
+    public List<Task> removeDoneTasks() {
+        List<Task> removed = new ArrayList<>();
+        List<Task> kept = new ArrayList<>(this.storedTasks.size());
+        for (Task task : this.storedTasks) {
+            (task.isDone() ? removed : kept).add(task);
+        }
+        if (!removed.isEmpty()) {
+            prepareChange();
+            refreshIndexes();
+            this.storedTasks.clear();
+            this.storedTasks.addAll(kept);
+        }
+        return removed;
+    }
+
+    /**
+     * Returns tasks whose descriptions contain the given keywords (case-insensitive).
+     * <p>
+     * Every whitespace-separated keyword must occur in a matching description; {@code OR} between
+     * keywords separates alternatives, so {@code "read book OR pen"} finds descriptions containing
+     * both "read" and "book", or "pen".
+     * </p>
+     *
+     * @param keyword The search keywords.
+     * @return A list of matching tasks in list order (can be empty).
      * @throws RevelException If the keyword is empty.
      */
     public TaskList findTasks(String keyword) throws RevelException {
@@ -180,13 +922,101 @@ public class TaskList {
                     + "Usage: find <keyword>");
         }
 
-        String key = k.toLowerCase();
+        getIdIndex();
+        return new TaskList(getKeywordIndex().search(k), false);
+    }
 
-        List<Task> matches = storedTasks.stream()
-                .filter(t -> t.getDescription().toLowerCase().contains(key))
-                .toList();
+    /**
+     * Returns the size of the search index used by {@link #findTasks(String)} and an estimate of
+     * the memory it takes up, building the index first if needed.
+     *
+     * @return Statistics of the search index.
+     */
+    public SearchIndexStats getSearchIndexStats() {
+        return getKeywordIndex().getStats();
+    }
+
+    /**
+     * Returns the events that take place at any time from {@code start} to {@code end}.
+     * <p>
+     * An event is included if it overlaps the range at all, including events that only touch it at
+     * either end.
+     * </p>
+     *
+     * @param start Start of the range.
+     * @param end End of the range, not before {@code start}.
+     * @return A list of matching events ordered by start (can be empty).
+     */
+    public TaskList findEventsDuring(LocalDateTime start, LocalDateTime end) {
+        assert !end.isBefore(start) : "end cannot be before start";
+        getIdIndex();
+        if (eventIndex == null) {
+            eventIndex = new EventIntervalTree(storedTasks);
+        }
+        return new TaskList(new ArrayList<>(eventIndex.findOverlapping(start, end)), false);
+    }
 
-        return new TaskList(matches);
+    /**
+     * Returns the deadlines and events that are not done and are due before the given date.
+     * <p>
+     * A deadline is due at its {@code /by} date and an event when it starts.
+     * </p>
+     *
+     * @param date Date before which the tasks are due.
+     * @return A list of matching tasks ordered by due date (can be empty).
+     */
+    public TaskList findDueBefore(LocalDateTime date) {
+        return new TaskList(getDueDateIndex().findBefore(date, false), false);
+    }
+
+    /**
+     * Returns the next deadlines and events that are not done and are due at or after {@code now}.
+     *
+     * @param now Current date and time.
+     * @param count Most tasks to return.
+     * @return A list of at most {@code count} tasks ordered by due date (can be empty).
+     */
+    public TaskList findUpcoming(LocalDateTime now, int count) {
+        assert count > 0 : "count must be positive";
+        return new TaskList(getDueDateIndex().findFrom(now, count), false);
+    }
+
+    /**
+     * Returns the deadlines that are not done and were due before {@code now}.
+     *
+     * @param now Current date and time.
+     * @return A list of overdue deadlines ordered by due date (can be empty).
+     */
+    public TaskList findOverdue(LocalDateTime now) {
+        return new TaskList(getDueDateIndex().findBefore(now, true), false);
+    }
+
+    private DueDateIndex getDueDateIndex() {
+        getIdIndex();
+        if (dueDateIndex == null) {
+            dueDateIndex = new DueDateIndex(storedTasks);
+        }
+        return dueDateIndex;
+    }
+
+    private KeywordIndex getKeywordIndex() {
+        if (keywordIndex == null) {
+            keywordIndex = new KeywordIndex(storedTasks);
+        }
+        return keywordIndex;
+    }
+
+    /**
+     * Size of the search index behind {@code find}.
+     *
+     * @param taskCount Number of indexed tasks.
+     * @param wordCount Number of distinct words in the indexed descriptions.
+     * @param trigramCount Number of distinct three-character sequences in the indexed descriptions.
+     * @param postingCount Number of task entries across all word and trigram posting lists.
+     * @param footprintBytes Estimated heap memory used by the index, in bytes.
+     */
+    public record SearchIndexStats(int taskCount, int wordCount, int trigramCount, long postingCount,
+            long footprintBytes) {
     }
 
 }
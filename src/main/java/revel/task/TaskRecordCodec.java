@@ -0,0 +1,326 @@
+package revel.task;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+import revel.RevelException;
+
+/**
+ * Encodes and decodes the {@code " | "}-separated text record of a task in a single pass.
+ * <p>
+ * Fields are located by scanning for unescaped {@code |} characters, and whitespace around each
+ * separator is ignored. Inside the description, {@code \}, {@code |}, line feeds and carriage
+ * returns are written as {@code \\}, {@code \|}, {@code \n} and {@code \r}, so any description can
+ * be stored on one line. Any other backslash is read literally. Date-times are read and written
+ * positionally in the {@code yyyy-MM-ddTHH:mm[:ss]} form, falling back to
+ * {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} only for values outside that form. A task that has
+ * an ID ends with one more field holding it, and no field may follow it; records written before IDs
+ * existed have none.
+ * </p>
+ */
+final class TaskRecordCodec {
+    private static final String SEPARATOR = " | ";
+    private static final char DONE_FLAG = '1';
+    private static final char ESCAPE = '\\';
+    private static final char DELIMITER = '|';
+    private static final int MAX_PLAIN_YEAR = 9999;
+    private static final int DATE_TIME_LENGTH = 16;
+    private static final int DATE_TIME_WITH_SECONDS_LENGTH = 19;
+
+    private TaskRecordCodec() {
+    }
+
+    /**
+     * Appends the type code, done flag and escaped description of a record.
+     */
+    static void appendHeader(StringBuilder sb, Task.TaskType type, boolean isDone, String description) {
+        sb.append(type.code).append(SEPARATOR).append(isDone ? '1' : '0').append(SEPARATOR);
+        for (int i = 0; i < description.length(); i++) {
+            char c = description.charAt(i);
+            switch (c) {
+            case ESCAPE -> sb.append(ESCAPE).append(ESCAPE);
+            case DELIMITER -> sb.append(ESCAPE).append(DELIMITER);
+            case '\n' -> sb.append(ESCAPE).append('n');
+            case '\r' -> sb.append(ESCAPE).append('r');
+            default -> sb.append(c);
+            }
+        }
+    }
+
+    /**
+     * Appends a separator followed by the given date-time.
+     */
+    static void appendDateTime(StringBuilder sb, LocalDateTime dateTime) {
+        sb.append(SEPARATOR);
+        int year = dateTime.getYear();
+        if (year < 0 || year > MAX_PLAIN_YEAR || dateTime.getNano() != 0) {
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME.formatTo(dateTime, sb);
+            return;
+        }
+        appendPadded(sb, year, 4);
+        sb.append('-');
+        appendPadded(sb, dateTime.getMonthValue(), 2);
+        sb.append('-');
+        appendPadded(sb, dateTime.getDayOfMonth(), 2);
+        sb.append('T');
+        appendPadded(sb, dateTime.getHour(), 2);
+        sb.append(':');
+        appendPadded(sb, dateTime.getMinute(), 2);
+        sb.append(':');
+        appendPadded(sb, dateTime.getSecond(), 2);
+    }
+
+    /**
+     * Appends a separator followed by the given ID, if the task has one.
+     */
+    static void appendId(StringBuilder sb, long id) {
+        if (id > 0) {
+            sb.append(SEPARATOR).append(id);
+        }
+    }
+
+    private static void appendPadded(StringBuilder sb, int value, int width) {
+        int digits = value == 0 ? 1 : (int) Math.log10(value) + 1;
+        for (int i = digits; i < width; i++) {
+            sb.append('0');
+        }
+        sb.append(value);
+    }
+
+    /**
+     * Decodes a task from its text record.
+     *
+     * @param line Record to decode.
+     * @return Decoded task.
+     * @throws RevelException If the record is malformed.
+     */
+    static Task decode(String line) throws RevelException {
+        int length = line.length();
+        int typeEnd = nextDelimiter(line, 0);
+        int doneEnd = nextDelimiter(line, typeEnd + 1);
+        if (doneEnd >= length) {
+            throw new RevelException("Invalid/Corrupt data!");
+        }
+        Task.TaskType type = parseType(line, 0, typeEnd);
+        boolean isDone = isDoneFlag(line, typeEnd + 1, doneEnd);
+
+        int descriptionEnd = nextDelimiter(line, doneEnd + 1);
+        String description = unescape(line, skipSpaces(line, doneEnd + 1), descriptionEnd < length
+                ? trimSpacesEnd(line, doneEnd + 1, descriptionEnd)
+                : length);
+        if (description.isBlank()) {
+            throw new RevelException("Invalid/Corrupt data!");
+        }
+
+        Task task;
+        int lastEnd;
+        switch (type) {
+        case TODO:
+            task = new ToDo(description);
+            lastEnd = descriptionEnd;
+            break;
+        case DEADLINE: {
+            int byEnd = nextDelimiter(line, descriptionEnd + 1);
+            LocalDateTime byDate = parseDateField(line, descriptionEnd, byEnd);
+            task = new Deadline(description, byDate);
+            lastEnd = byEnd;
+            break;
+        }
+        case EVENT: {
+            int fromEnd = nextDelimiter(line, descriptionEnd + 1);
+            int toEnd = nextDelimiter(line, fromEnd + 1);
+            LocalDateTime fromDate = parseDateField(line, descriptionEnd, fromEnd);
+            LocalDateTime toDate = parseDateField(line, fromEnd, toEnd);
+            task = new Event(description, fromDate, toDate);
+            lastEnd = toEnd;
+            break;
+        }
+        default:
+            throw new RevelException("Unknown task type: " + type);
+        }
+
+        if (isDone) {
+            task.markAsDone();
+        }
+        if (lastEnd < length) {
+            int idEnd = nextDelimiter(line, lastEnd + 1);
+            if (idEnd < length) {
+                // The ID is the last field, so anything after it is a damaged or unknown suffix.
+                throw new RevelException("Invalid/Corrupt data!");
+            }
+            task.setId(parseId(line, lastEnd, idEnd));
+        }
+        return task;
+    }
+
+    /**
+     * Parses the ID field that starts after the delimiter at {@code delimiter} and ends at {@code end}.
+     */
+    private static long parseId(String line, int delimiter, int end) throws RevelException {
+        int from = skipSpaces(line, delimiter + 1);
+        int to = trimSpacesEnd(line, from, end);
+        try {
+            long id = Long.parseLong(line, from, to, 10);
+            if (id > 0) {
+                return id;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below together with IDs that are not positive.
+        }
+        throw new RevelException("Invalid/Corrupt data!");
+    }
+
+    /**
+     * Returns the index of the next unescaped delimiter at or after {@code from}, or the line length.
+     */
+    private static int nextDelimiter(String line, int from) {
+        int length = line.length();
+        for (int i = from; i < length; i++) {
+            char c = line.charAt(i);
+            if (c == ESCAPE) {
+                i++;
+            } else if (c == DELIMITER) {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private static int skipSpaces(String line, int from) {
+        int i = from;
+        while (i < line.length() && Character.isWhitespace(line.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int trimSpacesEnd(String line, int from, int end) {
+        int i = end;
+        while (i > from && Character.isWhitespace(line.charAt(i - 1))) {
+            i--;
+        }
+        return i;
+    }
+
+    private static Task.TaskType parseType(String line, int start, int end) throws RevelException {
+        int from = skipSpaces(line, start);
+        int to = trimSpacesEnd(line, from, end);
+        for (Task.TaskType type : Task.TaskType.values()) {
+            if (type.code.length() == to - from && line.startsWith(type.code, from)) {
+                return type;
+            }
+        }
+        throw new RevelException("Unknown task type: " + line.substring(from, to));
+    }
+
+    private static boolean isDoneFlag(String line, int start, int end) {
+        int from = skipSpaces(line, start);
+        int to = trimSpacesEnd(line, from, end);
+        return to - from == 1 && line.charAt(from) == DONE_FLAG;
+    }
+
+    private static String unescape(String line, int start, int end) {
+        int firstEscape = line.indexOf(ESCAPE, start);
+        if (firstEscape < 0 || firstEscape >= end) {
+            return line.substring(start, end);
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        sb.append(line, start, firstEscape);
+        for (int i = firstEscape; i < end; i++) {
+            char c = line.charAt(i);
+            if (c != ESCAPE || i + 1 >= end) {
+                sb.append(c);
+                continue;
+            }
+            char next = line.charAt(i + 1);
+            switch (next) {
+            case ESCAPE, DELIMITER -> sb.append(next);
+            case 'n' -> sb.append('\n');
+            case 'r' -> sb.append('\r');
+            default -> {
+                sb.append(c);
+                continue;
+            }
+            }
+            i++;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Parses the date-time field that starts after the delimiter at {@code delimiter} and ends at {@code end}.
+     */
+    private static LocalDateTime parseDateField(String line, int delimiter, int end) throws RevelException {
+        if (delimiter >= line.length()) {
+            throw new RevelException("Invalid/Corrupt data!");
+        }
+        int from = skipSpaces(line, delimiter + 1);
+        int to = trimSpacesEnd(line, from, end);
+        LocalDateTime dateTime = parseDateTime(line, from, to);
+        if (dateTime != null) {
+            return dateTime;
+        }
+        try {
+            return LocalDateTime.parse(line.substring(from, to), DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            throw new RevelException("Invalid date format!");
+        }
+    }
+
+    /**
+     * Parses {@code yyyy-MM-ddTHH:mm} or {@code yyyy-MM-ddTHH:mm:ss} positionally.
+     *
+     * @return Parsed date-time, or {@code null} if the text is not in either form or is out of range.
+     */
+    static LocalDateTime parseDateTime(CharSequence text, int from, int to) {
+        int length = to - from;
+        if (length != DATE_TIME_LENGTH && length != DATE_TIME_WITH_SECONDS_LENGTH) {
+            return null;
+        }
+        if (text.charAt(from + 4) != '-' || text.charAt(from + 7) != '-' || text.charAt(from + 10) != 'T'
+                || text.charAt(from + 13) != ':') {
+            return null;
+        }
+        int year = readDigits(text, from, 4);
+        int month = readDigits(text, from + 5, 2);
+        int day = readDigits(text, from + 8, 2);
+        int hour = readDigits(text, from + 11, 2);
+        int minute = readDigits(text, from + 14, 2);
+        int second = 0;
+        if (length == DATE_TIME_WITH_SECONDS_LENGTH) {
+            if (text.charAt(from + 16) != ':') {
+                return null;
+            }
+            second = readDigits(text, from + 17, 2);
+        }
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return null;
+        }
+        return LocalDateTime.of(year, month, day, hour, minute, second);
+    }
+
+    /**
+     * Returns the value of {@code count} decimal digits starting at {@code from}, or -1 if any is not a digit.
+     */
+    private static int readDigits(CharSequence text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+        case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+        case 4, 6, 9, 11 -> 30;
+        default -> 31;
+        };
+    }
+}
@@ -19,12 +19,18 @@ public class ToDo extends Task {
     }
 
     /**
-     * Returns the file storage representation of this task.
+     * Appends the file storage representation of this task to {@code sb}.
      *
-     * @return Serialized task string.
+     * @param sb Builder to append to.
      */
     @Override
-    public String toFileString() {
-        return "TD | " + (isDone ? 1 : 0) + " | " + description;
+    public void appendFileString(StringBuilder sb) {
+        TaskRecordCodec.appendHeader(sb, TaskType.TODO, isDone, description);
+        TaskRecordCodec.appendId(sb, getId());
+    }
+
+    @Override
+    protected Task copyContents() {
+        return new ToDo(description);
     }
 }
@@ -0,0 +1,90 @@
+package revel.task;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index from every three-character sequence of the lowercased descriptions to the ordinals of the
+ * tasks that contain it.
+ * <p>
+ * Any description that contains a term of three or more characters also contains every trigram of
+ * the term, so intersecting the term's posting lists gives a small candidate set that only has to
+ * be checked with {@code String.contains}. Entries of removed tasks stay in the posting lists and
+ * are dropped by that check.
+ * </p>
+ */
+final class TrigramIndex {
+    /** Length of the sequences that are indexed; shorter terms cannot use this index. */
+    static final int GRAM_LENGTH = 3;
+
+    /** Approximate bytes used per map entry: the entry, the boxed key and the posting list object. */
+    private static final int ENTRY_OVERHEAD_BYTES = 32 + 16 + 24 + 16;
+
+    private final Map<Long, PostingList> postings = new HashMap<>();
+    private long postingCount;
+
+    /**
+     * Indexes every trigram of {@code description} under {@code ordinal}, which must be larger than
+     * any ordinal added before.
+     */
+    void add(int ordinal, String description) {
+        for (int i = 0; i + GRAM_LENGTH <= description.length(); i++) {
+            PostingList list = postings.computeIfAbsent(key(description, i), key -> new PostingList());
+            int before = list.size();
+            list.add(ordinal);
+            postingCount += list.size() - before;
+        }
+    }
+
+    /**
+     * Returns the ascending ordinals of the tasks that contain every trigram of {@code term}.
+     *
+     * @param term Lowercased term of at least {@link #GRAM_LENGTH} characters.
+     */
+    int[] candidates(String term) {
+        assert term.length() >= GRAM_LENGTH : "term is too short for the trigram index";
+        Set<PostingList> lists = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= term.length(); i++) {
+            PostingList list = postings.get(key(term, i));
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        PostingList[] sorted = lists.toArray(new PostingList[0]);
+        Arrays.sort(sorted, Comparator.comparingInt(PostingList::size));
+        int[] result = sorted[0].toArray();
+        for (int i = 1; i < sorted.length && result.length > 0; i++) {
+            result = sorted[i].retainAll(result);
+        }
+        return result;
+    }
+
+    int getTrigramCount() {
+        return postings.size();
+    }
+
+    long getPostingCount() {
+        return postingCount;
+    }
+
+    /**
+     * Returns an estimate of the heap memory used by the index, in bytes.
+     */
+    long estimateFootprintBytes() {
+        long bytes = 0;
+        for (PostingList list : postings.values()) {
+            bytes += ENTRY_OVERHEAD_BYTES + 4L * list.capacity();
+        }
+        // The hash table keeps about one slot per 0.75 entries.
+        return bytes + 4L * Integer.highestOneBit(Math.max(1, postings.size() * 4 / 3)) * 2;
+    }
+
+    private static long key(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+}
@@ -0,0 +1,83 @@
+package revel.task;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * Modifiable list view over a {@link PersistentTaskVector}.
+ * <p>
+ * Each change replaces the current version with an updated one, so any version taken earlier
+ * with {@link #getVersion()} still describes the list as it was at that time.
+ * </p>
+ */
+final class VersionedTaskList extends AbstractList<Task> {
+    private PersistentTaskVector version;
+
+    VersionedTaskList(PersistentTaskVector version) {
+        this.version = version;
+    }
+
+    PersistentTaskVector getVersion() {
+        return version;
+    }
+
+    void setVersion(PersistentTaskVector version) {
+        this.version = version;
+        modCount++;
+    }
+
+    @Override
+    public Task get(int index) {
+        return version.get(index);
+    }
+
+    @Override
+    public int size() {
+        return version.size();
+    }
+
+    @Override
+    public Task set(int index, Task task) {
+        Task previous = version.get(index);
+        version = version.set(index, task);
+        return previous;
+    }
+
+    @Override
+    public void add(int index, Task task) {
+        version = version.insert(index, task);
+        modCount++;
+    }
+
+    @Override
+    public Task remove(int index) {
+        Task removed = version.get(index);
+        version = version.remove(index);
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Appends the given tasks, building the tree in O(n) when the list is empty.
+     */
+    @Override
+    public boolean addAll(Collection<? extends Task> tasks) {
+        if (!version.isEmpty()) {
+            return super.addAll(tasks);
+        }
+        setVersion(PersistentTaskVector.of(new ArrayList<>(tasks)));
+        return !tasks.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        setVersion(PersistentTaskVector.EMPTY);
+    }
+
+    @Override
+    public Iterator<Task> iterator() {
+        return version.iterator();
+    }
+}
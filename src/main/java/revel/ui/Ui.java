@@ -1,9 +1,16 @@
 package revel.ui;
 
+import java.io.PrintWriter;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Queue;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.stream.IntStream;
 
+import revel.parser.DateTimeParser;
 import revel.parser.Parser;
+import revel.parser.TaskArgumentParser;
 import revel.task.Task;
 import revel.task.TaskList;
 
@@ -11,7 +18,11 @@ import revel.task.TaskList;
  * Handles user interaction and console output.
  */
 public class Ui {
+    private static final int MAX_LISTED_FAILURES = 20;
+
     final Scanner sc;
+    private final Queue<String> notices = new ConcurrentLinkedQueue<>();
+    private volatile PrintWriter progressOutput;
 
     /**
      * Creates a UI instance backed by standard input.
@@ -68,6 +79,21 @@ public class Ui {
         );
     }
 
+    /**
+     * Prints how many tasks were recovered from a damaged task file.
+     *
+     * @param recoveredCount Number of records recovered.
+     * @param quarantinedCount Number of unreadable records that were set aside.
+     * @param quarantineFile File holding the unreadable records.
+     */
+    public String showSalvageReport(int recoveredCount, int quarantinedCount, String quarantineFile) {
+        return joinLines(
+                " Some saved tasks could not be read!",
+                "Recovered " + recoveredCount + " tasks. " + quarantinedCount
+                        + " unreadable records were moved to " + quarantineFile + "."
+        );
+    }
+
     /**
      * Prints a help message with the supported commands.
      */
@@ -83,11 +109,79 @@ public class Ui {
     public String showFoundTaskList(TaskList tasks) {
         StringBuilder sb = new StringBuilder(" Here are the matching tasks in your list:");
         IntStream.range(0, tasks.getSize())
-                .mapToObj(i -> (i + 1) + "." + tasks.get(i).toString())
+                .mapToObj(i -> (i + 1) + "." + withId(tasks.get(i)))
+                .forEach(line -> sb.append("\n").append(line));
+        return sb.toString();
+    }
+
+    /**
+     * Returns the events that take place within a time range.
+     *
+     * @param events Matching events.
+     * @param range Time range that was searched.
+     */
+    public String showEventsDuring(TaskList events, TaskArgumentParser.TimeRange range) {
+        String from = DateTimeParser.formatForUser(range.start());
+        String to = DateTimeParser.formatForUser(range.end());
+        if (events.getSize() == 0) {
+            return " There are no events from " + from + " to " + to + ".";
+        }
+        return showNumbered(" Here are the events from " + from + " to " + to + ":", events);
+    }
+
+    /**
+     * Returns the tasks that are due before a date.
+     *
+     * @param tasks Matching deadlines and events, ordered by due date.
+     * @param date Date before which the tasks are due.
+     */
+    public String showDueBefore(TaskList tasks, LocalDateTime date) {
+        String before = DateTimeParser.formatForUser(date);
+        if (tasks.getSize() == 0) {
+            return " Nothing is due before " + before + ".";
+        }
+        return showNumbered(" Here are the tasks due before " + before + ":", tasks);
+    }
+
+    /**
+     * Returns the next tasks that are due.
+     *
+     * @param tasks Upcoming deadlines and events, ordered by due date.
+     */
+    public String showUpcoming(TaskList tasks) {
+        if (tasks.getSize() == 0) {
+            return " Nothing is coming up.";
+        }
+        return showNumbered(" Here are your upcoming tasks:", tasks);
+    }
+
+    /**
+     * Returns the deadlines that have passed without being done.
+     *
+     * @param tasks Overdue deadlines, ordered by due date.
+     */
+    public String showOverdue(TaskList tasks) {
+        if (tasks.getSize() == 0) {
+            return " Nothing is overdue. Well done!";
+        }
+        return showNumbered(" These deadlines have passed:", tasks);
+    }
+
+    private static String showNumbered(String heading, TaskList tasks) {
+        StringBuilder sb = new StringBuilder(heading);
+        IntStream.range(0, tasks.getSize())
+                .mapToObj(i -> (i + 1) + "." + withId(tasks.get(i)))
                 .forEach(line -> sb.append("\n").append(line));
         return sb.toString();
     }
 
+    /**
+     * Returns the task followed by its ID, so that a task in search results can be referred to by ID.
+     */
+    private static String withId(Task task) {
+        return task.getId() > 0 ? task + " (#" + task.getId() + ")" : task.toString();
+    }
+
     /**
      * Prints all tasks in the list.
      *
@@ -99,7 +193,7 @@ public class Ui {
         }
         StringBuilder sb = new StringBuilder(" Here are the tasks in your list:");
         IntStream.range(0, tasks.getSize())
-                .mapToObj(i -> (i + 1) + "." + tasks.get(i).toString())
+                .mapToObj(i -> (i + 1) + "." + tasks.get(i) + " (#" + tasks.getId(i) + ")")
                 .forEach(line -> sb.append("\n").append(line));
         return sb.toString();
     }
@@ -113,7 +207,7 @@ public class Ui {
     public String showTaskAdded(Task task, int itemCount) {
         return joinLines(
                 " Got it. I've added this task:",
-                task.toString(),
+                withId(task),
                 "Now you have " + itemCount + " tasks in the list."
         );
     }
@@ -176,6 +270,256 @@ public class Ui {
                 "Now you have " + remainingItemCount + " tasks in the list.");
     }
 
+    /**
+     * Prints a confirmation that the task file was compacted.
+     *
+     * @param itemCount Number of tasks in the compacted file.
+     */
+    public String showCompacted(int itemCount) {
+        return " Done! The task file now holds just your " + itemCount + " tasks.";
+    }
+
+    /**
+     * Prints a confirmation that a transaction has been opened.
+     */
+    public String showTransactionBegun() {
+        return joinLines(" Transaction started. Your changes are kept in memory until you 'commit',",
+                " or are undone with 'rollback'.");
+    }
+
+    /**
+     * Prints a confirmation that a transaction has been committed.
+     *
+     * @param isChanged Whether the transaction changed the list.
+     * @param itemCount Task count after the commit.
+     */
+    public String showCommitted(boolean isChanged, int itemCount) {
+        if (!isChanged) {
+            return " Committed. There were no changes to save.";
+        }
+        return " Committed! All changes were saved at once.\nNow you have " + itemCount + " tasks in the list.";
+    }
+
+    /**
+     * Prints a confirmation that a transaction has been rolled back.
+     *
+     * @param isChanged Whether the transaction had changed the list.
+     * @param itemCount Task count after the rollback.
+     */
+    public String showRolledBack(boolean isChanged, int itemCount) {
+        if (!isChanged) {
+            return " Rolled back. There were no changes to undo.";
+        }
+        return " Rolled back! Your changes were discarded.\nNow you have " + itemCount + " tasks in the list.";
+    }
+
+    /**
+     * Prints a confirmation that the last change was undone.
+     *
+     * @param itemCount Task count after the undo.
+     */
+    public String showUndone(int itemCount) {
+        return " Undone! Now you have " + itemCount + " tasks in the list.";
+    }
+
+    /**
+     * Prints a confirmation that the last undone change was redone.
+     *
+     * @param itemCount Task count after the redo.
+     */
+    public String showRedone(int itemCount) {
+        return " Redone! Now you have " + itemCount + " tasks in the list.";
+    }
+
+    /**
+     * Prints a message that there is no change to undo.
+     */
+    public String showNothingToUndo() {
+        return " There is nothing to undo.";
+    }
+
+    /**
+     * Prints a message that there is no undone change to redo.
+     */
+    public String showNothingToRedo() {
+        return " There is nothing to redo.";
+    }
+
+    /**
+     * Prints a confirmation that completed tasks were archived.
+     *
+     * @param archivedCount Number of tasks moved to the archive.
+     */
+    public String showArchived(int archivedCount) {
+        if (archivedCount == 0) {
+            return " There are no completed tasks to archive.";
+        }
+        return " Done! I've archived " + archivedCount + " completed tasks.";
+    }
+
+    /**
+     * Prints the archived tasks that matched a query.
+     *
+     * @param tasks Matching archived tasks.
+     */
+    public String showArchivedTaskList(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return " No archived tasks found.";
+        }
+        StringBuilder sb = new StringBuilder(" Here are the archived tasks:");
+        IntStream.range(0, tasks.size())
+                .mapToObj(i -> (i + 1) + "." + tasks.get(i).toString())
+                .forEach(line -> sb.append("\n").append(line));
+        return sb.toString();
+    }
+
+    /**
+     * Prints a notice that tasks changed by another program were reloaded.
+     *
+     * @param changedCount Number of tasks that changed.
+     */
+    public String showReloaded(int changedCount) {
+        return " Note: the task file was changed outside Revel, so I've reloaded " + changedCount + " tasks.";
+    }
+
+    /**
+     * Shows a progress message while a long-running command is still working.
+     * <p>
+     * The message is printed to the progress output at once if one is set, and otherwise queued as
+     * a notice to be shown with the response.
+     * </p>
+     *
+     * @param message Progress message.
+     */
+    public void showProgress(String message) {
+        PrintWriter output = progressOutput;
+        if (output == null) {
+            addNotice(message);
+            return;
+        }
+        output.println(message);
+        output.flush();
+    }
+
+    /**
+     * Sets where progress messages are printed, so that they stay in order with the responses.
+     *
+     * @param output Writer the responses are printed to, or null to queue progress as notices.
+     * @return The previous progress output, or null if there was none.
+     */
+    public PrintWriter setProgressOutput(PrintWriter output) {
+        PrintWriter previous = progressOutput;
+        progressOutput = output;
+        return previous;
+    }
+
+    /**
+     * Returns a progress message for an import that is still running.
+     *
+     * @param recordCount Records read so far.
+     * @param recordsPerSecond Average rate so far.
+     */
+    public String showImportProgress(long recordCount, double recordsPerSecond) {
+        return String.format(" Importing... %d records so far (%.0f records/s)", recordCount, recordsPerSecond);
+    }
+
+    /**
+     * Prints a summary of a finished import.
+     *
+     * @param importedCount Number of tasks imported.
+     * @param itemCount Task count after the import.
+     * @param seconds Time the import took.
+     * @param recordsPerSecond Average import rate.
+     * @param failedCount Number of records skipped.
+     * @param errors Messages for the first few skipped records.
+     */
+    public String showImported(int importedCount, int itemCount, double seconds, double recordsPerSecond,
+            int failedCount, List<String> errors) {
+        StringBuilder sb = new StringBuilder(String.format(
+                " Imported %d tasks in %.2f s (%.0f records/s).\nNow you have %d tasks in the list.",
+                importedCount, seconds, recordsPerSecond, itemCount));
+        if (failedCount > 0) {
+            sb.append("\n").append(failedCount).append(" records could not be imported:");
+            errors.forEach(error -> sb.append("\n  ").append(error));
+            if (failedCount > errors.size()) {
+                sb.append("\n  ...");
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the summary printed at the end of a batch run.
+     *
+     * @param commandCount Number of commands run.
+     * @param failures Messages of the commands that failed, each prefixed with its line number.
+     * @param saveCount Number of times the task list was saved.
+     * @param seconds Time the run took.
+     */
+    public String showBatchSummary(int commandCount, List<String> failures, int saveCount, double seconds) {
+        StringBuilder sb = new StringBuilder(String.format(
+                " Batch finished: %d commands in %.2f s (%.0f commands/s), %d failed, saved %d time(s).",
+                commandCount, seconds, seconds > 0 ? commandCount / seconds : 0, failures.size(), saveCount));
+        failures.stream().limit(MAX_LISTED_FAILURES).forEach(failure -> sb.append("\n  ").append(failure));
+        if (failures.size() > MAX_LISTED_FAILURES) {
+            sb.append("\n  ...");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns the size and estimated memory footprint of the search index.
+     *
+     * @param stats Statistics of the search index.
+     */
+    public String showSearchIndexStats(TaskList.SearchIndexStats stats) {
+        return String.format(" Search index: %d tasks, %d words, %d trigrams, %d postings, about %.1f KiB.",
+                stats.taskCount(), stats.wordCount(), stats.trigramCount(), stats.postingCount(),
+                stats.footprintBytes() / 1024.0);
+    }
+
+    /**
+     * Returns the message shown when an export has been started in the background.
+     *
+     * @param taskCount Number of tasks being exported.
+     * @param fileName File being written.
+     */
+    public String showExportStarted(int taskCount, String fileName) {
+        return String.format(" Exporting %d tasks to %s in the background.", taskCount, fileName);
+    }
+
+    /**
+     * Returns the message shown when a background export has finished.
+     *
+     * @param taskCount Number of tasks written.
+     * @param fileName File written.
+     * @param seconds Time the export took.
+     */
+    public String showExported(int taskCount, String fileName, double seconds) {
+        return String.format(" Exported %d tasks to %s in %.2f s.", taskCount, fileName, seconds);
+    }
+
+    /**
+     * Queues a notice from background work, to be shown with the next response.
+     *
+     * @param notice Notice text.
+     */
+    public void addNotice(String notice) {
+        notices.add(notice);
+    }
+
+    /**
+     * Returns the notices queued since the last call, one per line, or null if there are none.
+     */
+    public String pollNotices() {
+        StringBuilder sb = new StringBuilder();
+        String notice;
+        while ((notice = notices.poll()) != null) {
+            sb.append(sb.length() == 0 ? "" : "\n").append(notice);
+        }
+        return sb.length() == 0 ? null : sb.toString();
+    }
+
     /**
      * Prints a warning that tasks could not be saved.
      *
@@ -3,11 +3,20 @@ package revel.core;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import revel.task.Task;
+
 public class RevelTest {
     @TempDir
     Path tempDir;
@@ -32,4 +41,71 @@ public class RevelTest {
         assertEquals("ErrorCommand", revel.getCommandType());
         assertTrue(response.contains("Type 'help'"));
     }
+
+    @Test
+    void runBatch_scriptWithFailures_savesOnceAndSummarisesFailures() throws Exception {
+        Revel revel = new Revel(tempDir.toString());
+        String script = String.join("\n",
+                "# nightly tasks",
+                "todo first",
+                "todo second",
+                "",
+                "mark 9",
+                "deadline report /by 20/02/2026 1800",
+                "mark 1");
+        StringWriter output = new StringWriter();
+
+        int failedCount = revel.runBatch(new BufferedReader(new StringReader(script)), new PrintWriter(output), 0);
+
+        assertEquals(1, failedCount);
+        assertTrue(output.toString().contains("5 commands"));
+        assertTrue(output.toString().contains("saved 1 time(s)"));
+        assertTrue(output.toString().contains("Line 5:"));
+        assertEquals(3, Files.readAllLines(tempDir.resolve("tasks.txt")).size());
+    }
+
+    @Test
+    void getResponse_transaction_savesOnlyOnCommit() throws Exception {
+        Revel revel = new Revel(tempDir.toString());
+        Path tasksFile = tempDir.resolve("tasks.txt");
+
+        revel.getResponse("begin");
+        revel.getResponse("todo first");
+        revel.getResponse("todo second");
+        assertTrue(Files.notExists(tasksFile));
+        revel.getResponse("rollback");
+        revel.getResponse("begin");
+        revel.getResponse("todo third");
+        String response = revel.getResponse("commit");
+
+        assertTrue(response.contains("Committed!"));
+        assertEquals(1, Files.readAllLines(tasksFile).size());
+    }
+
+    @Test
+    void getResponse_loadedTasksWithoutIds_savesTheIdsTheyAreGiven() throws Exception {
+        Path tasksFile = tempDir.resolve("tasks.txt");
+        Files.write(tasksFile, List.of("TD | 0 | read book", "TD | 0 | write report"));
+        Revel revel = new Revel(tempDir.toString());
+
+        revel.getResponse("list");
+
+        List<Long> ids = new ArrayList<>();
+        for (String line : Files.readAllLines(tasksFile)) {
+            ids.add(Task.fromFileString(line.substring(0, line.lastIndexOf(" | #"))).getId());
+        }
+        assertEquals(List.of(1L, 2L), ids);
+    }
+
+    @Test
+    void getResponse_deleteThenRestart_doesNotReuseTheDeletedId() {
+        Revel revel = new Revel(tempDir.toString());
+        revel.getResponse("todo a");
+        revel.getResponse("todo b");
+        revel.getResponse("delete #2");
+
+        String response = new Revel(tempDir.toString()).getResponse("todo c");
+
+        assertTrue(response.contains("c (#3)"));
+    }
 }
@@ -1,5 +1,6 @@
 package revel.parser;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.io.TempDir;
 import revel.RevelException;
 import revel.command.AliasCommand;
 import revel.command.Command;
+import revel.command.CommandWord;
 import revel.command.TodoCommand;
 import revel.storage.AliasStorage;
 import revel.task.TaskList;
@@ -21,9 +23,11 @@ public class AliasParserTest {
     @TempDir
     Path tempDir;
 
+    private AliasStorage aliasStorage;
+
     @BeforeEach
     void setUp() throws Exception {
-        AliasStorage aliasStorage = new AliasStorage(tempDir.resolve("aliases.json"));
+        aliasStorage = new AliasStorage(tempDir.resolve("aliases.json"));
         AliasParser.setAliasStorage(aliasStorage);
         AliasParser.replaceUserAliases(Map.of());
     }
@@ -43,4 +47,17 @@ public class AliasParserTest {
         Command aliasCommand = Parser.parse("x read book");
         assertInstanceOf(TodoCommand.class, aliasCommand);
     }
+
+    @Test
+    void parse_aliasAddAndRemove_updatesRegistryThenFileOnFlush() throws Exception {
+        Parser.parse("alias add x todo").execute(new TaskList(), null, null);
+        Parser.parse("alias add y list").execute(new TaskList(), null, null);
+        Parser.parse("alias remove x").execute(new TaskList(), null, null);
+
+        assertEquals(Map.of("y", CommandWord.LIST), AliasParser.getUserAliases());
+        assertThrows(RevelException.class, () -> Parser.parse("x read book"));
+
+        aliasStorage.flush();
+        assertEquals(Map.of("y", CommandWord.LIST), aliasStorage.load());
+    }
 }
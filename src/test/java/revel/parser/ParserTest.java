@@ -59,6 +59,32 @@ public class ParserTest {
                 .parseEvent("party /to 2024-10-02 /from 2024-10-01"));
     }
 
+    @Test
+    void parseDuring_validAndReversedRanges() throws Exception {
+        TaskArgumentParser.TimeRange range = TaskArgumentParser.parseDuring("2024-10-01 /to 2024-10-02 1200");
+        assertEquals(LocalDateTime.of(2024, 10, 1, 0, 0), range.start());
+        assertEquals(LocalDateTime.of(2024, 10, 2, 12, 0), range.end());
+        assertThrows(RevelException.class, () -> TaskArgumentParser.parseDuring("2024-10-02 /to 2024-10-01"));
+        assertThrows(RevelException.class, () -> TaskArgumentParser.parseDuring("2024-10-02"));
+    }
+
+    @Test
+    void parseDueBeforeAndUpcoming_invalidArguments_throw() throws Exception {
+        assertEquals(LocalDateTime.of(2024, 10, 2, 0, 0), TaskArgumentParser.parseDueBefore("before 2024-10-02"));
+        assertThrows(RevelException.class, () -> TaskArgumentParser.parseDueBefore("2024-10-02"));
+        assertEquals(3, TaskArgumentParser.parseUpcoming(" 3 "));
+        assertThrows(RevelException.class, () -> TaskArgumentParser.parseUpcoming("0"));
+        assertThrows(RevelException.class, () -> TaskArgumentParser.parseUpcoming("soon"));
+    }
+
+    @Test
+    void parseMark_taskId_acceptsPositiveIdsOnly() throws Exception {
+        assertEquals("#12", TaskArgumentParser.parseMark(" #12 "));
+        assertEquals(12, TaskArgumentParser.parseTaskId("#12"));
+        assertThrows(RevelException.class, () -> TaskArgumentParser.parseMark("#"));
+        assertThrows(RevelException.class, () -> TaskArgumentParser.parseUnmark("#-3"));
+    }
+
     @Test
     void parseNumber_nonNumeric_throws() {
         assertThrows(RevelException.class, () -> TaskArgumentParser.parseNumber("abc"));
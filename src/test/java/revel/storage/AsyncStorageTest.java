@@ -0,0 +1,88 @@
+package revel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import revel.RevelException;
+import revel.task.Task;
+import revel.task.TaskList;
+import revel.task.ToDo;
+
+public class AsyncStorageTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void flush_writesLatestStateOfBurst() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        AsyncStorage storage = new AsyncStorage(new Storage(file), 60_000);
+
+        TaskList list = new TaskList();
+        for (int i = 0; i < 3; i++) {
+            Task task = new ToDo("task " + i);
+            list.addTask(task);
+            storage.saveTaskAdded(list, task);
+        }
+        storage.flush();
+
+        List<String> records = new ArrayList<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            records.add(RecordChecksum.verify(line));
+        }
+        assertEquals(List.of("TD | 0 | task 0 | 1", "TD | 0 | task 1 | 2", "TD | 0 | task 2 | 3"), records);
+    }
+
+    @Test
+    void flush_writesTasksAsTheyWereWhenSaved() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        AsyncStorage storage = new AsyncStorage(new Storage(file), 60_000);
+
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("read book"));
+        storage.save(list);
+        list.get(0).markAsDone();
+        storage.flush();
+
+        assertEquals("TD | 0 | read book | 1", RecordChecksum.verify(Files.readAllLines(file).get(0)));
+    }
+
+    @Test
+    void writerFailure_isReportedOnce() throws Exception {
+        Path blocker = tempDir.resolve("blocker");
+        Files.writeString(blocker, "not a directory", StandardCharsets.UTF_8);
+        AsyncStorage storage = new AsyncStorage(new Storage(blocker.resolve("tasks.txt")), 0);
+
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("read book"));
+        storage.save(list);
+
+        assertThrows(RevelException.class, storage::flush);
+        assertNull(storage.pollDeferredError());
+    }
+
+    @Test
+    void backgroundWriter_persistsWithoutFlush() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        AsyncStorage storage = new AsyncStorage(new Storage(file), 0);
+
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("read book"));
+        storage.save(list);
+
+        Storage reader = new Storage(file);
+        for (int i = 0; i < 100 && reader.load().isEmpty(); i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, reader.load().size());
+    }
+}
@@ -0,0 +1,164 @@
+package revel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import revel.command.UndoCommand;
+import revel.task.Task;
+import revel.task.TaskList;
+import revel.task.ToDo;
+import revel.ui.Ui;
+
+public class JournalStorageTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void mutations_appendToJournal_andReplayOnLoad() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        JournalStorage storage = new JournalStorage(file);
+
+        TaskList list = new TaskList();
+        Task first = new ToDo("read book");
+        list.addTask(first);
+        storage.saveTaskAdded(list, first);
+        Task second = new ToDo("write report");
+        list.addTask(second);
+        storage.saveTaskAdded(list, second);
+        list.markTask("2");
+        storage.saveTaskMarked(list, 1);
+        list.deleteTask("1");
+        storage.saveTaskDeleted(list, 0);
+
+        assertFalse(Files.exists(file));
+        TaskList loaded = new TaskList(new JournalStorage(file).load());
+        assertEquals(1, loaded.getSize());
+        assertEquals("TD | 1 | write report | 2", loaded.get(0).toFileString());
+    }
+
+    @Test
+    void getIdSource_deleteThenReload_doesNotReuseTheId() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        JournalStorage storage = new JournalStorage(file);
+        TaskList list = new TaskList();
+        list.setIdSource(storage.getIdSource());
+        for (String description : new String[] {"read book", "write report"}) {
+            list.addTask(new ToDo(description));
+            storage.saveTaskAdded(list, list.get(list.getSize() - 1));
+        }
+        list.deleteTask("#2");
+        storage.saveTaskDeleted(list, 1);
+        storage.save(list);
+
+        JournalStorage reopened = new JournalStorage(file);
+        TaskList loaded = TaskList.backedBy(reopened.load());
+        loaded.setIdSource(reopened.getIdSource());
+        loaded.addTask(new ToDo("buy milk"));
+
+        assertEquals(3, loaded.get(1).getId());
+    }
+
+    @Test
+    void load_ignoresTruncatedTrailingRecord() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        Files.writeString(file, "TD | 0 | read book\n", StandardCharsets.UTF_8);
+        JournalStorage storage = new JournalStorage(file);
+        Files.writeString(storage.getJournalPath(), "M | 0\nA | TD | 0 | half", StandardCharsets.UTF_8);
+
+        TaskList loaded = new TaskList(storage.load());
+        assertEquals(1, loaded.getSize());
+        assertEquals("TD | 1 | read book", loaded.get(0).toFileString());
+    }
+
+    @Test
+    void load_afterCrashDuringSnapshotSwap_replaysEachRecordOnce() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        Path temp = JournalStorage.tempPath(file);
+        Path retired = tempDir.resolve("tasks.txt.journal.retired");
+        JournalStorage storage = new JournalStorage(file);
+
+        // Crashed after retiring the journal but before the new snapshot was moved into place.
+        Files.writeString(file, "TD | 0 | read book\n", StandardCharsets.UTF_8);
+        Files.writeString(temp, "TD | 0 | read book\nTD | 0 | write report\n", StandardCharsets.UTF_8);
+        Files.writeString(retired, "A | TD | 0 | write report\n", StandardCharsets.UTF_8);
+        assertEquals(2, storage.load().size());
+        assertTrue(Files.exists(storage.getJournalPath()));
+        assertFalse(Files.exists(temp) || Files.exists(retired));
+
+        // Crashed after the new snapshot was moved into place but before the retired journal was deleted.
+        Files.delete(storage.getJournalPath());
+        Files.writeString(file, "TD | 0 | read book\nTD | 0 | write report\n", StandardCharsets.UTF_8);
+        Files.writeString(retired, "A | TD | 0 | write report\n", StandardCharsets.UTF_8);
+        assertEquals(2, storage.load().size());
+        assertFalse(Files.exists(retired));
+    }
+
+    @Test
+    void journalPastThreshold_compactsIntoSnapshot() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        JournalStorage storage = new JournalStorage(file, 32);
+
+        TaskList list = new TaskList();
+        for (int i = 0; i < 4; i++) {
+            Task task = new ToDo("task number " + i);
+            list.addTask(task);
+            storage.saveTaskAdded(list, task);
+        }
+
+        assertTrue(Files.exists(file));
+        assertFalse(Files.exists(storage.getJournalPath()));
+        assertEquals(4, new TaskList(storage.load()).getSize());
+    }
+
+    @Test
+    void salvage_badJournalRecord_quarantinesItAndLaterRecords() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        Files.writeString(file, "TD | 0 | read book\n", StandardCharsets.UTF_8);
+        JournalStorage storage = new JournalStorage(file);
+        Files.writeString(storage.getJournalPath(), "A | TD | 0 | write report\nM | 7\nM | 0\n",
+                StandardCharsets.UTF_8);
+
+        SalvageResult result = storage.salvage();
+
+        assertEquals(2, result.recoveredCount());
+        assertEquals(2, result.quarantinedCount());
+        assertFalse(Files.exists(storage.getJournalPath()));
+        TaskList loaded = new TaskList(storage.load());
+        assertEquals(2, loaded.getSize());
+        assertEquals("TD | 0 | read book", loaded.get(0).toFileString());
+        assertEquals("TD | 0 | write report", loaded.get(1).toFileString());
+    }
+
+    @Test
+    void undoDelete_appendsInsertRecordWithoutSnapshot() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        JournalStorage storage = new JournalStorage(file);
+        TaskList list = new TaskList();
+        list.enableHistory(10);
+        for (String description : new String[] {"read book", "write report", "buy milk"}) {
+            Task task = new ToDo(description);
+            list.addTask(task);
+            storage.saveTaskAdded(list, task);
+        }
+        list.recordHistory();
+        list.deleteTask("2");
+        storage.saveTaskDeleted(list, 1);
+        list.recordHistory();
+
+        new UndoCommand().execute(list, new Ui(), storage);
+
+        assertFalse(Files.exists(file));
+        assertTrue(Files.readString(storage.getJournalPath()).contains("I | 1 | TD | 0 | write report | 2"));
+        TaskList loaded = new TaskList(new JournalStorage(file).load());
+        assertEquals(3, loaded.getSize());
+        assertEquals("TD | 0 | write report | 2", loaded.get(1).toFileString());
+    }
+}
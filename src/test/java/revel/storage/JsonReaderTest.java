@@ -0,0 +1,80 @@
+package revel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import revel.RevelException;
+
+public class JsonReaderTest {
+    @Test
+    void read_nestedDocument_returnsEveryValue() throws Exception {
+        JsonReader json = JsonReader.of("test.json", new StringReader(
+                "{\"name\": \"a\\\"b\\u0041\", \"list\": [1, -2.5e1, true, null, {}], \"skip\": {\"x\": [[]]}}"));
+
+        json.beginObject();
+        assertEquals("name", json.nextName());
+        assertEquals("a\"bA", json.nextString());
+        assertEquals("list", json.nextName());
+        json.beginArray();
+        assertEquals(1, json.nextLong());
+        assertEquals(-25.0, json.nextDouble());
+        assertTrue(json.nextBoolean());
+        json.nextNull();
+        json.beginObject();
+        assertFalse(json.hasNext());
+        json.endObject();
+        json.endArray();
+        assertEquals("skip", json.nextName());
+        json.skipValue();
+        json.endObject();
+        json.endDocument();
+    }
+
+    @Test
+    void nextName_repeatedKeys_returnsSameInstance() throws Exception {
+        JsonReader json = JsonReader.of("test.json", new StringReader("[{\"key\": 1}, {\"key\": 2}]"));
+
+        json.beginArray();
+        json.beginObject();
+        String first = json.nextName();
+        json.skipValue();
+        json.endObject();
+        json.beginObject();
+        String second = json.nextName();
+
+        assertSame(first, second);
+    }
+
+    @Test
+    void nextString_byteBufferLongerThanBuffer_decodesAcrossChunks() throws Exception {
+        String value = "\u00e9".repeat(20_000);
+        byte[] bytes = ("[\"" + value + "\"]").getBytes(StandardCharsets.UTF_8);
+        JsonReader json = JsonReader.of("test.json", ByteBuffer.wrap(bytes));
+
+        json.beginArray();
+        assertEquals(value, json.nextString());
+        json.endArray();
+        json.endDocument();
+    }
+
+    @Test
+    void peek_missingColon_reportsLineAndColumn() {
+        JsonReader json = JsonReader.of("test.json", new StringReader("{\n  \"a\" 1}"));
+
+        RevelException e = assertThrows(RevelException.class, () -> {
+            json.beginObject();
+            json.nextName();
+            json.nextLong();
+        });
+        assertEquals("Invalid test.json format at line 2, column 7: expected ':' after key.", e.getMessage());
+    }
+}
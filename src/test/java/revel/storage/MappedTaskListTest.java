@@ -0,0 +1,122 @@
+package revel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import revel.RevelException;
+import revel.task.Deadline;
+import revel.task.TaskList;
+import revel.task.ToDo;
+
+public class MappedTaskListTest {
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void load_mappedText_materializesOnlyAccessedTasks() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        Files.writeString(file,
+                "TD | 0 | read book\r\n"
+                + "\n"
+                + "DL | 1 | return book | 2019-12-02T18:00:00\n"
+                + "TD | 0 | write report",
+                StandardCharsets.UTF_8);
+        Storage storage = new Storage(file);
+        storage.setLoadMode(LoadMode.MAPPED);
+
+        MappedTaskList tasks = assertInstanceOf(MappedTaskList.class, storage.load());
+
+        assertEquals(3, tasks.size());
+        assertEquals(0, tasks.getMaterializedCount());
+        assertEquals("DL | 1 | return book | 2019-12-02T18:00:00", tasks.get(1).toFileString());
+        assertEquals(1, tasks.getMaterializedCount());
+        assertEquals("TD | 0 | read book", tasks.get(0).toFileString());
+        assertEquals("TD | 0 | write report", tasks.get(2).toFileString());
+    }
+
+    @Test
+    void load_mappedCorruptRecord_failsLoadSoThatSalvageCanRun() throws Exception {
+        StringBuilder good = new StringBuilder("TD | 0 | read book");
+        RecordChecksum.append(good);
+        StringBuilder tampered = new StringBuilder("TD | 0 | write report");
+        RecordChecksum.append(tampered);
+        Path file = tempDir.resolve("tasks.txt");
+        Storage storage = new Storage(file);
+        storage.setLoadMode(LoadMode.MAPPED);
+
+        Files.writeString(file, good + "\n" + good + "\n", StandardCharsets.UTF_8);
+        MappedTaskList tasks = assertInstanceOf(MappedTaskList.class, storage.load());
+        assertEquals(0, tasks.getMaterializedCount());
+
+        Files.writeString(file, good + "\n" + tampered.toString().replace("report", "r3port") + "\n",
+                StandardCharsets.UTF_8);
+        assertThrows(RevelException.class, storage::load);
+        Files.writeString(file, good + "\nTD | 0 | half writ", StandardCharsets.UTF_8);
+        assertThrows(RevelException.class, storage::load);
+        Files.writeString(file, good + "\nXX | 0 | not a task\n", StandardCharsets.UTF_8);
+        assertThrows(RevelException.class, storage::load);
+        assertEquals(1, storage.salvage().recoveredCount());
+    }
+
+    @Test
+    void load_mappedBinaryWithInvalidDate_failsLoad() throws Exception {
+        Path file = tempDir.resolve("tasks.bin");
+        TaskList list = new TaskList();
+        list.addTask(new Deadline("return book", LocalDateTime.of(2019, 12, 2, 18, 0)));
+        new Storage(file, StorageFormat.BINARY).save(list);
+        byte[] data = Files.readAllBytes(file);
+        // Header, type, done flag and ID, then the first byte of the due date.
+        data[9 + 2 + Long.BYTES] = (byte) 0x7F;
+        Files.write(file, data);
+        Storage storage = new Storage(file, StorageFormat.BINARY);
+        storage.setLoadMode(LoadMode.MAPPED);
+
+        assertThrows(RevelException.class, storage::load);
+    }
+
+    @Test
+    void load_mappedBinary_supportsAddAndRemove() throws Exception {
+        Path file = tempDir.resolve("tasks.bin");
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("read book"));
+        list.addTask(new Deadline("return book", LocalDateTime.of(2019, 12, 2, 18, 0)));
+        new Storage(file, StorageFormat.BINARY).save(list);
+        Storage storage = new Storage(file, StorageFormat.BINARY);
+        storage.setLoadMode(LoadMode.MAPPED);
+
+        TaskList loaded = TaskList.backedBy(storage.load());
+        loaded.addTask(new ToDo("write report"));
+        loaded.deleteTask("1");
+
+        assertEquals(2, loaded.getSize());
+        assertEquals("[D][ ] return book (by: 02/12/2019 18:00)", loaded.get(0).toString());
+        assertEquals("[T][ ] write report", loaded.get(1).toString());
+    }
+
+    @Test
+    void save_afterMappedLoad_rewritesSameFile() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        Files.writeString(file, "TD | 0 | read book\nTD | 0 | write report\n", StandardCharsets.UTF_8);
+        Storage storage = new Storage(file);
+        storage.setLoadMode(LoadMode.MAPPED);
+
+        TaskList loaded = TaskList.backedBy(storage.load());
+        loaded.markTask("2");
+        storage.save(loaded);
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(2, lines.size());
+        assertEquals("TD | 0 | read book", RecordChecksum.verify(lines.get(0)));
+        assertEquals("TD | 1 | write report", RecordChecksum.verify(lines.get(1)));
+    }
+}
@@ -0,0 +1,120 @@
+package revel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import revel.task.Deadline;
+import revel.task.Task;
+import revel.task.TaskList;
+import revel.task.ToDo;
+
+public class PagedStorageTest {
+    @TempDir
+    Path tempDir;
+
+    private static TaskList sampleList() {
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("read book"));
+        list.addTask(new Deadline("return book", LocalDateTime.of(2019, 12, 2, 18, 0)));
+        list.addTask(new ToDo("write report"));
+        return list;
+    }
+
+    @Test
+    void saveTaskMarked_changesSingleByte() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        new PagedStorage(file).save(sampleList());
+        PagedStorage storage = new PagedStorage(file);
+        TaskList loaded = TaskList.backedBy(storage.load());
+        byte[] before = Files.readAllBytes(file);
+
+        loaded.markTask("2");
+        storage.saveTaskMarked(loaded, 1);
+
+        byte[] after = Files.readAllBytes(file);
+        assertEquals(before.length, after.length);
+        int changed = 0;
+        for (int i = 0; i < before.length; i++) {
+            if (before[i] != after[i]) {
+                changed++;
+            }
+        }
+        assertEquals(1, changed);
+        assertEquals("DL | 1 | return book | 2019-12-02T18:00:00 | 2",
+                new PagedStorage(file).load().get(1).toFileString());
+    }
+
+    @Test
+    void deleteThenAdd_reusesFreedSlotAndKeepsOrder() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        PagedStorage storage = new PagedStorage(file);
+        TaskList list = TaskList.backedBy(storage.load());
+        for (Task task : sampleList().getTaskList()) {
+            list.addTask(task);
+            storage.saveTaskAdded(list, task);
+        }
+        long size = Files.size(file);
+
+        list.deleteTask("1");
+        storage.saveTaskDeleted(list, 0);
+        assertEquals(1, storage.getFreeSlotCount());
+        Task added = new ToDo("buy milk");
+        list.addTask(added);
+        storage.saveTaskAdded(list, added);
+
+        assertEquals(size, Files.size(file));
+        assertEquals(0, storage.getFreeSlotCount());
+        TaskList loaded = new TaskList(new PagedStorage(file).load());
+        assertEquals(3, loaded.getSize());
+        assertEquals("[D][ ] return book (by: 02/12/2019 18:00)", loaded.get(0).toString());
+        assertEquals("[T][ ] write report", loaded.get(1).toString());
+        assertEquals("[T][ ] buy milk", loaded.get(2).toString());
+    }
+
+    @Test
+    void compact_afterDeletingLongTask_shrinksFile() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        PagedStorage storage = new PagedStorage(file, 64);
+        TaskList list = TaskList.backedBy(storage.load());
+        Task longTask = new ToDo("a long description | ".repeat(20).strip());
+        list.addTask(longTask);
+        storage.saveTaskAdded(list, longTask);
+        Task shortTask = new ToDo("short");
+        list.addTask(shortTask);
+        storage.saveTaskAdded(list, shortTask);
+        assertEquals(longTask.getDescription(), new PagedStorage(file).load().get(0).getDescription());
+        long size = Files.size(file);
+
+        list.deleteTask("1");
+        storage.saveTaskDeleted(list, 0);
+        assertTrue(storage.getFreeSlotCount() > 1);
+        storage.compact(list);
+
+        assertEquals(0, storage.getFreeSlotCount());
+        assertTrue(Files.size(file) < size);
+        assertEquals("TD | 0 | short | 2", new PagedStorage(file).load().get(0).toFileString());
+    }
+
+    @Test
+    void load_textFile_convertsToPagedFormat() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        Files.writeString(file, "TD | 1 | read book\n", StandardCharsets.UTF_8);
+
+        PagedStorage storage = new PagedStorage(file);
+        TaskList loaded = TaskList.backedBy(storage.load());
+
+        assertTrue(PagedTaskFile.isPagedFile(file));
+        assertEquals("TD | 1 | read book", loaded.get(0).toFileString());
+        loaded.unmarkTask("1");
+        storage.saveTaskUnmarked(loaded, 0);
+        assertEquals("TD | 0 | read book", new Storage(file).load().get(0).toFileString());
+    }
+}
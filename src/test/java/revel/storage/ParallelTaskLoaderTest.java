@@ -0,0 +1,83 @@
+package revel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import revel.RevelException;
+import revel.task.Task;
+
+public class ParallelTaskLoaderTest {
+    @TempDir
+    Path tempDir;
+
+    private static String sampleFile(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i % 3 == 0) {
+                sb.append("TD | 1 | task ").append(i).append("\r\n");
+            } else if (i % 3 == 1) {
+                sb.append("DL | 0 | task ").append(i).append(" | 2019-12-02T18:00:00\n\n");
+            } else {
+                sb.append("E | 0 | task ").append(i).append(" | 2026-02-20T10:00:00 | 2026-02-20T11:00:00\n");
+            }
+        }
+        return sb.toString();
+    }
+
+    @Test
+    void load_smallChunks_matchesSequentialOrder() throws Exception {
+        String content = sampleFile(500);
+        Path file = tempDir.resolve("tasks.txt");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+
+        List<Task> expected = new Storage(file).load();
+        List<Task> actual = ParallelTaskLoader.load(ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8)), 37);
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).toFileString(), actual.get(i).toFileString());
+        }
+    }
+
+    @Test
+    void load_parallelModeAboveThreshold_loadsAllTasks() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        Files.writeString(file, sampleFile(100), StandardCharsets.UTF_8);
+        Storage storage = new Storage(file);
+        storage.setLoadMode(LoadMode.PARALLEL);
+        storage.setParallelThreshold(0);
+
+        assertEquals(100, storage.load().size());
+    }
+
+    @Test
+    void load_corruptLineInLaterChunk_throws() {
+        String content = sampleFile(50) + "XX | 0 | broken\n" + sampleFile(50);
+        ByteBuffer data = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(RevelException.class, () -> ParallelTaskLoader.load(data, 64));
+    }
+
+    @Test
+    void load_checksummedFileWithTruncatedLastLine_throws() {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            StringBuilder line = new StringBuilder("TD | 0 | task ").append(i);
+            RecordChecksum.append(line);
+            content.append(line).append('\n');
+        }
+        content.append("TD | 0 | half writ");
+        ByteBuffer data = ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(RevelException.class, () -> ParallelTaskLoader.load(data, 64));
+    }
+}
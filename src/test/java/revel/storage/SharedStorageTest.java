@@ -0,0 +1,173 @@
+package revel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import revel.command.CommandWord;
+import revel.task.Task;
+import revel.task.TaskList;
+import revel.task.ToDo;
+
+public class SharedStorageTest {
+    @TempDir
+    Path tempDir;
+
+    private SharedStorage open(Path file) {
+        return new SharedStorage(file, StorageFormat.TEXT, JournalStorage.DEFAULT_COMPACT_THRESHOLD);
+    }
+
+    private static List<String> descriptions(List<Task> tasks) {
+        return tasks.stream().map(Task::toString).toList();
+    }
+
+    @Test
+    void saveTaskAdded_concurrentAdds_keepsBothTasks() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        SharedStorage first = open(file);
+        SharedStorage second = open(file);
+        TaskList firstTasks = TaskList.backedBy(first.load());
+        TaskList secondTasks = TaskList.backedBy(second.load());
+
+        firstTasks.addTask(new ToDo("read book"));
+        first.saveTaskAdded(firstTasks, firstTasks.get(0));
+        secondTasks.addTask(new ToDo("write report"));
+        second.saveTaskAdded(secondTasks, secondTasks.get(0));
+
+        List<String> expected = List.of("[T][ ] read book", "[T][ ] write report");
+        assertEquals(expected, descriptions(secondTasks.getTaskList()));
+        assertEquals(1, first.reloadExternalChanges(firstTasks));
+        assertEquals(expected, descriptions(firstTasks.getTaskList()));
+        assertEquals(expected, descriptions(open(file).load()));
+    }
+
+    @Test
+    void saveTaskMarked_afterOtherProcessDeleted_marksSameTask() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        SharedStorage first = open(file);
+        TaskList initial = TaskList.backedBy(first.load());
+        initial.getTaskList().addAll(List.of(new ToDo("a"), new ToDo("b"), new ToDo("c")));
+        first.save(initial);
+        SharedStorage second = open(file);
+        TaskList firstTasks = TaskList.backedBy(first.load());
+        TaskList secondTasks = TaskList.backedBy(second.load());
+
+        firstTasks.getTaskList().remove(0);
+        first.saveTaskDeleted(firstTasks, 0);
+        secondTasks.get(2).markAsDone();
+        second.saveTaskMarked(secondTasks, 2);
+
+        List<String> expected = List.of("[T][ ] b", "[T][X] c");
+        assertEquals(expected, descriptions(secondTasks.getTaskList()));
+        first.reloadExternalChanges(firstTasks);
+        assertEquals(expected, descriptions(firstTasks.getTaskList()));
+        assertEquals(expected, descriptions(open(file).load()));
+    }
+
+    @Test
+    void save_afterOtherProcessChanges_mergesInsteadOfOverwriting() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        SharedStorage first = open(file);
+        TaskList initial = TaskList.backedBy(first.load());
+        for (String description : List.of("a", "b", "c", "d")) {
+            initial.addTask(new ToDo(description));
+        }
+        first.save(initial);
+        SharedStorage second = open(file);
+        TaskList firstTasks = TaskList.backedBy(first.load());
+        TaskList secondTasks = TaskList.backedBy(second.load());
+
+        secondTasks.deleteTask("1");
+        second.saveTaskDeleted(secondTasks, 0);
+        secondTasks.markTask("2");
+        second.saveTaskMarked(secondTasks, 1);
+        secondTasks.markTask("3");
+        second.saveTaskMarked(secondTasks, 2);
+        secondTasks.addTask(new ToDo("e"));
+        second.saveTaskAdded(secondTasks, secondTasks.get(3));
+        firstTasks.markTask("2");
+        firstTasks.unmarkTask("2");
+        firstTasks.markTask("4");
+        first.save(firstTasks);
+
+        List<String> expected = List.of("[T][ ] b", "[T][X] c", "[T][X] d", "[T][ ] e");
+        assertEquals(expected, descriptions(firstTasks.getTaskList()));
+        assertEquals(expected, descriptions(open(file).load()));
+        second.reloadExternalChanges(secondTasks);
+        assertEquals(expected, descriptions(secondTasks.getTaskList()));
+    }
+
+    @Test
+    void saveTaskInserted_afterOtherProcessMarked_keepsBothChanges() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        SharedStorage first = open(file);
+        TaskList initial = TaskList.backedBy(first.load());
+        for (String description : List.of("a", "b", "c")) {
+            initial.addTask(new ToDo(description));
+        }
+        first.save(initial);
+        SharedStorage second = open(file);
+        TaskList firstTasks = TaskList.backedBy(first.load());
+        TaskList secondTasks = TaskList.backedBy(second.load());
+
+        secondTasks.markTask("2");
+        second.saveTaskMarked(secondTasks, 1);
+        firstTasks.getTaskList().add(1, new ToDo("x"));
+        first.saveTaskInserted(firstTasks, 1);
+
+        List<String> expected = List.of("[T][ ] a", "[T][ ] x", "[T][X] b", "[T][ ] c");
+        assertEquals(expected, descriptions(firstTasks.getTaskList()));
+        assertEquals(expected, descriptions(open(file).load()));
+        second.reloadExternalChanges(secondTasks);
+        assertEquals(expected, descriptions(secondTasks.getTaskList()));
+    }
+
+    @Test
+    void getIdSource_concurrentAdds_giveOutDifferentIds() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        SharedStorage first = open(file);
+        SharedStorage second = open(file);
+        TaskList firstTasks = TaskList.backedBy(first.load());
+        firstTasks.setIdSource(first.getIdSource());
+        TaskList secondTasks = TaskList.backedBy(second.load());
+        secondTasks.setIdSource(second.getIdSource());
+
+        firstTasks.addTask(new ToDo("read book"));
+        secondTasks.addTask(new ToDo("write report"));
+        first.saveTaskAdded(firstTasks, firstTasks.get(0));
+        second.saveTaskAdded(secondTasks, secondTasks.get(0));
+
+        assertEquals(List.of(1L, 2L), open(file).load().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void reloadExternalChanges_noNewChanges_returnsZero() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        SharedStorage storage = open(file);
+        TaskList tasks = TaskList.backedBy(storage.load());
+        tasks.addTask(new ToDo("read book"));
+        storage.saveTaskAdded(tasks, tasks.get(0));
+
+        assertEquals(0, storage.reloadExternalChanges(tasks));
+        assertEquals(1, storage.getKnownVersion());
+    }
+
+    @Test
+    void aliasStorage_changesFromTwoInstances_keepsBothAliases() throws Exception {
+        Path file = tempDir.resolve("aliases.json");
+        AliasStorage first = new AliasStorage(file);
+        AliasStorage second = new AliasStorage(file);
+
+        first.queuePut("ls2", CommandWord.LIST);
+        first.flush();
+        second.queuePut("rm", CommandWord.DELETE);
+        second.flush();
+
+        assertEquals(Map.of("ls2", CommandWord.LIST, "rm", CommandWord.DELETE), new AliasStorage(file).load());
+    }
+}
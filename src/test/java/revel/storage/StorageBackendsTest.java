@@ -0,0 +1,69 @@
+package revel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import revel.parser.Parser;
+import revel.task.TaskList;
+import revel.task.ToDo;
+import revel.ui.Ui;
+
+public class StorageBackendsTest {
+    @TempDir
+    Path tempDir;
+
+    private static Properties mode(String mode) {
+        Properties properties = new Properties();
+        properties.setProperty(StorageBackends.MODE_PROPERTY, mode);
+        return properties;
+    }
+
+    @Test
+    void create_selectsBackendByMode() {
+        Path file = tempDir.resolve("tasks.txt");
+
+        assertInstanceOf(Storage.class, StorageBackends.create(file, new Properties()));
+        assertInstanceOf(JournalStorage.class, StorageBackends.create(file, mode("journal")));
+        assertInstanceOf(PagedStorage.class, StorageBackends.create(file, mode("paged")));
+        assertInstanceOf(InMemoryStorage.class, StorageBackends.create(file, mode("Memory")));
+    }
+
+    @Test
+    void create_binaryMode_writesBinaryFile() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("read book"));
+
+        StorageBackends.create(file, mode("binary")).save(list);
+
+        assertTrue(BinaryTaskCodec.hasHeader(Files.readAllBytes(file)));
+    }
+
+    @Test
+    void inMemoryStorage_commands_persistWithoutTouchingDisk() throws Exception {
+        StorageBackend storage = new InMemoryStorage();
+        TaskList tasks = TaskList.backedBy(storage.load());
+        Ui ui = new Ui();
+
+        Parser.parse("todo read book").execute(tasks, ui, storage);
+        Parser.parse("todo write report").execute(tasks, ui, storage);
+        Parser.parse("mark 2").execute(tasks, ui, storage);
+        Parser.parse("delete 1").execute(tasks, ui, storage);
+
+        TaskList reloaded = new TaskList(storage.load());
+        assertEquals(1, reloaded.getSize());
+        assertEquals("[T][X] write report", reloaded.get(0).toString());
+        try (var files = Files.list(tempDir)) {
+            assertFalse(files.findAny().isPresent());
+        }
+    }
+}
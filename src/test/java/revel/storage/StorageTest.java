@@ -1,16 +1,22 @@
 package revel.storage;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
+import revel.RevelException;
 import revel.task.Deadline;
+import revel.task.Event;
+import revel.task.Task;
 import revel.task.TaskList;
 import revel.task.ToDo;
 
@@ -70,4 +76,127 @@ public class StorageTest {
         storage.save(list);
         assertEquals(true, Files.exists(file));
     }
+
+    @Test
+    void saveThenLoad_binaryFormat_roundTrip() throws Exception {
+        Path file = tempDir.resolve("tasks.bin");
+        Storage storage = new Storage(file, StorageFormat.BINARY);
+
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("read book"));
+        list.addTask(new Deadline("return book", LocalDateTime.of(2019, 12, 2, 18, 0)));
+        list.addTask(new Event("caf\u00e9 meetup", LocalDateTime.of(2026, 2, 20, 10, 0),
+                LocalDateTime.of(2026, 2, 20, 11, 30)));
+        list.markTask("2");
+
+        storage.save(list);
+        TaskList loaded = new TaskList(new Storage(file).load());
+
+        assertEquals(3, loaded.getSize());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(list.get(i).toFileString(), loaded.get(i).toFileString());
+        }
+    }
+
+    @Test
+    void load_truncatedBinaryFile_throws() throws Exception {
+        Path file = tempDir.resolve("tasks.bin");
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("read book"));
+        new Storage(file, StorageFormat.BINARY).save(list);
+        byte[] data = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(data, data.length - 3));
+
+        assertThrows(RevelException.class, () -> new Storage(file).load());
+    }
+
+    @Test
+    void convert_textToBinaryAndBack_preservesTasks() throws Exception {
+        Path text = tempDir.resolve("tasks.txt");
+        Files.writeString(text,
+                "TD | 1 | read book\n"
+                + "E | 0 | project meeting | 2026-02-20T10:00:00 | 2026-02-20T11:00:00\n",
+                java.nio.charset.StandardCharsets.UTF_8);
+        Path binary = tempDir.resolve("tasks.bin");
+        Path back = tempDir.resolve("tasks-back.txt");
+
+        assertEquals(2, TaskFileConverter.convert(text, binary, StorageFormat.BINARY));
+        assertEquals(2, TaskFileConverter.convert(binary, back, StorageFormat.TEXT));
+
+        List<String> records = new ArrayList<>();
+        for (String line : Files.readAllLines(back)) {
+            records.add(RecordChecksum.verify(line));
+        }
+        assertEquals(Files.readAllLines(text), records);
+    }
+
+    @Test
+    void load_checksumMismatch_throws() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("read book"));
+        new Storage(file).save(list);
+        Files.writeString(file, Files.readString(file).replace("read book", "read boot"));
+
+        assertThrows(RevelException.class, () -> new Storage(file).load());
+    }
+
+    @Test
+    void salvage_corruptRecords_quarantinesThemAndKeepsTheRest() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("read book"));
+        list.addTask(new ToDo("write report"));
+        Storage storage = new Storage(file);
+        storage.save(list);
+        List<String> lines = Files.readAllLines(file);
+        StringBuilder deadline = new StringBuilder("DL | 1 | return book | 2019-12-02T18:00:00");
+        RecordChecksum.append(deadline);
+        Files.write(file, List.of(
+                lines.get(0),
+                "XX | 0 | broken",
+                lines.get(1).replace("write", "wrote"),
+                deadline.toString()));
+
+        SalvageResult result = storage.salvage();
+
+        assertEquals(2, result.recoveredCount());
+        assertEquals(2, result.quarantinedCount());
+        assertEquals(List.of("XX | 0 | broken", lines.get(1).replace("write", "wrote")),
+                Files.readAllLines(storage.getQuarantinePath()));
+        TaskList loaded = new TaskList(storage.load());
+        assertEquals(2, loaded.getSize());
+        assertEquals("TD | 0 | read book | 1", loaded.get(0).toFileString());
+        assertEquals("DL | 1 | return book | 2019-12-02T18:00:00", loaded.get(1).toFileString());
+    }
+
+    @Test
+    void salvage_truncatedLastLineOrDamagedChecksum_quarantinesTheRecord() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("read book"));
+        list.addTask(new ToDo("write report"));
+        list.addTask(new ToDo("buy milk"));
+        Storage storage = new Storage(file);
+        storage.save(list);
+        List<String> lines = Files.readAllLines(file);
+        String damaged = lines.get(1).substring(0, lines.get(1).length() - 4);
+        Files.write(file, List.of(lines.get(0), damaged, "TD | 0 | half writ"));
+
+        assertThrows(RevelException.class, () -> storage.load());
+        SalvageResult result = storage.salvage();
+
+        assertEquals(1, result.recoveredCount());
+        assertEquals(List.of(damaged, "TD | 0 | half writ"), Files.readAllLines(storage.getQuarantinePath()));
+        assertEquals(List.of("TD | 0 | read book | 1"),
+                storage.load().stream().map(Task::toFileString).toList());
+    }
+
+    @Test
+    void load_recordsWithoutChecksums_stillLoad() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        Files.write(file, List.of("TD | 0 | read book", "TD | 1 | write report | 2"));
+
+        assertEquals(2, new Storage(file).load().size());
+    }
 }
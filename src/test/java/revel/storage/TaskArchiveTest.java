@@ -0,0 +1,84 @@
+package revel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import revel.task.Task;
+import revel.task.TaskList;
+import revel.task.ToDo;
+
+public class TaskArchiveTest {
+    @TempDir
+    Path tempDir;
+
+    private static TaskList sampleTasks() {
+        TaskList tasks = new TaskList();
+        tasks.addTask(new ToDo("read book"));
+        tasks.addTask(new ToDo("Submit Report"));
+        tasks.addTask(new ToDo("water plants"));
+        tasks.get(1).markAsDone();
+        tasks.get(2).markAsDone();
+        return tasks;
+    }
+
+    @Test
+    void archiveDone_movesCompletedTasksOutOfTaskFile() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        Storage storage = new Storage(file);
+        TaskList tasks = sampleTasks();
+        TaskArchive archive = new TaskArchive(file);
+
+        assertEquals(2, archive.archiveDone(tasks, storage));
+
+        assertEquals(1, tasks.getSize());
+        assertEquals(1, storage.load().size());
+        assertTrue(Files.exists(archive.getArchivePath()));
+        assertEquals(2, archive.search("").size());
+    }
+
+    @Test
+    void search_afterReopening_findsTasksCaseInsensitively() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        new TaskArchive(file).archiveDone(sampleTasks(), new Storage(file));
+        TaskList more = new TaskList();
+        more.addTask(new ToDo("submit taxes"));
+        more.get(0).markAsDone();
+        new TaskArchive(file).archiveDone(more, new Storage(file));
+
+        List<Task> found = new TaskArchive(file).search("SUBMIT");
+
+        assertEquals(2, found.size());
+        assertEquals("[T][X] Submit Report", found.get(0).toString());
+        assertEquals("[T][X] submit taxes", found.get(1).toString());
+    }
+
+    @Test
+    void search_keywordRejectedByFilter_doesNotReadArchive() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        TaskArchive archive = new TaskArchive(file);
+        archive.archiveDone(sampleTasks(), new Storage(file));
+        byte[] archived = Files.readAllBytes(archive.getArchivePath());
+        // Same length, so the filter still counts as current, but the contents are unreadable.
+        Files.write(archive.getArchivePath(), new byte[archived.length]);
+
+        assertTrue(new TaskArchive(file).search("xylophone").isEmpty());
+    }
+
+    @Test
+    void applyPolicy_belowThreshold_keepsTasks() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        TaskList tasks = sampleTasks();
+
+        assertEquals(0, new TaskArchive(file, 3).applyPolicy(tasks, new Storage(file)));
+        assertEquals(3, tasks.getSize());
+        assertEquals(2, new TaskArchive(file, 2).applyPolicy(tasks, new Storage(file)));
+        assertEquals(1, tasks.getSize());
+    }
+}
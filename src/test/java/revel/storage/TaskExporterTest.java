@@ -0,0 +1,81 @@
+package revel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import revel.task.Deadline;
+import revel.task.Event;
+import revel.task.Task;
+import revel.task.ToDo;
+
+public class TaskExporterTest {
+    @TempDir
+    Path tempDir;
+
+    private static List<Task> sampleTasks() {
+        Task todo = new ToDo("read, then summarise \"book\"");
+        todo.markAsDone();
+        return List.of(todo,
+                new Deadline("submit report", LocalDateTime.of(2026, 2, 20, 18, 0)),
+                new Event("party", LocalDateTime.of(2026, 2, 20, 0, 0), LocalDateTime.of(2026, 2, 21, 0, 0)));
+    }
+
+    private static List<String> strings(List<Task> tasks) {
+        return tasks.stream().map(Task::toString).toList();
+    }
+
+    @Test
+    void export_csvAndJsonLines_roundTripThroughImport() throws Exception {
+        for (ExchangeFormat format : List.of(ExchangeFormat.CSV, ExchangeFormat.JSONL)) {
+            Path file = tempDir.resolve("tasks." + format.getExtension());
+
+            assertEquals(3, TaskExporter.export(sampleTasks(), format, file));
+            TaskImporter.ImportResult result = TaskImporter.read(file, format, null);
+
+            assertEquals(strings(sampleTasks()), strings(result.tasks()));
+            assertEquals(0, result.failedCount());
+        }
+    }
+
+    @Test
+    void write_icalendar_foldsLongLinesAndRoundTrips() throws Exception {
+        Task longTodo = new ToDo("x".repeat(200) + "; with, separators");
+        StringWriter out = new StringWriter();
+
+        TaskExporter.write(List.of(longTodo, sampleTasks().get(1), sampleTasks().get(2)), ExchangeFormat.ICS, out);
+
+        String ics = out.toString();
+        assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(ics.contains("BEGIN:VEVENT\r\n"));
+        assertTrue(ics.contains("DUE:20260220T180000\r\n"));
+        for (String line : ics.split("\r\n")) {
+            assertTrue(line.length() <= 75, line);
+        }
+
+        Path file = tempDir.resolve("tasks.ics");
+        Files.writeString(file, ics);
+        TaskImporter.ImportResult result = TaskImporter.read(file, ExchangeFormat.ICS, null);
+        assertEquals(strings(List.of(longTodo, sampleTasks().get(1), sampleTasks().get(2))),
+                strings(result.tasks()));
+    }
+
+    @Test
+    void exportAsync_writesFileOffTheCallingThread() throws Exception {
+        Path file = tempDir.resolve("out").resolve("tasks.jsonl");
+
+        int count = TaskExporter.exportAsync(sampleTasks(), ExchangeFormat.JSONL, file).get();
+
+        assertEquals(3, count);
+        assertEquals(3, Files.readAllLines(file).size());
+        assertTrue(Files.notExists(file.resolveSibling("tasks.jsonl.tmp")));
+    }
+}
@@ -0,0 +1,99 @@
+package revel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import revel.task.Task;
+
+public class TaskImporterTest {
+    @TempDir
+    Path tempDir;
+
+    private static List<String> strings(List<Task> tasks) {
+        return tasks.stream().map(Task::toString).toList();
+    }
+
+    @Test
+    void read_csv_parsesEveryTypeAndSkipsBadRows() throws Exception {
+        Path file = tempDir.resolve("tasks.csv");
+        Files.writeString(file, String.join("\n",
+                "type,description,first,second,done",
+                "todo,\"read, then summarise \"\"book\"\"\",,,1",
+                "deadline,submit report,2026-02-20 1800",
+                "event,party,2026-02-20,2026-02-21",
+                "deadline,missing date",
+                ""));
+
+        TaskImporter.ImportResult result = TaskImporter.read(file, ExchangeFormat.CSV, null);
+
+        assertEquals(List.of(
+                "[T][X] read, then summarise \"book\"",
+                "[D][ ] submit report (by: 20/02/2026 18:00)",
+                "[E][ ] party (from: 20/02/2026 to: 21/02/2026)"), strings(result.tasks()));
+        assertEquals(1, result.failedCount());
+        assertTrue(result.errors().get(0).startsWith("Line 5:"));
+    }
+
+    @Test
+    void read_jsonLines_parsesObjects() throws Exception {
+        Path file = tempDir.resolve("tasks.jsonl");
+        Files.writeString(file, "{\"type\": \"todo\", \"description\": \"read book\", \"done\": true}\n"
+                + "{\"type\": \"event\", \"description\": \"camp\", \"from\": \"2026-03-01T09:00\","
+                + " \"to\": \"2026-03-02 1700\", \"tags\": [\"x\"]}\n");
+
+        TaskImporter.ImportResult result = TaskImporter.read(file, ExchangeFormat.JSONL, null);
+
+        assertEquals(List.of("[T][X] read book", "[E][ ] camp (from: 01/03/2026 09:00 to: 02/03/2026 17:00)"),
+                strings(result.tasks()));
+    }
+
+    @Test
+    void read_icalendar_mapsTodosAndEvents() throws Exception {
+        Path file = tempDir.resolve("tasks.ics");
+        Files.writeString(file, String.join("\r\n",
+                "BEGIN:VCALENDAR",
+                "BEGIN:VTODO",
+                "SUMMARY:submit the quarterly",
+                "  report",
+                "DUE;VALUE=DATE:20260220",
+                "STATUS:COMPLETED",
+                "END:VTODO",
+                "BEGIN:VEVENT",
+                "SUMMARY:team lunch\\, friday",
+                "DTSTART:20260220T120000",
+                "DTEND:20260220T133000",
+                "END:VEVENT",
+                "END:VCALENDAR",
+                ""));
+
+        TaskImporter.ImportResult result = TaskImporter.read(file, ExchangeFormat.ICS, null);
+
+        assertEquals(List.of("[D][X] submit the quarterly report (by: 20/02/2026)",
+                "[E][ ] team lunch, friday (from: 20/02/2026 12:00 to: 20/02/2026 13:30)"), strings(result.tasks()));
+    }
+
+    @Test
+    void read_manyRecords_keepsFileOrderAcrossBatches() throws Exception {
+        Path file = tempDir.resolve("tasks.csv");
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            lines.add("todo,task " + i);
+        }
+        Files.write(file, lines);
+
+        List<Task> tasks = TaskImporter.read(file, ExchangeFormat.CSV, null).tasks();
+
+        assertEquals(10_000, tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            assertEquals("task " + i, tasks.get(i).getDescription());
+        }
+    }
+}
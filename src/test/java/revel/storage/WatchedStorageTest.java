@@ -0,0 +1,84 @@
+package revel.storage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import revel.task.Task;
+import revel.task.TaskList;
+import revel.task.ToDo;
+
+public class WatchedStorageTest {
+    @TempDir
+    Path tempDir;
+
+    private static TaskList tasksOf(String... descriptions) {
+        TaskList tasks = new TaskList();
+        for (String description : descriptions) {
+            tasks.addTask(new ToDo(description));
+        }
+        return tasks;
+    }
+
+    @Test
+    void reload_externalEdit_replacesOnlyChangedRecords() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        WatchedStorage storage = new WatchedStorage(new Storage(file));
+        TaskList tasks = TaskList.backedBy(storage.load());
+        tasks.getTaskList().addAll(tasksOf("read book", "write report", "water plants").getTaskList());
+        storage.save(tasks);
+        Task first = tasks.get(0);
+        Task last = tasks.get(2);
+
+        List<String> lines = Files.readAllLines(file);
+        StringBuilder edited = new StringBuilder("TD | 0 | write the final report");
+        RecordChecksum.append(edited);
+        StringBuilder added = new StringBuilder("TD | 0 | call mum");
+        RecordChecksum.append(added);
+        Files.write(file, List.of(lines.get(0), edited.toString(), added.toString(), lines.get(2)));
+
+        assertEquals(2, storage.reload(tasks));
+        assertEquals(4, tasks.getSize());
+        assertSame(first, tasks.get(0));
+        assertEquals("[T][ ] write the final report", tasks.get(1).toString());
+        assertEquals("[T][ ] call mum", tasks.get(2).toString());
+        assertSame(last, tasks.get(3));
+    }
+
+    @Test
+    void reload_ownWrite_changesNothing() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        WatchedStorage storage = new WatchedStorage(new Storage(file));
+        TaskList tasks = TaskList.backedBy(storage.load());
+        tasks.addTask(new ToDo("read book"));
+        storage.saveTaskAdded(tasks, tasks.get(0));
+
+        assertEquals(0, storage.reload(tasks));
+        assertEquals(1, tasks.getSize());
+    }
+
+    @Test
+    void reloadExternalChanges_fileModified_picksUpChange() throws Exception {
+        Path file = tempDir.resolve("tasks.txt");
+        new Storage(file).save(tasksOf("read book"));
+        WatchedStorage storage = new WatchedStorage(new Storage(file));
+        TaskList tasks = TaskList.backedBy(storage.load());
+
+        new Storage(file).save(tasksOf("read book", "write report"));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        int changed = 0;
+        while (changed == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            changed = storage.reloadExternalChanges(tasks);
+        }
+        assertEquals(1, changed);
+        assertEquals("[T][ ] write report", tasks.get(1).toString());
+    }
+}
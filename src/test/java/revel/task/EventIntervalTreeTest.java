@@ -0,0 +1,56 @@
+package revel.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class EventIntervalTreeTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private static List<Event> scan(List<Event> events, LocalDateTime start, LocalDateTime end) {
+        List<Event> found = new ArrayList<>();
+        for (Event event : events) {
+            if (!event.getFromDate().isAfter(end) && !event.getToDate().isBefore(start)) {
+                found.add(event);
+            }
+        }
+        // Stable sort keeps events with the same start in the order they were added.
+        found.sort(Comparator.comparing(Event::getFromDate));
+        return found;
+    }
+
+    @Test
+    void randomUpdates_findOverlapping_matchesLinearScan() {
+        Random random = new Random(7);
+        List<Event> expected = new ArrayList<>();
+        EventIntervalTree tree = new EventIntervalTree(List.of());
+        for (int i = 0; i < 3000; i++) {
+            if (expected.isEmpty() || random.nextInt(3) > 0) {
+                LocalDateTime from = BASE.plusHours(random.nextInt(500));
+                Event event = new Event("event " + i, from, from.plusHours(random.nextInt(48)));
+                expected.add(event);
+                tree.add(event);
+            } else if (random.nextBoolean()) {
+                tree.remove(expected.remove(random.nextInt(expected.size())));
+            } else {
+                int index = random.nextInt(expected.size());
+                Event copy = (Event) expected.get(index).copy();
+                tree.replace(expected.get(index), copy);
+                expected.set(index, copy);
+            }
+
+            if (i % 50 == 0) {
+                LocalDateTime start = BASE.plusHours(random.nextInt(520));
+                LocalDateTime end = start.plusHours(random.nextInt(30));
+                assertEquals(scan(expected, start, end), tree.findOverlapping(start, end));
+                assertEquals(expected.size(), tree.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package revel.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class LongTaskMapTest {
+    @Test
+    void randomUpdates_matchHashMap() {
+        Random random = new Random(11);
+        Map<Long, Task> expected = new HashMap<>();
+        LongTaskMap map = new LongTaskMap();
+        for (int i = 0; i < 20000; i++) {
+            // A small key range makes long probe runs and many removals of keys inside them.
+            long key = 1 + random.nextInt(3000);
+            if (random.nextInt(3) == 0) {
+                assertSame(expected.remove(key), map.remove(key));
+            } else {
+                Task task = new ToDo("task " + i);
+                assertSame(expected.put(key, task), map.put(key, task));
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long key = 1; key <= 3000; key++) {
+            assertSame(expected.get(key), map.get(key));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package revel.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class PersistentTaskVectorTest {
+
+    private static List<Task> toList(PersistentTaskVector vector) {
+        List<Task> tasks = new ArrayList<>();
+        vector.forEach(tasks::add);
+        return tasks;
+    }
+
+    @Test
+    void randomUpdates_matchArrayListAndKeepOldVersions() {
+        Random random = new Random(42);
+        List<Task> expected = new ArrayList<>();
+        PersistentTaskVector vector = PersistentTaskVector.EMPTY;
+        for (int i = 0; i < 2000; i++) {
+            int choice = random.nextInt(4);
+            if (expected.isEmpty() || choice < 2) {
+                int index = random.nextInt(expected.size() + 1);
+                Task task = new ToDo("task " + i);
+                expected.add(index, task);
+                vector = vector.insert(index, task);
+            } else if (choice == 2) {
+                int index = random.nextInt(expected.size());
+                expected.remove(index);
+                vector = vector.remove(index);
+            } else {
+                int index = random.nextInt(expected.size());
+                Task task = new ToDo("replaced " + i);
+                expected.set(index, task);
+                vector = vector.set(index, task);
+            }
+        }
+        assertEquals(expected, toList(vector));
+        assertEquals(expected.get(expected.size() / 2), vector.get(expected.size() / 2));
+
+        PersistentTaskVector before = vector;
+        List<Task> snapshot = new ArrayList<>(expected);
+        vector.insert(0, new ToDo("later")).remove(1);
+        assertEquals(snapshot, toList(before));
+        assertEquals(snapshot, toList(PersistentTaskVector.of(snapshot)));
+    }
+}
@@ -1,9 +1,15 @@
 package revel.task;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 import revel.RevelException;
@@ -95,4 +101,375 @@ public class TaskListTest {
 
         assertThrows(RevelException.class, () -> list.findTasks("  "));
     }
+
+    @Test
+    void rollbackTransaction_restoresListAndTaskStatus() throws Exception {
+        TaskList list = new TaskList();
+        Task original = new ToDo("read book");
+        list.addTask(original);
+        list.addTask(new ToDo("write report"));
+
+        list.beginTransaction();
+        list.markTask("1");
+        list.deleteTask("2");
+        list.addTask(new ToDo("buy milk"));
+        assertEquals("[T][X] read book", list.get(0).toString());
+
+        assertTrue(list.rollbackTransaction());
+        assertEquals(2, list.getSize());
+        assertSame(original, list.get(0));
+        assertEquals("[T][ ] read book", original.toString());
+        assertThrows(RevelException.class, list::rollbackTransaction);
+    }
+
+    @Test
+    void commitTransaction_keepsChanges() throws Exception {
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("read book"));
+
+        list.beginTransaction();
+        assertThrows(RevelException.class, list::beginTransaction);
+        list.markTask("1");
+        list.addTask(new ToDo("buy milk"));
+
+        assertTrue(list.commitTransaction());
+        assertEquals("[T][X] read book", list.get(0).toString());
+        assertEquals(2, list.getSize());
+        assertFalse(list.isInTransaction());
+    }
+
+    private static TaskList.ChangeListener ignoreChanges() {
+        return new TaskList.ChangeListener() {
+            @Override
+            public void taskInserted(int index) {
+            }
+
+            @Override
+            public void taskDeleted(int index) {
+            }
+
+            @Override
+            public void taskStatusChanged(int index) {
+            }
+
+            @Override
+            public void tasksReplaced() {
+            }
+        };
+    }
+
+    @Test
+    void undoAndRedo_restoreEarlierVersions() throws Exception {
+        TaskList list = new TaskList();
+        list.enableHistory(10);
+        list.addTask(new ToDo("read book"));
+        list.recordHistory();
+        list.markTask("1");
+        list.recordHistory();
+        list.addTask(new ToDo("buy milk"));
+        list.recordHistory();
+
+        assertTrue(list.undo(ignoreChanges()));
+        assertEquals(1, list.getSize());
+        assertTrue(list.undo(ignoreChanges()));
+        assertEquals("[T][ ] read book", list.get(0).toString());
+        assertTrue(list.redo(ignoreChanges()));
+        assertEquals("[T][X] read book", list.get(0).toString());
+
+        list.deleteTask("1");
+        list.recordHistory();
+        assertFalse(list.redo(ignoreChanges()));
+        assertTrue(list.undo(ignoreChanges()));
+        assertEquals("[T][X] read book", list.get(0).toString());
+    }
+
+    @Test
+    void recordHistory_keepsOnlyConfiguredDepth() throws Exception {
+        TaskList list = new TaskList();
+        list.enableHistory(2);
+        for (int i = 0; i < 5; i++) {
+            list.addTask(new ToDo("task " + i));
+            list.recordHistory();
+        }
+
+        assertTrue(list.undo(ignoreChanges()));
+        assertTrue(list.undo(ignoreChanges()));
+        assertFalse(list.undo(ignoreChanges()));
+        assertEquals(3, list.getSize());
+    }
+
+    private static List<String> descriptions(TaskList tasks) {
+        return tasks.getTaskList().stream().map(Task::getDescription).toList();
+    }
+
+    @Test
+    void findTasks_andOrQueries_matchSubstringsInListOrder() throws Exception {
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("Read book"));
+        list.addTask(new ToDo("buy pen"));
+        list.addTask(new ToDo("reread e-mail from Bob"));
+        list.addTask(new ToDo("bookshelf repair"));
+
+        assertEquals(List.of("Read book", "reread e-mail from Bob"), descriptions(list.findTasks("read")));
+        assertEquals(List.of("Read book"), descriptions(list.findTasks("read book")));
+        assertEquals(List.of("Read book", "buy pen", "bookshelf repair"),
+                descriptions(list.findTasks("book OR pen")));
+        assertEquals(List.of("reread e-mail from Bob"), descriptions(list.findTasks("e-mail")));
+        assertEquals(List.of("bookshelf repair"), descriptions(list.findTasks("shelf OR xyz pen")));
+    }
+
+    @Test
+    void findTasks_repeatedOrTrailingOr_ignoresEmptyAlternatives() throws Exception {
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("Read book"));
+        list.addTask(new ToDo("buy pen"));
+        list.addTask(new ToDo("write report"));
+
+        assertEquals(List.of("Read book", "buy pen"), descriptions(list.findTasks("book OR OR pen")));
+        assertEquals(List.of("Read book"), descriptions(list.findTasks("book OR")));
+        assertEquals(List.of("buy pen"), descriptions(list.findTasks("OR pen")));
+        assertEquals(List.of(), descriptions(list.findTasks("OR OR")));
+    }
+
+    @Test
+    void findTasks_afterAddDeleteAndMark_reflectsCurrentList() throws Exception {
+        TaskList list = new TaskList();
+        list.enableHistory(5);
+        list.addTask(new ToDo("read book"));
+        list.addTask(new ToDo("write report"));
+        assertEquals(1, list.findTasks("book").getSize());
+
+        list.deleteTask("1");
+        list.addTask(new ToDo("book flights"));
+        list.markTask("2");
+
+        TaskList found = list.findTasks("book");
+        assertEquals(1, found.getSize());
+        assertEquals("[T][X] book flights", found.get(0).toString());
+    }
+
+    @Test
+    void findTasks_trigramCandidates_keepContainsSemanticsAndUpdateStats() throws Exception {
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("Read book"));
+        list.addTask(new ToDo("fix book-shelf"));
+        list.addTask(new ToDo("buy pen"));
+
+        assertEquals(List.of("Read book", "fix book-shelf"), descriptions(list.findTasks("ook")));
+        assertEquals(List.of("fix book-shelf"), descriptions(list.findTasks("ok-sh")));
+        assertEquals(List.of("buy pen"), descriptions(list.findTasks("pe")));
+        assertEquals(List.of(), descriptions(list.findTasks("koob")));
+        assertEquals(3, list.getSearchIndexStats().taskCount());
+
+        list.deleteTask("1");
+        list.addTask(new ToDo("bookmark page"));
+
+        assertEquals(List.of("fix book-shelf", "bookmark page"), descriptions(list.findTasks("ook")));
+        TaskList.SearchIndexStats stats = list.getSearchIndexStats();
+        assertEquals(3, stats.taskCount());
+        assertTrue(stats.trigramCount() > 0);
+        assertTrue(stats.footprintBytes() > 0);
+    }
+
+    @Test
+    void findEventsDuring_afterAddAndDelete_returnsOverlappingEventsByStart() throws Exception {
+        LocalDateTime day = LocalDateTime.of(2026, 3, 2, 0, 0);
+        TaskList list = new TaskList();
+        list.addTask(new Event("conference", day.plusDays(1), day.plusDays(3)));
+        list.addTask(new Deadline("report", day.plusDays(1)));
+        list.addTask(new Event("standup", day.plusHours(9), day.plusHours(10)));
+        assertEquals(List.of("standup", "conference"), descriptions(list.findEventsDuring(day, day.plusDays(1))));
+
+        list.addTask(new Event("trip", day.minusDays(2), day));
+        list.deleteTask("3");
+
+        assertEquals(List.of("trip", "conference"), descriptions(list.findEventsDuring(day, day.plusDays(1))));
+        assertEquals(List.of(), descriptions(list.findEventsDuring(day.plusDays(4), day.plusDays(5))));
+    }
+
+    @Test
+    void dueDateQueries_skipDoneTasksAndFollowChanges() throws Exception {
+        LocalDateTime now = LocalDateTime.of(2026, 3, 2, 9, 0);
+        TaskList list = new TaskList();
+        list.addTask(new Deadline("tax return", now.minusDays(3)));
+        list.addTask(new Event("review", now.minusHours(1), now.plusHours(1)));
+        list.addTask(new ToDo("read book"));
+        list.addTask(new Deadline("report", now.plusDays(2)));
+        list.addTask(new Event("trip", now.plusDays(1), now.plusDays(4)));
+        list.addTask(new Deadline("library book", now.minusDays(1)));
+
+        assertEquals(List.of("tax return", "library book"), descriptions(list.findOverdue(now)));
+        assertEquals(List.of("trip", "report"), descriptions(list.findUpcoming(now, 5)));
+        assertEquals(List.of("trip"), descriptions(list.findUpcoming(now, 1)));
+        assertEquals(List.of("tax return", "library book", "review", "trip"),
+                descriptions(list.findDueBefore(now.plusDays(2))));
+
+        list.markTask("1");
+        list.deleteTask("5");
+        list.addTask(new Deadline("call bank", now.plusHours(3)));
+
+        assertEquals(List.of("library book"), descriptions(list.findOverdue(now)));
+        assertEquals(List.of("call bank", "report"), descriptions(list.findUpcoming(now, 5)));
+
+        list.unmarkTask("1");
+        assertEquals(List.of("tax return", "library book"), descriptions(list.findOverdue(now)));
+    }
+
+    @Test
+    void dueDateQueries_markWithHistory_followsCopiesAndUndo() throws Exception {
+        LocalDateTime now = LocalDateTime.of(2026, 3, 2, 9, 0);
+        TaskList list = new TaskList();
+        list.enableHistory(5);
+        list.addTask(new Deadline("tax return", now.minusDays(3)));
+        list.addTask(new Deadline("library book", now.minusDays(3)));
+        list.recordHistory();
+        assertEquals(List.of("tax return", "library book"), descriptions(list.findOverdue(now)));
+
+        list.markTask("1");
+        list.recordHistory();
+        assertEquals(List.of("library book"), descriptions(list.findOverdue(now)));
+
+        list.unmarkTask("1");
+        list.recordHistory();
+        assertEquals(List.of("tax return", "library book"), descriptions(list.findOverdue(now)));
+
+        list.markTask("2");
+        list.recordHistory();
+        assertEquals(List.of("tax return"), descriptions(list.findOverdue(now)));
+        assertTrue(list.undo(ignoreChanges()));
+        assertEquals(List.of("tax return", "library book"), descriptions(list.findOverdue(now)));
+    }
+
+    @Test
+    void backedBy_firstChange_movesTasksIntoTree() throws Exception {
+        List<Task> loaded = new ArrayList<>(List.of(new ToDo("read book"), new ToDo("buy pen")));
+        TaskList list = TaskList.backedBy(loaded);
+        assertSame(loaded, list.getTaskList());
+
+        list.deleteTask("1");
+
+        assertTrue(list.getTaskList() instanceof VersionedTaskList);
+        assertEquals(List.of("buy pen"), descriptions(list));
+    }
+
+    @Test
+    void enableHistory_loadedList_staysUntouchedUntilFirstChangeAndCanBeUndone() throws Exception {
+        List<Task> loaded = new ArrayList<>(List.of(new ToDo("read book"), new ToDo("buy pen")));
+        TaskList list = TaskList.backedBy(loaded);
+        list.enableHistory(5);
+        list.recordHistory();
+        assertSame(loaded, list.getTaskList());
+        assertFalse(list.undo(ignoreChanges()));
+
+        list.markTask("2");
+        list.recordHistory();
+        list.deleteTask("1");
+        list.recordHistory();
+
+        assertTrue(list.undo(ignoreChanges()));
+        assertTrue(list.undo(ignoreChanges()));
+        assertEquals("[T][ ] read book", list.get(0).toString());
+        assertEquals("[T][ ] buy pen", list.get(1).toString());
+        assertFalse(loaded.get(1).isDone());
+    }
+
+    @Test
+    void deleteTask_repeatedlyFromFront_keepsNumberingInOrder() throws Exception {
+        TaskList list = new TaskList();
+        for (int i = 1; i <= 5000; i++) {
+            list.addTask(new ToDo("task " + i));
+        }
+
+        for (int i = 1; i <= 4000; i++) {
+            assertEquals("task " + i, list.deleteTask("1").getDescription());
+        }
+        assertEquals("task 4500", list.deleteTask("500").getDescription());
+
+        assertEquals(999, list.getSize());
+        assertEquals("task 4001", list.get(0).getDescription());
+        assertEquals("task 5000", list.getTask("999").getDescription());
+        assertThrows(RevelException.class, () -> list.deleteTask("1000"));
+    }
+
+    @Test
+    void taskIds_stayStableAcrossDeletesAndSelectTasks() throws Exception {
+        TaskList list = new TaskList();
+        list.addTask(new ToDo("read book"));
+        list.addTask(new ToDo("write report"));
+        list.addTask(new ToDo("buy milk"));
+
+        list.deleteTask("#1");
+        list.addTask(new ToDo("call mum"));
+
+        assertEquals(List.of(2L, 3L, 4L), list.getTaskList().stream().map(Task::getId).toList());
+        assertEquals("buy milk", list.markTask("#3").getDescription());
+        assertEquals(1, list.getIndex("#3"));
+        assertEquals("write report", list.deleteTask(" #2 ").getDescription());
+        assertThrows(RevelException.class, () -> list.deleteTask("#2"));
+        assertEquals(List.of("buy milk", "call mum"), descriptions(list));
+    }
+
+    @Test
+    void taskIds_loadedTasks_keepTheirIdsAndMissingOrTakenIdsAreReplaced() throws Exception {
+        TaskList list = new TaskList(List.of(
+                Task.fromFileString("TD | 0 | read book | 5"),
+                Task.fromFileString("TD | 0 | write report"),
+                Task.fromFileString("TD | 0 | buy milk | 5"),
+                Task.fromFileString("TD | 0 | call mum | 2")));
+
+        assertEquals(5, list.getId(0));
+        assertEquals(6, list.getId(1));
+        assertEquals(7, list.getId(2));
+        assertEquals(2, list.getId(3));
+        assertEquals("call mum", list.getTask("#2").getDescription());
+
+        list.addTask(new ToDo("water plants"));
+        assertEquals(8, list.get(4).getId());
+    }
+
+    @Test
+    void takeUnsavedIds_onlyReportsIdsGivenToLoadedTasks() throws Exception {
+        TaskList created = new TaskList();
+        created.addTask(new ToDo("read book"));
+        assertEquals(1, created.getId(0));
+        assertFalse(created.takeUnsavedIds());
+
+        TaskList loaded = new TaskList(List.of(
+                Task.fromFileString("TD | 0 | read book | 4"),
+                Task.fromFileString("TD | 0 | write report")));
+        loaded.addTask(new ToDo("buy milk"));
+        assertEquals(List.of(4L, 5L, 6L), loaded.getTaskList().stream().map(Task::getId).toList());
+        assertTrue(loaded.takeUnsavedIds());
+        assertFalse(loaded.takeUnsavedIds());
+    }
+
+    @Test
+    void takeUnsavedIds_addedBatchIsNotReported() throws Exception {
+        TaskList loaded = new TaskList(List.of(Task.fromFileString("TD | 0 | read book | 1")));
+
+        loaded.addTasks(List.of(new ToDo("write report"), new ToDo("buy milk"), new ToDo("call mum")));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), loaded.getTaskList().stream().map(Task::getId).toList());
+        assertFalse(loaded.takeUnsavedIds());
+    }
+
+    @Test
+    void setIdSource_newIdsAreReservedInOneBatchAndThenOneByOne() throws Exception {
+        List<String> reservations = new ArrayList<>();
+        TaskList list = new TaskList(List.of(
+                Task.fromFileString("TD | 0 | read book | 2"),
+                Task.fromFileString("TD | 0 | write report"),
+                Task.fromFileString("TD | 0 | buy milk")));
+        list.setIdSource((minimum, count) -> {
+            reservations.add(minimum + "+" + count);
+            return 10 * reservations.size();
+        });
+
+        assertEquals(10, list.getId(1));
+        assertEquals(11, list.getId(2));
+        list.addTask(new ToDo("call mum"));
+
+        assertEquals(20, list.get(3).getId());
+        assertEquals(List.of("3+2", "12+1"), reservations);
+    }
 }
@@ -0,0 +1,111 @@
+package revel.task;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import revel.RevelException;
+
+public class TaskRecordCodecTest {
+    private static final int[] ALPHABET = "abcXYZ019 |\\\n\r\t-:T/\u00e9\u4f60\ud83d\ude42".codePoints().toArray();
+
+    private static String randomDescription(Random random) {
+        StringBuilder sb = new StringBuilder();
+        int length = 1 + random.nextInt(24);
+        for (int i = 0; i < length; i++) {
+            sb.appendCodePoint(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        // Descriptions reach storage already stripped, so only interior whitespace has to survive.
+        String description = sb.toString().strip();
+        return description.isEmpty() ? "x" : description;
+    }
+
+    private static LocalDateTime randomDateTime(Random random) {
+        return LocalDateTime.of(1 + random.nextInt(9999), 1 + random.nextInt(12), 1 + random.nextInt(28),
+                random.nextInt(24), random.nextInt(60), random.nextInt(60));
+    }
+
+    private static Task randomTask(Random random) {
+        String description = randomDescription(random);
+        Task task = switch (random.nextInt(3)) {
+        case 0 -> new ToDo(description);
+        case 1 -> new Deadline(description, randomDateTime(random));
+        default -> new Event(description, randomDateTime(random), randomDateTime(random));
+        };
+        if (random.nextBoolean()) {
+            task.markAsDone();
+        }
+        return task;
+    }
+
+    @Test
+    void decode_randomTasks_roundTrip() throws Exception {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            Task original = randomTask(random);
+            sb.setLength(0);
+            original.appendFileString(sb);
+
+            Task parsed = Task.fromFileString(sb.toString());
+
+            assertEquals(original.getClass(), parsed.getClass());
+            assertEquals(original.getDescription(), parsed.getDescription());
+            assertEquals(original.isDone(), parsed.isDone());
+            assertEquals(original.toString(), parsed.toString());
+            assertEquals(sb.toString(), parsed.toFileString());
+        }
+    }
+
+    @Test
+    void appendFileString_delimiterInDescription_isEscaped() throws Exception {
+        Task task = new ToDo("pipe | and \\ slash");
+
+        assertEquals("TD | 0 | pipe \\| and \\\\ slash", task.toFileString());
+        assertEquals("pipe | and \\ slash", Task.fromFileString(task.toFileString()).getDescription());
+    }
+
+    @Test
+    void decode_legacyRecord_toleratesLooseSpacingAndBackslashes() throws Exception {
+        Task task = Task.fromFileString("DL|1|  C:\\temp files  |2019-12-02T18:00");
+
+        assertEquals("C:\\temp files", task.getDescription());
+        assertEquals("DL | 1 | C:\\\\temp files | 2019-12-02T18:00:00", task.toFileString());
+    }
+
+    @Test
+    void decode_trailingIdField_roundTripsAndRejectsInvalidIds() throws Exception {
+        Task todo = Task.fromFileString("TD | 0 | read book | 42");
+        Task event = Task.fromFileString("E | 1 | trip | 2026-02-20T10:00:00 | 2026-02-21T10:00:00 | 7");
+
+        assertEquals(42, todo.getId());
+        assertEquals("TD | 0 | read book | 42", todo.toFileString());
+        assertEquals(7, event.getId());
+        assertEquals(0, Task.fromFileString("TD | 0 | read book").getId());
+        assertThrows(RevelException.class, () -> Task.fromFileString("TD | 0 | read book | x"));
+        assertThrows(RevelException.class, () -> Task.fromFileString("TD | 0 | read book | 0"));
+        assertThrows(RevelException.class, () -> Task.fromFileString("TD | 0 | read book | 3 | #81e7"));
+    }
+
+    @Test
+    void decode_missingOrBlankFields_throws() {
+        assertThrows(RevelException.class, () -> Task.fromFileString("TD | 0"));
+        assertThrows(RevelException.class, () -> Task.fromFileString("TD | 0 |   "));
+        assertThrows(RevelException.class, () -> Task.fromFileString("E | 0 | meeting | 2026-02-20T10:00:00"));
+    }
+
+    @Test
+    void parseDateTime_outOfRangeFields_returnsNull() {
+        assertNull(TaskRecordCodec.parseDateTime("2023-02-29T10:00:00", 0, 19));
+        assertNull(TaskRecordCodec.parseDateTime("2024-13-01T10:00", 0, 16));
+        assertNull(TaskRecordCodec.parseDateTime("2024-01-01T24:00", 0, 16));
+        assertNull(TaskRecordCodec.parseDateTime("2024/01/01T10:00", 0, 16));
+        assertEquals(LocalDateTime.of(2024, 2, 29, 23, 59, 59),
+                TaskRecordCodec.parseDateTime("2024-02-29T23:59:59", 0, 19));
+    }
+}